@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Starts one build of Thufir, waits for the readiness group (context and Tastytrade) to report UP and
+# prints time to ready and resident memory. Run it several times per build; see docs/native.md.
+#
+#   scripts/startup-benchmark.sh jvm     java -jar target/thufir-0.0.1-SNAPSHOT-exec.jar
+#   scripts/startup-benchmark.sh cds     java -XX:SharedArchiveFile=target/cds/thufir.jsa -jar target/cds/thufir-0.0.1-SNAPSHOT-exec.jar
+#   scripts/startup-benchmark.sh native  target/thufir
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+  echo "usage: $0 <label> <command...>" >&2
+  exit 2
+fi
+label=$1
+shift
+
+port=${SERVER_PORT:-8080}
+timeout_s=${READY_TIMEOUT_S:-300}
+settle_s=${SETTLE_S:-30}
+
+start_ns=$(date +%s%N)
+"$@" > "target/startup-${label}.log" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; wait "$pid" 2>/dev/null || true' EXIT
+
+until curl -fs "http://localhost:${port}/actuator/health/readiness" > /dev/null; do
+  if ! kill -0 "$pid" 2>/dev/null; then
+    echo "$label: process exited before it was ready, see target/startup-${label}.log" >&2
+    exit 1
+  fi
+  if [ $(( ($(date +%s%N) - start_ns) / 1000000000 )) -ge "$timeout_s" ]; then
+    echo "$label: not ready after ${timeout_s}s" >&2
+    exit 1
+  fi
+  sleep 0.05
+done
+ready_ms=$(( ($(date +%s%N) - start_ns) / 1000000 ))
+ready_rss_kb=$(ps -o rss= -p "$pid" | tr -d ' ')
+
+# Steady state: after the first seed, reconcile and order polls.
+sleep "$settle_s"
+settled_rss_kb=$(ps -o rss= -p "$pid" | tr -d ' ')
+
+echo "$label ready_ms=${ready_ms} rss_at_ready_mb=$(( ready_rss_kb / 1024 )) rss_after_${settle_s}s_mb=$(( settled_rss_kb / 1024 ))"
@@ -1,16 +1,49 @@
 package com.larrydevincarter.thufir;
 
+import com.larrydevincarter.thufir.configs.ThufirRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableScheduling
+@ImportRuntimeHints(ThufirRuntimeHints.class)
 public class ThufirApplication {
 
 	public static void main(String[] args) {
 		System.setProperty("user.timezone", "America/Chicago");
-		SpringApplication.run(ThufirApplication.class, args);
+		SpringApplication application = new SpringApplication(ThufirApplication.class);
+		application.setDefaultProperties(defaultProperties());
+		application.run(args);
+	}
+
+	/**
+	 * Defaults that the external configuration can override.
+	 */
+	static Map<String, Object> defaultProperties() {
+		return Map.ofEntries(
+				Map.entry("spring.application.name", "thufir"),
+				// One cycle every five minutes: trace all of them.
+				Map.entry("management.tracing.sampling.probability", "1.0"),
+				Map.entry("management.endpoints.web.exposure.include", "health,info,metrics,prometheus"),
+				// @Async work and web requests each get a virtual thread. Scheduled jobs run on AppConfig's
+				// virtual-thread scheduler pool.
+				Map.entry("spring.threads.virtual.enabled", "true"),
+				Map.entry("spring.task.execution.thread-name-prefix", "thufir-task-"),
+				// Virtual threads are daemons; keep the JVM up even if nothing else is holding it.
+				Map.entry("spring.main.keep-alive", "true"),
+				// Discord and Tastytrade connect in the background. The readiness group reports when Tastytrade is
+				// up and gates wheel cycles; Discord only carries notifications, so it has its own group and a
+				// reconnect never stops trading.
+				Map.entry("management.endpoint.health.probes.enabled", "true"),
+				Map.entry("management.endpoint.health.group.readiness.include", "readinessState,tastytrade"),
+				Map.entry("management.endpoint.health.group.notifications.include", "discord"),
+				// Repositories are proxies until first use while Hibernate boots on the task executor.
+				Map.entry("spring.data.jpa.repositories.bootstrap-mode", "deferred")
+		);
 	}
 
 }
@@ -0,0 +1,90 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.services.RiskEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Replays the wheel cycle over a {@link MarketTape} without Spring, the network or the model. Each frame
+ * follows the live path: settle expiries, apply the VIX halt, ask the decision function, run the
+ * production {@link RiskEngine} over the proposed sales, then submit to the {@link SimulatedBroker}.
+ */
+public final class BacktestEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BacktestEngine.class);
+
+    private BacktestEngine() {}
+
+    public static BacktestReport run(MarketTape tape, BacktestParameters parameters, DecisionFunction decisionFunction) {
+        long started = System.nanoTime();
+        SimulatedBroker broker = new SimulatedBroker(parameters.startingCash(), parameters.commissionPerContract());
+        RiskEngine riskEngine = new RiskEngine(parameters.cashBuffer(), parameters.maxUnderlyingExposurePct(),
+                parameters.maxOrdersPerCycle());
+
+        int cycles = 0;
+        double peak = parameters.startingCash();
+        double maxDrawdownPct = 0.0;
+        LocalDate haltedDay = null;
+        TapeFrame last = null;
+
+        for (TapeFrame frame : tape.frames()) {
+            broker.advance(frame);
+            last = frame;
+            if (!frame.tradingDay()) {
+                continue;
+            }
+
+            LocalDate day = frame.time().toLocalDate();
+            if (day.equals(haltedDay)) {
+                continue;
+            }
+            if (frame.vix() != null && frame.vix() > parameters.vixHalt()) {
+                haltedDay = day;
+                continue;
+            }
+
+            cycles++;
+            List<WheelDecision> sales = decisionFunction.decide(frame, broker.snapshot(frame), parameters).stream()
+                    .filter(d -> "sell_put".equals(d.action()) || "sell_call".equals(d.action()))
+                    .toList();
+            if (!sales.isEmpty()) {
+                RiskEngine.Assessment assessment = riskEngine.evaluate(sales, broker.snapshot(frame), 0.0);
+                for (WheelDecision decision : assessment.accepted()) {
+                    broker.submit(decision, frame);
+                }
+            }
+
+            double equity = broker.equity(frame);
+            peak = Math.max(peak, equity);
+            maxDrawdownPct = Math.max(maxDrawdownPct, peak > 0 ? (peak - equity) / peak * 100.0 : 0.0);
+        }
+
+        double finalEquity = last == null ? parameters.startingCash() : broker.equity(last);
+        double pnl = finalEquity - parameters.startingCash();
+        long days = tape.size() < 2 ? 1 : Math.max(1, ChronoUnit.DAYS.between(
+                tape.frames().getFirst().time().toLocalDate(), last.time().toLocalDate()));
+        double returnPct = pnl / parameters.startingCash() * 100.0;
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        log.debug("Backtest {} finished {} cycles in {} ms", parameters.name(), cycles, elapsedMs);
+        return new BacktestReport(parameters.name(), cycles, broker.trades, broker.assignments, broker.calledAway,
+                broker.expiredWorthless, broker.premiumCollected, finalEquity, pnl, returnPct, maxDrawdownPct,
+                returnPct / days, elapsedMs);
+    }
+
+    /**
+     * Runs every parameter set in parallel. Decision functions may hold per-run state, so each run gets its own.
+     */
+    public static List<BacktestReport> runAll(MarketTape tape, List<BacktestParameters> parameterSets,
+                                              Supplier<DecisionFunction> decisionFunctions) {
+        return parameterSets.parallelStream()
+                .map(parameters -> run(tape, parameters, decisionFunctions.get()))
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.WheelDecision;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Supplier;
+
+/**
+ * Command-line entry point, run from the packaged jar without starting the application:
+ * <pre>
+ * java -cp target/thufir-*-exec.jar -Dloader.main=com.larrydevincarter.thufir.backtest.BacktestMain \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher tape.jsonl [decisions.jsonl]
+ * </pre>
+ * With only a tape, sweeps the rule-based policy over a grid of deltas, VIX halts and batch sizes. With a
+ * decisions file, replays the recorded model output against the default parameters.
+ */
+public final class BacktestMain {
+
+    private BacktestMain() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: BacktestMain <tape.jsonl> [decisions.jsonl]");
+            System.exit(2);
+        }
+
+        MarketTape tape = MarketTape.load(Path.of(args[0]));
+        System.out.printf("Loaded %d frames from %s%n", tape.size(), args[0]);
+
+        List<BacktestParameters> grid;
+        Supplier<DecisionFunction> decisionFunctions;
+        if (args.length > 1) {
+            NavigableMap<LocalDateTime, List<WheelDecision>> recorded = RecordedDecisionFunction.load(Path.of(args[1]));
+            grid = List.of(BacktestParameters.defaults("recorded"));
+            decisionFunctions = () -> new RecordedDecisionFunction(recorded);
+        } else {
+            grid = defaultGrid();
+            decisionFunctions = RuleBasedDecisionFunction::new;
+        }
+
+        long started = System.nanoTime();
+        List<BacktestReport> reports = BacktestEngine.runAll(tape, grid, decisionFunctions);
+        reports.forEach(report -> System.out.println(report.format()));
+        System.out.printf("%d runs in %d ms%n", reports.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    static List<BacktestParameters> defaultGrid() {
+        BacktestParameters base = BacktestParameters.defaults("rules");
+        return List.of(0.15, 0.20, 0.30).stream()
+                .flatMap(delta -> List.of(20.0, 25.0, 30.0).stream()
+                        .flatMap(vix -> List.of(1, 3).stream()
+                                .map(orders -> base.withTargetDelta(delta).withVixHalt(vix).withMaxOrdersPerCycle(orders))))
+                .toList();
+    }
+}
@@ -0,0 +1,29 @@
+package com.larrydevincarter.thufir.backtest;
+
+/**
+ * One point in the parameter space a backtest run explores.
+ */
+public record BacktestParameters(String name, double startingCash, double vixHalt, double targetDelta,
+                                 double minProbabilityOfProfit, int minDte, int maxDte, int maxOrdersPerCycle,
+                                 double cashBuffer, double maxUnderlyingExposurePct, double commissionPerContract,
+                                 double riskFreeRate) {
+
+    public static BacktestParameters defaults(String name) {
+        return new BacktestParameters(name, 2_000.0, 25.0, 0.20, 0.70, 7, 45, 1, 1.1, 10.0, 1.0, 0.045);
+    }
+
+    public BacktestParameters withTargetDelta(double delta) {
+        return new BacktestParameters(name + " delta" + delta, startingCash, vixHalt, delta, minProbabilityOfProfit,
+                minDte, maxDte, maxOrdersPerCycle, cashBuffer, maxUnderlyingExposurePct, commissionPerContract, riskFreeRate);
+    }
+
+    public BacktestParameters withVixHalt(double vix) {
+        return new BacktestParameters(name + " VIX" + vix, startingCash, vix, targetDelta, minProbabilityOfProfit,
+                minDte, maxDte, maxOrdersPerCycle, cashBuffer, maxUnderlyingExposurePct, commissionPerContract, riskFreeRate);
+    }
+
+    public BacktestParameters withMaxOrdersPerCycle(int orders) {
+        return new BacktestParameters(name + " x" + orders, startingCash, vixHalt, targetDelta, minProbabilityOfProfit,
+                minDte, maxDte, orders, cashBuffer, maxUnderlyingExposurePct, commissionPerContract, riskFreeRate);
+    }
+}
@@ -0,0 +1,16 @@
+package com.larrydevincarter.thufir.backtest;
+
+/**
+ * Outcome of one backtest run.
+ */
+public record BacktestReport(String name, int cycles, int trades, int assignments, int calledAway, int expiredWorthless,
+                             double premiumCollected, double finalEquity, double pnl, double returnPct,
+                             double maxDrawdownPct, double yieldPerDayPct, long elapsedMs) {
+
+    public String format() {
+        return String.format("%-28s cycles=%-6d trades=%-4d assigned=%-3d called=%-3d expired=%-4d premium=$%-9.2f "
+                        + "equity=$%-10.2f pnl=$%-9.2f return=%6.2f%% maxDD=%6.2f%% yield/day=%.4f%% (%d ms)",
+                name, cycles, trades, assignments, calledAway, expiredWorthless, premiumCollected,
+                finalEquity, pnl, returnPct, maxDrawdownPct, yieldPerDayPct, elapsedMs);
+    }
+}
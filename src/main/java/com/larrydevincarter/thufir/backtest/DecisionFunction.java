@@ -0,0 +1,16 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+
+import java.util.List;
+
+/**
+ * The pluggable "model" of a backtest: given the market frame and the simulated portfolio, return the
+ * cycle's decisions, best first. Rules, recorded LLM output or a local stub all fit behind this.
+ */
+@FunctionalInterface
+public interface DecisionFunction {
+
+    List<WheelDecision> decide(TapeFrame frame, PortfolioSnapshot portfolio, BacktestParameters parameters);
+}
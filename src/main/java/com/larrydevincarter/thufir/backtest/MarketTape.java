@@ -0,0 +1,66 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Time-ordered recorded market data: one JSON object per line, each a {@link TapeFrame}.
+ */
+public final class MarketTape {
+
+    static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final List<TapeFrame> frames;
+
+    public MarketTape(List<TapeFrame> frames) {
+        this.frames = List.copyOf(frames);
+    }
+
+    public static MarketTape load(Path path) throws IOException {
+        List<TapeFrame> frames = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    frames.add(MAPPER.readValue(line, TapeFrame.class));
+                }
+            }
+        }
+        frames.sort(Comparator.comparing(TapeFrame::time));
+
+        List<TapeFrame> filled = new ArrayList<>(frames.size());
+        TapeFrame previous = null;
+        for (TapeFrame frame : frames) {
+            if (previous != null) {
+                frame = new TapeFrame(frame.time(), frame.tradingDay(),
+                        frame.vix() != null ? frame.vix() : previous.vix(),
+                        frame.spots().isEmpty() ? previous.spots() : frame.spots(),
+                        frame.chains().isEmpty() ? previous.chains() : frame.chains());
+            }
+            filled.add(frame);
+            previous = frame;
+        }
+        return new MarketTape(filled);
+    }
+
+    public List<TapeFrame> frames() {
+        return frames;
+    }
+
+    public int size() {
+        return frames.size();
+    }
+}
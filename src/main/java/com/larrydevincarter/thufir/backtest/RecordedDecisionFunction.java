@@ -0,0 +1,65 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WheelPlan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Replays decisions the live model actually made. Input is JSON lines of
+ * {@code {"time": ..., "decision": {...}}} or {@code {"time": ..., "plan": {...}}}; each frame receives the
+ * decisions recorded since the previous frame.
+ */
+public class RecordedDecisionFunction implements DecisionFunction {
+
+    private final NavigableMap<LocalDateTime, List<WheelDecision>> recorded;
+    private LocalDateTime lastFrame;
+
+    public RecordedDecisionFunction(NavigableMap<LocalDateTime, List<WheelDecision>> recorded) {
+        this.recorded = recorded;
+    }
+
+    public static NavigableMap<LocalDateTime, List<WheelDecision>> load(Path path) throws IOException {
+        NavigableMap<LocalDateTime, List<WheelDecision>> recorded = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MarketTape.MAPPER.readTree(line);
+                LocalDateTime time = MarketTape.MAPPER.treeToValue(node.get("time"), LocalDateTime.class);
+                List<WheelDecision> decisions = node.has("plan")
+                        ? MarketTape.MAPPER.treeToValue(node.get("plan"), WheelPlan.class).actions()
+                        : List.of(MarketTape.MAPPER.treeToValue(node.get("decision"), WheelDecision.class));
+                recorded.computeIfAbsent(time, t -> new ArrayList<>()).addAll(decisions);
+            }
+        }
+        return recorded;
+    }
+
+    @Override
+    public List<WheelDecision> decide(TapeFrame frame, PortfolioSnapshot portfolio, BacktestParameters parameters) {
+        NavigableMap<LocalDateTime, List<WheelDecision>> window = lastFrame == null
+                ? recorded.headMap(frame.time(), true)
+                : recorded.subMap(lastFrame, false, frame.time(), true);
+        lastFrame = frame.time();
+
+        List<WheelDecision> decisions = new ArrayList<>();
+        for (Map.Entry<LocalDateTime, List<WheelDecision>> entry : window.entrySet()) {
+            decisions.addAll(entry.getValue());
+        }
+        return decisions;
+    }
+}
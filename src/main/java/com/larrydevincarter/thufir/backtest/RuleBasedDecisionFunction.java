@@ -0,0 +1,92 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.Option;
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.utils.OptionPricing;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Deterministic wheel policy: covered calls on assigned shares first, then short puts whose computed delta
+ * is within the target and whose probability of profit clears the minimum, ranked by POP-weighted yield per day.
+ */
+public class RuleBasedDecisionFunction implements DecisionFunction {
+
+    record Candidate(WheelDecision decision, double score) {}
+
+    @Override
+    public List<WheelDecision> decide(TapeFrame frame, PortfolioSnapshot portfolio, BacktestParameters parameters) {
+        List<Candidate> candidates = new ArrayList<>();
+
+        for (PortfolioPosition position : portfolio.positions().values()) {
+            if (position.isLongStock() && position.quantity() >= 100) {
+                candidates.addAll(evaluate(frame, parameters, position.underlying(), true,
+                        position.averagePrice() == null ? 0.0 : position.averagePrice(), (int) (position.quantity() / 100)));
+            }
+        }
+        boolean hasCalls = !candidates.isEmpty();
+
+        for (String ticker : frame.chains().keySet()) {
+            candidates.addAll(evaluate(frame, parameters, ticker, false, 0.0, 1));
+        }
+
+        // Calls on assigned shares always rank ahead of new puts.
+        Comparator<Candidate> order = Comparator.comparing((Candidate c) -> !"sell_call".equals(c.decision().action()))
+                .thenComparingDouble(c -> -c.score());
+        List<WheelDecision> ranked = candidates.stream().sorted(order).map(Candidate::decision).toList();
+
+        int limit = parameters.maxOrdersPerCycle() + (hasCalls ? 1 : 0);
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    private List<Candidate> evaluate(TapeFrame frame, BacktestParameters parameters, String ticker, boolean call,
+                                     double minStrike, int quantity) {
+        List<Candidate> candidates = new ArrayList<>();
+        Double spot = frame.spot(ticker);
+        List<Option> chain = frame.chains().get(ticker);
+        if (spot == null || chain == null) {
+            return candidates;
+        }
+
+        double r = parameters.riskFreeRate();
+        Candidate best = null;
+        for (Option option : chain) {
+            if (SimulatedBroker.isCall(option) != call || option.getStrike() == null
+                    || option.getPreviousClose() == null || option.getPreviousClose() <= 0
+                    || option.getExpirationDate() == null || option.getStrike() < minStrike) {
+                continue;
+            }
+            long dte = ChronoUnit.DAYS.between(frame.time().toLocalDate(), option.getExpirationDate());
+            if (dte < parameters.minDte() || dte > parameters.maxDte()) {
+                continue;
+            }
+            double t = dte / 365.0;
+            double vol = OptionPricing.impliedVol(call, option.getPreviousClose(), spot, option.getStrike(), t, r, r);
+            if (Double.isNaN(vol)) {
+                continue;
+            }
+            double delta = Math.abs(OptionPricing.delta(call, spot, option.getStrike(), t, r, r, vol));
+            double pop = OptionPricing.shortProbabilityOfProfit(call, spot, option.getStrike(), option.getPreviousClose(), t, r, vol);
+            if (delta > parameters.targetDelta() || pop < parameters.minProbabilityOfProfit()) {
+                continue;
+            }
+            double score = option.getPreviousClose() / option.getStrike() / dte * pop;
+            if (best == null || score > best.score()) {
+                WheelDecision decision = new WheelDecision(call ? "sell_call" : "sell_put", ticker, option.getStrike(),
+                        option.getExpirationDate().toString(), quantity, option.getPreviousClose(), option.getPreviousClose(),
+                        delta, option.getPreviousClose() / option.getStrike() / dte * 100.0, null,
+                        "rules", pop, frame.vix(), "tape");
+                best = new Candidate(decision, score);
+            }
+        }
+        if (best != null) {
+            candidates.add(best);
+        }
+        return candidates;
+    }
+}
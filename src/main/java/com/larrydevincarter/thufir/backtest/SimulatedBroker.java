@@ -0,0 +1,177 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.Option;
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.utils.OccSymbols;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cash-account broker for backtests. Sell-to-open limits fill when the recorded mark is at or above the
+ * limit; options are settled the first time the tape passes their expiry, against the last spot seen on
+ * or before it (assignment for ITM puts, call-away for ITM calls, worthless otherwise).
+ */
+public class SimulatedBroker {
+
+    record ShortOption(String symbol, String ticker, boolean call, double strike, LocalDate expiry, int quantity, double premium) {}
+
+    record Shares(double quantity, double costBasis) {}
+
+    private final double commissionPerContract;
+    private final Map<String, ShortOption> shortOptions = new LinkedHashMap<>();
+    private final Map<String, Shares> shares = new HashMap<>();
+    private final Map<String, Double> lastSpots = new HashMap<>();
+    private double cash;
+    private long version;
+
+    int trades;
+    int assignments;
+    int calledAway;
+    int expiredWorthless;
+    double premiumCollected;
+
+    public SimulatedBroker(double startingCash, double commissionPerContract) {
+        this.cash = startingCash;
+        this.commissionPerContract = commissionPerContract;
+    }
+
+    /**
+     * Records the frame's spots and settles every option that expired before the frame's date.
+     */
+    public void advance(TapeFrame frame) {
+        LocalDate today = frame.time().toLocalDate();
+        for (Iterator<ShortOption> it = shortOptions.values().iterator(); it.hasNext(); ) {
+            ShortOption option = it.next();
+            if (!option.expiry().isBefore(today)) {
+                continue;
+            }
+            Double spot = lastSpots.get(option.ticker());
+            settle(option, spot == null ? option.strike() : spot);
+            it.remove();
+            version++;
+        }
+        lastSpots.putAll(frame.spots());
+    }
+
+    private void settle(ShortOption option, double spot) {
+        int contracts = option.quantity();
+        if (!option.call() && spot < option.strike()) {
+            Shares held = shares.getOrDefault(option.ticker(), new Shares(0, 0));
+            double added = 100.0 * contracts;
+            double basis = option.strike() - option.premium();
+            double quantity = held.quantity() + added;
+            shares.put(option.ticker(), new Shares(quantity, (held.costBasis() * held.quantity() + basis * added) / quantity));
+            cash -= option.strike() * added;
+            assignments++;
+        } else if (option.call() && spot > option.strike()) {
+            Shares held = shares.get(option.ticker());
+            double removed = Math.min(100.0 * contracts, held == null ? 0 : held.quantity());
+            if (held != null) {
+                double remaining = held.quantity() - removed;
+                if (remaining <= 0) {
+                    shares.remove(option.ticker());
+                } else {
+                    shares.put(option.ticker(), new Shares(remaining, held.costBasis()));
+                }
+            }
+            cash += option.strike() * removed;
+            calledAway++;
+        } else {
+            expiredWorthless++;
+        }
+    }
+
+    /**
+     * @return true if the order filled
+     */
+    public boolean submit(WheelDecision decision, TapeFrame frame) {
+        boolean call = "sell_call".equals(decision.action());
+        LocalDate expiry = LocalDate.parse(decision.expiry());
+        Option contract = findContract(frame, decision.ticker(), call, decision.strike(), expiry);
+        if (contract == null || contract.getPreviousClose() == null || decision.limitPrice() > contract.getPreviousClose()) {
+            return false;
+        }
+
+        String symbol = OccSymbols.format(decision.ticker(), expiry, call ? 'C' : 'P', decision.strike());
+        ShortOption existing = shortOptions.get(symbol);
+        int quantity = decision.quantity() + (existing == null ? 0 : existing.quantity());
+        double premium = existing == null ? decision.limitPrice()
+                : (existing.premium() * existing.quantity() + decision.limitPrice() * decision.quantity()) / quantity;
+        shortOptions.put(symbol, new ShortOption(symbol, decision.ticker(), call, decision.strike(), expiry, quantity, premium));
+
+        double credit = decision.limitPrice() * 100 * decision.quantity();
+        cash += credit - commissionPerContract * decision.quantity();
+        premiumCollected += credit;
+        trades++;
+        version++;
+        return true;
+    }
+
+    /**
+     * Mark-to-market: cash plus shares at spot, minus the cost to buy back every short option.
+     */
+    public double equity(TapeFrame frame) {
+        double equity = cash;
+        for (Map.Entry<String, Shares> entry : shares.entrySet()) {
+            equity += entry.getValue().quantity() * lastSpots.getOrDefault(entry.getKey(), entry.getValue().costBasis());
+        }
+        for (ShortOption option : shortOptions.values()) {
+            equity -= mark(frame, option) * 100 * option.quantity();
+        }
+        return equity;
+    }
+
+    public PortfolioSnapshot snapshot(TapeFrame frame) {
+        Map<String, PortfolioPosition> positions = new LinkedHashMap<>();
+        for (ShortOption option : shortOptions.values()) {
+            positions.put(option.symbol(), new PortfolioPosition(option.symbol(), option.ticker(), "Equity Option",
+                    option.call() ? "Call" : "Put", -option.quantity(), option.strike(), option.premium(),
+                    -mark(frame, option) * 100 * option.quantity()));
+        }
+        for (Map.Entry<String, Shares> entry : shares.entrySet()) {
+            double spot = lastSpots.getOrDefault(entry.getKey(), entry.getValue().costBasis());
+            positions.put(entry.getKey(), new PortfolioPosition(entry.getKey(), entry.getKey(), "Stock", "",
+                    entry.getValue().quantity(), null, entry.getValue().costBasis(), entry.getValue().quantity() * spot));
+        }
+        return PortfolioSnapshot.of(version, frame.time(), "backtest", equity(frame), cash, positions);
+    }
+
+    public double cash() {
+        return cash;
+    }
+
+    private double mark(TapeFrame frame, ShortOption option) {
+        Option contract = findContract(frame, option.ticker(), option.call(), option.strike(), option.expiry());
+        if (contract != null && contract.getPreviousClose() != null) {
+            return contract.getPreviousClose();
+        }
+        double spot = lastSpots.getOrDefault(option.ticker(), option.strike());
+        return option.call() ? Math.max(0, spot - option.strike()) : Math.max(0, option.strike() - spot);
+    }
+
+    static Option findContract(TapeFrame frame, String ticker, boolean call, double strike, LocalDate expiry) {
+        List<Option> chain = frame.chains().get(ticker);
+        if (chain == null) {
+            return null;
+        }
+        for (Option option : chain) {
+            if (option.getStrike() != null && Math.abs(option.getStrike() - strike) < 1e-6
+                    && expiry.equals(option.getExpirationDate())
+                    && isCall(option) == call) {
+                return option;
+            }
+        }
+        return null;
+    }
+
+    static boolean isCall(Option option) {
+        return option.getOptionType() != null && Character.toLowerCase(option.getOptionType().charAt(0)) == 'c';
+    }
+}
@@ -0,0 +1,26 @@
+package com.larrydevincarter.thufir.backtest;
+
+import com.larrydevincarter.thufir.models.Option;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Market state at one recorded cycle. On disk, {@code spots} and {@code chains} may be omitted to carry
+ * the previous frame's values forward; {@link MarketTape#load} fills them in. A missing {@code tradingDay}
+ * means the market was open.
+ */
+public record TapeFrame(LocalDateTime time, Boolean tradingDay, Double vix,
+                        Map<String, Double> spots, Map<String, List<Option>> chains) {
+
+    public TapeFrame {
+        tradingDay = tradingDay == null || tradingDay;
+        spots = spots == null ? Map.of() : spots;
+        chains = chains == null ? Map.of() : chains;
+    }
+
+    public Double spot(String ticker) {
+        return spots.get(ticker);
+    }
+}
@@ -0,0 +1,144 @@
+package com.larrydevincarter.thufir.clients;
+
+import com.larrydevincarter.thufir.models.CapturedExchange;
+import com.larrydevincarter.thufir.services.CaptureLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Records every call made through the shared RestTemplate, or answers it from the capture log when replaying.
+ * Headers are never stored. Request bodies to {@code thufir.capture.redact-paths} are dropped and session tokens
+ * in responses are masked, so a log holds no credentials. Hosts in {@code thufir.capture.exclude-hosts}
+ * (the Discord webhook), and their subdomains, are passed through when recording and answered with an empty 204
+ * when replaying.
+ * <p>
+ * Calls are keyed by method, URL and a digest of the request body (except on redacted paths), so two requests to the
+ * same endpoint with different bodies never get each other's response. A replay miss fails the call.
+ */
+@Component
+public class CaptureInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Pattern TOKEN_FIELDS = Pattern.compile("\"(session-token|remember-token)\"\\s*:\\s*\"[^\"]*\"");
+
+    private final CaptureLog captureLog;
+    private final List<String> redactPaths;
+    private final List<String> excludeHosts;
+
+    public CaptureInterceptor(CaptureLog captureLog,
+                              @Value("${thufir.capture.redact-paths:/sessions}") String redactPaths,
+                              @Value("${thufir.capture.exclude-hosts:discord.com,discordapp.com}") String excludeHosts) {
+        this.captureLog = captureLog;
+        this.redactPaths = split(redactPaths);
+        this.excludeHosts = split(excludeHosts);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (captureLog.mode() == CaptureLog.Mode.OFF) {
+            return execution.execute(request, body);
+        }
+
+        String requestHost = request.getURI().getHost();
+        boolean excluded = requestHost != null
+                && excludeHosts.stream().anyMatch(host -> requestHost.equals(host) || requestHost.endsWith("." + host));
+        boolean redacted = redactPaths.stream().anyMatch(path -> request.getURI().getPath().endsWith(path));
+        String key = CaptureLog.contentKey(request.getMethod() + " " + request.getURI(),
+                redacted ? null : new String(body, StandardCharsets.UTF_8));
+
+        if (captureLog.replaying()) {
+            if (excluded) {
+                return new CapturedResponse(HttpStatus.NO_CONTENT.value(), null, new byte[0]);
+            }
+            CapturedExchange exchange = captureLog.replay("http", key)
+                    .orElseThrow(() -> new IllegalStateException("Replay miss: no captured response left for " + key));
+            byte[] responseBody = exchange.response() == null ? new byte[0] : exchange.response().getBytes(StandardCharsets.UTF_8);
+            return new CapturedResponse(exchange.status(), exchange.contentType(), responseBody);
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (excluded) {
+            return response;
+        }
+
+        byte[] responseBody;
+        try (InputStream in = response.getBody()) {
+            responseBody = in.readAllBytes();
+        }
+        MediaType contentType = response.getHeaders().getContentType();
+        int status = response.getStatusCode().value();
+        response.close();
+
+        String requestText = redacted || body.length == 0 ? null : new String(body, StandardCharsets.UTF_8);
+        String responseText = new String(responseBody, StandardCharsets.UTF_8);
+        if (redacted) {
+            responseText = TOKEN_FIELDS.matcher(responseText).replaceAll("\"$1\":\"redacted\"");
+        }
+        captureLog.record("http", key, requestText, status, contentType == null ? null : contentType.toString(), responseText);
+
+        return new CapturedResponse(status, contentType == null ? null : contentType.toString(), responseBody);
+    }
+
+    private static List<String> split(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+
+    /**
+     * Fully buffered response, either read off the wire while recording or rebuilt from the log.
+     */
+    private static final class CapturedResponse implements ClientHttpResponse {
+
+        private final HttpStatusCode status;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final byte[] body;
+
+        CapturedResponse(int status, String contentType, byte[] body) {
+            this.status = HttpStatusCode.valueOf(status);
+            this.body = body;
+            if (contentType != null) {
+                headers.setContentType(MediaType.parseMediaType(contentType));
+            }
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus resolved = HttpStatus.resolve(status.value());
+            return resolved == null ? "" : resolved.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.larrydevincarter.thufir.clients;
+
+import com.larrydevincarter.thufir.services.CycleContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Fails reads fast once the current cycle is out of time, instead of starting a call whose answer would
+ * arrive after the decision it feeds. Writes (order placement and cancellation, Discord notices) always go
+ * out: they are only made once something has been decided, and dropping them half-way is worse than running late.
+ */
+@Component
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (HttpMethod.GET.equals(request.getMethod()) && CycleContext.remaining().map(left -> left.isZero()).orElse(false)) {
+            throw new IOException("Cycle budget exhausted before " + request.getMethod() + " " + request.getURI().getPath());
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -2,18 +2,24 @@ package com.larrydevincarter.thufir.clients;
 
 import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
 import com.larrydevincarter.thufir.models.dtos.UpdateStatusDto;
+import com.larrydevincarter.thufir.services.CycleContext;
 import com.larrydevincarter.thufir.services.OptionScannerUpdateMonitor;
+import com.larrydevincarter.thufir.services.TradingCalendar;
 import com.larrydevincarter.thufir.utils.OptionScannerClientUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +29,7 @@ public class MarketStatusClient {
 
     private final RestTemplate restTemplate;
     private final OptionScannerUpdateMonitor updateMonitor;
+    private final TradingCalendar calendar;
 
     private final String endpointUrl = "http://localhost:8081/api/market-status";
 
@@ -30,15 +37,51 @@ public class MarketStatusClient {
     private static final long INITIAL_RETRY_DELAY_MS = 10000;
     private static final double BACKOFF_MULTIPLIER = 2.0;
 
+    /**
+     * Today's session from the local calendar, without touching the network. OptionScanner is only asked for
+     * dates the calendar does not cover.
+     */
     public MarketStatusDto getStatus() {
+        Optional<MarketStatusDto> local = calendar.today();
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        log.warn("Trading calendar does not cover today — asking OptionScanner");
+        return fetchRemoteStatus().orElseGet(() -> {
+            log.error("Market status unavailable — assuming NOT a trading day to prioritize safety");
+            MarketStatusDto emergency = new MarketStatusDto();
+            emergency.setTradingDay(false);
+            emergency.setTodayCloseTime("15:00");
+            return emergency;
+        });
+    }
+
+    /**
+     * Checks the calendar against OptionScanner ahead of the daily kickoff. If OptionScanner is down the calendar
+     * simply stands; it is tried again the next morning.
+     */
+    @Scheduled(cron = "0 0 7 * * MON-FRI", zone = "America/Chicago")
+    public void reconcileCalendar() {
+        LocalDate today = LocalDate.now(ZoneId.of("America/Chicago"));
+        fetchRemoteStatus().ifPresentOrElse(
+                remote -> {
+                    if (calendar.reconcile(today, remote)) {
+                        log.info("Trading calendar matches OptionScanner for {}", today);
+                    }
+                },
+                () -> log.warn("OptionScanner unavailable — trading calendar for {} not reconciled", today));
+    }
+
+    private Optional<MarketStatusDto> fetchRemoteStatus() {
         if (updateMonitor.isPotentiallyUpdating()) {
-            OptionScannerClientUtils.waitForUpdateComplete(updateMonitor);
+            OptionScannerClientUtils.waitForUpdateComplete(updateMonitor, restTemplate);
         }
 
         return fetchMarketStatusWithRetry();
     }
 
-    private MarketStatusDto fetchMarketStatusWithRetry() {
+    private Optional<MarketStatusDto> fetchMarketStatusWithRetry() {
         int attempt = 0;
         long delayMs = INITIAL_RETRY_DELAY_MS;
 
@@ -55,7 +98,7 @@ public class MarketStatusClient {
                 HttpStatusCode statusCode = response.getStatusCode();
                 if (statusCode == HttpStatus.OK && response.getBody() != null) {
                     log.info("Successfully fetched market status from OptionScanner on attempt {} (200 OK)", attempt);
-                    return response.getBody();
+                    return Optional.of(response.getBody());
                 } else if (statusCode == HttpStatus.SERVICE_UNAVAILABLE) {
                     log.warn("OptionScanner returned 503 on attempt {} — retrying in {} ms", attempt, delayMs);
                 } else {
@@ -73,6 +116,10 @@ public class MarketStatusClient {
                         attempt, e.getClass().getSimpleName(), e.getMessage(), delayMs);
             }
 
+            if (attempt < MAX_RETRIES && !CycleContext.hasBudgetFor(delayMs)) {
+                log.warn("Cycle budget too short for another {} ms wait — giving up after attempt {}", delayMs, attempt);
+                break;
+            }
             if (attempt < MAX_RETRIES) {
                 try {
                     Thread.sleep(delayMs);
@@ -85,11 +132,8 @@ public class MarketStatusClient {
             }
         }
 
-        log.error("All {} retry attempts failed — assuming NOT a trading day to prioritize safety", MAX_RETRIES);
-        MarketStatusDto emergency = new MarketStatusDto();
-        emergency.setTradingDay(false);
-        emergency.setTodayCloseTime("15:00");
-        return emergency;
+        log.error("Market status unavailable after {} attempts", attempt);
+        return Optional.empty();
     }
 
     public LocalTime parseCloseTime(String timeStr) {
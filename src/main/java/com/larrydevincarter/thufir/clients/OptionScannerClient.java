@@ -30,7 +30,7 @@ public class OptionScannerClient {
 
     public void waitForUpdateIfNeeded() {
         if (updateMonitor.isPotentiallyUpdating()) {
-            OptionScannerClientUtils.waitForUpdateComplete(updateMonitor);
+            OptionScannerClientUtils.waitForUpdateComplete(updateMonitor, restTemplate);
         }
     }
 
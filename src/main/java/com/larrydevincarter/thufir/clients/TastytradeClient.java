@@ -1,68 +1,152 @@
 package com.larrydevincarter.thufir.clients;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.services.AccountRegistry;
+import com.larrydevincarter.thufir.services.CycleContext;
+import com.larrydevincarter.thufir.services.StartupTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tastytrade REST client for every configured account. Account endpoints act on the account bound to the
+ * current scope ({@link AccountRegistry#current}); each account logs in with its own credentials and keeps its
+ * own session. Market-data endpoints are the same for every account.
+ * <p>
+ * The first logins run in the background once the application is ready and are retried with backoff until
+ * every account is in; {@link #isConnected} feeds the readiness group.
+ */
 @Component
 @Slf4j
 public class TastytradeClient {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final AccountRegistry accounts;
+    private final StartupTimeline startupTimeline;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
     @Value("${tastytrade.live.base-url}")
     private String baseUrl;
 
-    @Value("${tastytrade.sandbox.username}")
-    private String username;
+    @Value("${tastytrade.login-retry-max-ms:300000}")
+    private long loginRetryMaxMs;
 
-    @Value("${tastytrade.sandbox.password}")
-    private String password;
+    public TastytradeClient(RestTemplate restTemplate, ObjectMapper objectMapper, AccountRegistry accounts,
+                            StartupTimeline startupTimeline) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.accounts = accounts;
+        this.startupTimeline = startupTimeline;
+    }
 
-    @Value("${tastytrade.live.account-number}")
-    private String accountNumber;
+    /**
+     * Login state of one account. A ReentrantLock rather than synchronized: the login is blocking I/O and must not
+     * pin a virtual thread's carrier.
+     */
+    private static final class Session {
 
-    private String sessionToken;
-    private long tokenExpirationTimeMs = 0;
+        private final TradingAccount account;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile String token;
+        private volatile long expiresAtMs;
+        private volatile boolean established;
 
-    public TastytradeClient(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        private Session(TradingAccount account) {
+            this.account = account;
+        }
+
+        private boolean valid() {
+            return token != null && System.currentTimeMillis() <= expiresAtMs;
+        }
     }
 
-    @PostConstruct
-    public void init() {
-        try {
-            refreshSessionIfNeeded();
-            log.info("TastytradeClient initialized. Sandbox account: {}", accountNumber);
-        } catch (Exception e) {
-            log.error("Tastytrade sandbox login failed during startup. Trading will be blocked until fixed.", e);
+    @EventListener(ApplicationReadyEvent.class)
+    public void connect() {
+        Thread.ofVirtual().name("thufir-tastytrade-login").start(this::loginAll);
+    }
+
+    private void loginAll() {
+        long backoffMs = 2_000;
+        while (true) {
+            for (TradingAccount account : accounts.all()) {
+                Session session = session(account);
+                if (session.established) {
+                    continue;
+                }
+                try {
+                    refreshSessionIfNeeded(session);
+                    log.info("TastytradeClient initialized. Sandbox account: {} ({})", account.accountNumber(), account.id());
+                } catch (Exception e) {
+                    log.error("Tastytrade sandbox login failed for {}, retrying in {} ms. Trading is blocked until it succeeds: {}",
+                            account.id(), backoffMs, e.getMessage());
+                }
+            }
+            if (isConnected()) {
+                startupTimeline.mark(StartupTimeline.TASTYTRADE);
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, loginRetryMaxMs);
         }
     }
 
-    private synchronized void refreshSessionIfNeeded() {
-        if (sessionToken == null || System.currentTimeMillis() > tokenExpirationTimeMs) {
-            login();
+    /**
+     * Whether every account has logged in at least once. Later expiries are renewed on demand.
+     */
+    public boolean isConnected() {
+        return accounts.all().stream().allMatch(account -> session(account).established);
+    }
+
+    private Session session(TradingAccount account) {
+        return sessions.computeIfAbsent(account.id(), id -> new Session(account));
+    }
+
+    private String accountNumber() {
+        return accounts.current().accountNumber();
+    }
+
+    private void refreshSessionIfNeeded(Session session) {
+        if (session.valid()) {
+            return;
+        }
+        session.lock.lock();
+        try {
+            if (!session.valid()) {
+                login(session);
+            }
+        } finally {
+            session.lock.unlock();
         }
     }
 
-    private void login() {
+    private void login(Session session) {
         String url = baseUrl + "/sessions";
+        TradingAccount account = session.account;
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         Map<String, String> body = Map.of(
-                "login", username,
-                "password", password,
+                "login", account.username(),
+                "password", account.password(),
                 "remember-me", "true"
         );
 
@@ -73,11 +157,12 @@ public class TastytradeClient {
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
-                sessionToken = (String) data.get("session-token");
+                // Expiry first: a reader that sees the new token must not pair it with the old expiry.
+                session.expiresAtMs = System.currentTimeMillis() + (12 * 60 * 60 * 1000);
+                session.token = (String) data.get("session-token");
+                session.established = true;
 
-                tokenExpirationTimeMs = System.currentTimeMillis() + (12 * 60 * 60 * 1000);
-
-                log.info("Tastytrade sandbox session established successfully for account {}", accountNumber);
+                log.info("Tastytrade sandbox session established successfully for account {}", account.accountNumber());
             } else {
                 throw new RuntimeException("Unexpected response from login: " + response.getStatusCode());
             }
@@ -91,15 +176,20 @@ public class TastytradeClient {
     }
 
     private HttpHeaders getAuthHeaders() {
-        refreshSessionIfNeeded();
+        Session session = session(accounts.current());
+        refreshSessionIfNeeded(session);
         HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", sessionToken);
+        headers.set("Authorization", session.token);
         headers.setContentType(MediaType.APPLICATION_JSON);
         return headers;
     }
 
     public Map<String, Object> getAccountBalances() {
-        String url = baseUrl + "/accounts/" + accountNumber + "/balances";
+        return CycleContext.memoize("tastytrade:balances:" + accountNumber(), this::fetchAccountBalances);
+    }
+
+    private Map<String, Object> fetchAccountBalances() {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/balances";
 
         HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
 
@@ -110,13 +200,17 @@ public class TastytradeClient {
             }
             throw new RuntimeException("Balances fetch failed: " + response.getStatusCode());
         } catch (Exception e) {
-            log.error("Failed to fetch balances for account {}: {}", accountNumber, e.getMessage());
+            log.error("Failed to fetch balances for account {}: {}", accountNumber(), e.getMessage());
             throw new RuntimeException("Balances API error", e);
         }
     }
 
     public Map<String, Object> getPositions() {
-        String url = baseUrl + "/accounts/" + accountNumber + "/positions?include=underlyings";
+        return CycleContext.memoize("tastytrade:positions:" + accountNumber(), this::fetchPositions);
+    }
+
+    private Map<String, Object> fetchPositions() {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/positions?include=underlyings";
 
         HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
 
@@ -127,7 +221,7 @@ public class TastytradeClient {
             }
             throw new RuntimeException("Positions fetch failed: " + response.getStatusCode());
         } catch (Exception e) {
-            log.error("Failed to fetch positions for account {}: {}", accountNumber, e.getMessage());
+            log.error("Failed to fetch positions for account {}: {}", accountNumber(), e.getMessage());
             throw new RuntimeException("Positions API error", e);
         }
     }
@@ -137,7 +231,7 @@ public class TastytradeClient {
      * orderDetails should follow Tastytrade's order JSON structure.
      */
     public Map<String, Object> placeOrder(Map<String, Object> orderDetails) {
-        String url = baseUrl + "/accounts/" + accountNumber + "/orders";
+        String url = baseUrl + "/accounts/" + accountNumber() + "/orders";
 
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(orderDetails, getAuthHeaders());
 
@@ -156,12 +250,119 @@ public class TastytradeClient {
         }
     }
 
+    public Map<String, Object> getOrder(long orderId) {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/orders/" + orderId;
+
+        HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
+
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, request, Map.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return (Map<String, Object>) response.getBody().get("data");
+            }
+            throw new RuntimeException("Order fetch failed: " + response.getStatusCode());
+        } catch (Exception e) {
+            log.error("Failed to fetch order {}: {}", orderId, e.getMessage());
+            throw new RuntimeException("Order status API error", e);
+        }
+    }
+
+    /**
+     * Orders that are still working (received, routed or live) for the account.
+     */
+    public List<Map<String, Object>> getLiveOrders() {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/orders/live";
+
+        HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
+
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, request, Map.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+                Object items = data == null ? null : data.get("items");
+                return items instanceof List<?> list ? (List<Map<String, Object>>) list : List.of();
+            }
+            throw new RuntimeException("Live orders fetch failed: " + response.getStatusCode());
+        } catch (Exception e) {
+            log.error("Failed to fetch live orders for account {}: {}", accountNumber(), e.getMessage());
+            throw new RuntimeException("Live orders API error", e);
+        }
+    }
+
+    public void cancelOrder(long orderId) {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/orders/" + orderId;
+
+        HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
+
+        try {
+            restTemplate.exchange(url, HttpMethod.DELETE, request, Map.class);
+            log.info("Cancel requested for order {}", orderId);
+        } catch (Exception e) {
+            log.error("Failed to cancel order {}: {}", orderId, e.getMessage());
+            throw new RuntimeException("Order cancel API error", e);
+        }
+    }
+
+    /**
+     * Cancel/replace in one request. Tastytrade answers with the replacement order, which has a new id.
+     */
+    public Map<String, Object> replaceOrder(long orderId, Map<String, Object> orderDetails) {
+        String url = baseUrl + "/accounts/" + accountNumber() + "/orders/" + orderId;
+
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(orderDetails, getAuthHeaders());
+
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, request, Map.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                log.info("Order {} replaced: {}", orderId, response.getBody());
+                return (Map<String, Object>) response.getBody().get("data");
+            }
+            throw new RuntimeException("Order replace failed: " + response.getStatusCode());
+        } catch (Exception e) {
+            log.error("Failed to replace order {}: {}", orderId, e.getMessage());
+            throw new RuntimeException("Order replace API error", e);
+        }
+    }
+
+    /**
+     * Current bid/ask for option symbols (OCC format), keyed by symbol.
+     */
+    public Map<String, Map<String, Object>> getOptionQuotes(String symbolsCsv) {
+        String url = baseUrl + "/market-data/by-type?equity-option=" + symbolsCsv;
+
+        HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
+
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, request, Map.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+                Map<String, Map<String, Object>> quotes = new HashMap<>();
+                Object items = data == null ? null : data.get("items");
+                if (items instanceof List<?> list) {
+                    for (Object item : list) {
+                        Map<String, Object> quote = (Map<String, Object>) item;
+                        quotes.put(String.valueOf(quote.get("symbol")), quote);
+                    }
+                }
+                return quotes;
+            }
+            throw new RuntimeException("Option quotes failed: " + response.getStatusCode());
+        } catch (Exception e) {
+            log.error("Option quotes error for {}: {}", symbolsCsv, e.getMessage());
+            throw new RuntimeException("Tastytrade option quotes error", e);
+        }
+    }
+
     /**
      * Batch fetch current quotes for multiple symbols from Tastytrade.
      * @param symbolsCsv comma-separated symbols, e.g. "AAPL,MSFT,GOOGL"
      * @return Map of symbol → {lastPrice, bid, ask, ...}
      */
     public Map<String, Object> getBatchQuotes(String symbolsCsv) {
+        return CycleContext.memoizeShared("tastytrade:quotes:" + symbolsCsv, () -> fetchBatchQuotes(symbolsCsv));
+    }
+
+    private Map<String, Object> fetchBatchQuotes(String symbolsCsv) {
         String url = baseUrl + "/market-data/by-type?equity=" + symbolsCsv;
 
         HttpEntity<Void> request = new HttpEntity<>(getAuthHeaders());
@@ -180,7 +381,10 @@ public class TastytradeClient {
         }
     }
 
+    /**
+     * Whether the current account has a live session.
+     */
     public boolean isSessionValid() {
-        return sessionToken != null && System.currentTimeMillis() < tokenExpirationTimeMs;
+        return session(accounts.current()).valid();
     }
 }
\ No newline at end of file
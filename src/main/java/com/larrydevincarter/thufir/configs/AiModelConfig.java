@@ -1,11 +1,22 @@
 package com.larrydevincarter.thufir.configs;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.services.CaptureLog;
+import com.larrydevincarter.thufir.services.ChatCaptureListener;
+import com.larrydevincarter.thufir.services.ModelUsageMetrics;
+import com.larrydevincarter.thufir.services.ReplayChatModel;
+import dev.langchain4j.model.chat.Capability;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
 @Configuration
 public class AiModelConfig {
 
@@ -21,25 +32,76 @@ public class AiModelConfig {
     @Value("${xai.max-tokens:4096}")
     private Integer maxTokens;
 
+    @Value("${xai.triage.model.name:grok-3-mini}")
+    private String triageModelName;
+
+    @Value("${xai.triage.max-tokens:512}")
+    private Integer triageMaxTokens;
+
+    @Value("${xai.timeout-ms:120000}")
+    private long timeoutMs;
+
+    private final CaptureLog captureLog;
+    private final ObjectMapper objectMapper;
+    private final List<ChatModelListener> listeners;
+
+    public AiModelConfig(CaptureLog captureLog, ObjectMapper objectMapper,
+                         ModelUsageMetrics modelUsageMetrics, ChatCaptureListener chatCaptureListener) {
+        this.captureLog = captureLog;
+        this.objectMapper = objectMapper;
+        this.listeners = List.of(modelUsageMetrics, chatCaptureListener);
+    }
+
     @Bean
     public ChatModel chatModelHighTemp() {
+        if (captureLog.replaying()) {
+            return new ReplayChatModel(captureLog, objectMapper, modelName, 0.7, Set.of(), listeners);
+        }
         return OpenAiChatModel.builder()
                 .baseUrl(baseUrl)
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .temperature(0.7)
                 .maxTokens(maxTokens)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .listeners(listeners)
                 .build();
     }
 
     @Bean
     public ChatModel chatModelLowTemp() {
+        if (captureLog.replaying()) {
+            return new ReplayChatModel(captureLog, objectMapper, modelName, 0.4, Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA), listeners);
+        }
         return OpenAiChatModel.builder()
                 .baseUrl(baseUrl)
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .temperature(0.4)
                 .maxTokens(maxTokens)
+                .supportedCapabilities(Capability.RESPONSE_FORMAT_JSON_SCHEMA)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .listeners(listeners)
+                .build();
+    }
+
+    /**
+     * Small, fast model that only decides whether a cycle is worth escalating to the full model.
+     */
+    @Bean
+    public ChatModel chatModelTriage() {
+        if (captureLog.replaying()) {
+            return new ReplayChatModel(captureLog, objectMapper, triageModelName, 0.0, Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA), listeners);
+        }
+        return OpenAiChatModel.builder()
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .modelName(triageModelName)
+                .temperature(0.0)
+                .maxTokens(triageMaxTokens)
+                .supportedCapabilities(Capability.RESPONSE_FORMAT_JSON_SCHEMA)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .listeners(listeners)
                 .build();
     }
-}
\ No newline at end of file
+}
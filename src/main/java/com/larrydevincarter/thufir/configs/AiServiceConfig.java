@@ -1,25 +1,34 @@
 package com.larrydevincarter.thufir.configs;
 
 import com.larrydevincarter.thufir.services.Assistant;
-import com.larrydevincarter.thufir.tools.*;
+import com.larrydevincarter.thufir.services.TriageAssistant;
+import com.larrydevincarter.thufir.tools.ToolRegistry;
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.service.AiServices;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.util.StreamUtils;
 import java.nio.charset.StandardCharsets;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 public class AiServiceConfig {
 
+    /**
+     * One window of 50 messages per memory id, each opened with Thufir's soul. Discord and the primary account
+     * share the {@code default} memory; every other account has its own.
+     */
     @Bean
-    public ChatMemory sharedChatMemory() {
-
+    public ChatMemoryProvider chatMemoryProvider() {
         String soul;
 
         try {
@@ -34,30 +43,40 @@ public class AiServiceConfig {
 
         }
 
-        MessageWindowChatMemory memory = MessageWindowChatMemory.withMaxMessages(50);
-        memory.add(SystemMessage.from(soul));
-        return memory;
+        Map<Object, ChatMemory> memories = new ConcurrentHashMap<>();
+        return memoryId -> memories.computeIfAbsent(memoryId, id -> {
+            MessageWindowChatMemory memory = MessageWindowChatMemory.builder().id(id).maxMessages(50).build();
+            memory.add(SystemMessage.from(soul));
+            return memory;
+        });
     }
 
-
-
     @Bean
-    public Assistant chattingAssistant(ChatModel chatModelHighTemp, Tools tools, MarketDataTools marketDataTools, CommunicationTools communicationTools,
-                                       TastytradeTools tastytradeTools, OptionScannerTools optionScannerTools) {
+    public Assistant chattingAssistant(ChatModel chatModelHighTemp, ToolRegistry toolRegistry,
+                                       @Qualifier("toolExecutor") BoundedVirtualThreadExecutor toolExecutor) {
         return AiServices.builder(Assistant.class)
                 .chatModel(chatModelHighTemp)
-                .chatMemory(sharedChatMemory())
-                .tools(tools, marketDataTools, communicationTools, tastytradeTools, optionScannerTools)
+                .chatMemoryProvider(chatMemoryProvider())
+                .tools(toolRegistry.executors())
+                .executeToolsConcurrently(toolExecutor)
                 .build();
     }
 
     @Bean
-    public Assistant workingAssistant(ChatModel chatModelLowTemp, Tools tools, MarketDataTools marketDataTools, CommunicationTools communicationTools,
-                                      TastytradeTools tastytradeTools, OptionScannerTools optionScannerTools) {
+    public Assistant workingAssistant(ChatModel chatModelLowTemp, ToolRegistry toolRegistry,
+                                       @Qualifier("toolExecutor") BoundedVirtualThreadExecutor toolExecutor) {
         return AiServices.builder(Assistant.class)
                 .chatModel(chatModelLowTemp)
-                .chatMemory(sharedChatMemory())
-                .tools(tools, marketDataTools, communicationTools, tastytradeTools, optionScannerTools)
+                .chatMemoryProvider(chatMemoryProvider())
+                .tools(toolRegistry.executors())
+                .executeToolsConcurrently(toolExecutor)
+                .build();
+    }
+
+    @Bean
+    public TriageAssistant triageAssistant(ChatModel chatModelTriage) {
+        return AiServices.builder(TriageAssistant.class)
+                .chatModel(chatModelTriage)
                 .build();
     }
 }
\ No newline at end of file
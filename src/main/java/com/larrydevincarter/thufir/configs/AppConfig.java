@@ -2,16 +2,36 @@ package com.larrydevincarter.thufir.configs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.larrydevincarter.thufir.clients.CaptureInterceptor;
+import com.larrydevincarter.thufir.clients.DeadlineInterceptor;
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
+    /**
+     * The one RestTemplate for every outbound HTTP call, so the capture layer sees all of them. The deadline
+     * check runs first so a read refused for lack of cycle time is never recorded.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     DeadlineInterceptor deadlineInterceptor,
+                                     CaptureInterceptor captureInterceptor,
+                                     @Value("${thufir.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                     @Value("${thufir.http.read-timeout-ms:30000}") long readTimeoutMs) {
+        return builder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .additionalInterceptors(deadlineInterceptor, captureInterceptor)
+                .build();
     }
 
     @Bean
@@ -20,4 +40,42 @@ public class AppConfig {
         mapper.registerModule(new JavaTimeModule());
         return mapper;
     }
-}
\ No newline at end of file
+
+    /**
+     * A pool of virtual threads for @Scheduled jobs. Boot's default with virtual threads enabled,
+     * SimpleAsyncTaskScheduler, runs every fixed-delay job on its single scheduler thread, so one slow VIX scrape
+     * would hold up order repricing and state sync. Here each job runs on a pool thread of its own, and the daily
+     * wheel loop, which holds its thread until the close, costs no platform thread.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${thufir.scheduling.pool-size:8}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadFactory(Thread.ofVirtual().name("thufir-scheduler-", 0).factory());
+        return scheduler;
+    }
+
+    /**
+     * Executor used by AiServices to run the tool calls of a single model turn concurrently.
+     */
+    @Bean
+    public BoundedVirtualThreadExecutor toolExecutor(@Value("${thufir.tools.max-concurrency:8}") int maxConcurrency) {
+        return new BoundedVirtualThreadExecutor("thufir-tool-", maxConcurrency);
+    }
+
+    /**
+     * Executor that takes Discord work off JDA's event thread.
+     */
+    @Bean
+    public BoundedVirtualThreadExecutor discordExecutor(@Value("${discord.bot.max-concurrency:4}") int maxConcurrency) {
+        return new BoundedVirtualThreadExecutor("thufir-discord-", maxConcurrency);
+    }
+
+    /**
+     * Executor that runs the accounts' wheel cycles side by side.
+     */
+    @Bean
+    public BoundedVirtualThreadExecutor accountExecutor(@Value("${thufir.accounts.max-concurrency:4}") int maxConcurrency) {
+        return new BoundedVirtualThreadExecutor("thufir-account-", maxConcurrency);
+    }
+}
@@ -0,0 +1,48 @@
+package com.larrydevincarter.thufir.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.utils.JsonLinesSpanExporter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Configuration
+public class ObservabilityConfig {
+
+    private static final List<String> HISTOGRAM_PREFIXES = List.of("thufir.", "http.client.requests", "spring.data.repository");
+
+    /**
+     * Local span file so traces are available without a collector. Set {@code thufir.tracing.file} empty to disable.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${thufir.tracing.file:traces/spans.jsonl}'.isBlank()")
+    public SpanExporter jsonLinesSpanExporter(ObjectMapper objectMapper,
+                                              @Value("${thufir.tracing.file:traces/spans.jsonl}") String file) {
+        return new JsonLinesSpanExporter(objectMapper, Path.of(file));
+    }
+
+    /**
+     * Publishes histogram buckets for cycle, tool, model, HTTP client and repository timers, so latency
+     * quantiles per dependency can be computed in Prometheus (and carry exemplars).
+     */
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (HISTOGRAM_PREFIXES.stream().anyMatch(id.getName()::startsWith)) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.larrydevincarter.thufir.configs;
+
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.services.DiscordGateway;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Health of the connections opened in the background after startup; until they are up they report OUT_OF_SERVICE.
+ * Tastytrade is part of the {@code readiness} group, which the wheel waits on before its first cycle. Discord is
+ * in the {@code notifications} group instead, so a gateway reconnect does not hold cycles.
+ */
+@Configuration
+public class ReadinessConfig {
+
+    @Bean
+    public HealthIndicator discordHealthIndicator(DiscordGateway discordGateway) {
+        return () -> (discordGateway.isConnected() ? Health.up() : Health.outOfService())
+                .withDetail("status", discordGateway.status())
+                .build();
+    }
+
+    @Bean
+    public HealthIndicator tastytradeHealthIndicator(TastytradeClient tastytradeClient) {
+        return () -> (tastytradeClient.isConnected() ? Health.up() : Health.outOfService()).build();
+    }
+}
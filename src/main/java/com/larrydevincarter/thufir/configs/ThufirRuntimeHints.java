@@ -0,0 +1,78 @@
+package com.larrydevincarter.thufir.configs;
+
+import com.larrydevincarter.thufir.services.Assistant;
+import com.larrydevincarter.thufir.services.ChatCaptureListener;
+import com.larrydevincarter.thufir.services.TriageAssistant;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * What a native image needs beyond the hints Spring AOT derives from the bean definitions. Only used by the
+ * {@code native} build; on the JVM it has no effect.
+ * <ul>
+ *   <li>Models and DTOs (Lombok classes and records) are bound by Jackson and described to the model as JSON
+ *   schemas by langchain4j, both reflectively.</li>
+ *   <li>Tool beans are scanned for {@code @Tool} and {@code @CycleMemoized} methods and invoked reflectively.</li>
+ *   <li>AiServices implements the assistant interfaces with JDK proxies.</li>
+ *   <li>JDA's {@link ListenerAdapter} finds its {@code on<Event>} methods through a method-handle lookup.</li>
+ *   <li>The soul and the trading calendar are classpath resources.</li>
+ * </ul>
+ */
+public class ThufirRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String BASE_PACKAGE = "com.larrydevincarter.thufir";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : classesIn(BASE_PACKAGE + ".models", classLoader)) {
+            hints.reflection().registerType(typeFor(className, classLoader),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.reflection().registerType(ChatCaptureListener.Reply.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+
+        for (String className : classesIn(BASE_PACKAGE + ".tools", classLoader)) {
+            hints.reflection().registerType(typeFor(className, classLoader), MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        for (Class<?> service : new Class<?>[]{Assistant.class, TriageAssistant.class}) {
+            hints.proxies().registerJdkProxy(service);
+            hints.reflection().registerType(service, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.reflection().registerType(ListenerAdapter.class, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        hints.resources().registerPattern("thufir-soul.md");
+        hints.resources().registerPattern("calendar/*.txt");
+    }
+
+    /**
+     * Every class under {@code basePackage}, nested ones included, read from class files without loading them.
+     */
+    private static Iterable<String> classesIn(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                return true;
+            }
+        };
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        scanner.addIncludeFilter((reader, factory) -> true);
+        return scanner.findCandidateComponents(basePackage).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .toList();
+    }
+
+    private static Class<?> typeFor(String className, ClassLoader classLoader) {
+        return ClassUtils.resolveClassName(className, classLoader);
+    }
+}
@@ -0,0 +1,6 @@
+package com.larrydevincarter.thufir.models;
+
+/**
+ * Published when this instance takes or gives up an account's lease. {@code accountId} is the account's id.
+ */
+public record AccountOwnershipChanged(String accountId, boolean owned) {}
@@ -0,0 +1,15 @@
+package com.larrydevincarter.thufir.models;
+
+/**
+ * One outbound call as seen on the wire. {@code kind} is {@code http} or {@code chat}; {@code key} is what
+ * replay matches on: method, URL and a digest of the body for HTTP; model name, temperature and a digest of the
+ * messages for chat. Bodies are stored as text, chat
+ * messages in langchain4j's JSON message format.
+ */
+public record CapturedExchange(long sequence, long capturedAtMs, String cycleId, String kind, String key,
+                               String request, int status, String contentType, String response) {
+
+    public String replayKey() {
+        return kind + " " + key;
+    }
+}
@@ -0,0 +1,75 @@
+package com.larrydevincarter.thufir.models;
+
+import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of the market and the accounts: the VIX reading, today's session, and per account the broker
+ * balances and the ledger's portfolio. Each part carries the time it was read, so a reader can tell how old it
+ * is. Every change produces a new snapshot with a higher version.
+ */
+public record MarketSnapshot(long version, Instant publishedAt, Reading<String> vix, Reading<MarketStatusDto> marketStatus,
+                             Map<String, Reading<Map<String, Object>>> balances, Map<String, PortfolioSnapshot> portfolios) {
+
+    public static final MarketSnapshot EMPTY = new MarketSnapshot(0, Instant.EPOCH, null, null, Map.of(), Map.of());
+
+    /**
+     * One part of the snapshot. {@code error} is set when the latest refresh failed; {@code value} and {@code at}
+     * are then those of the last good read (or null if there never was one).
+     */
+    public record Reading<T>(T value, Instant at, String error) {
+
+        public static <T> Reading<T> of(T value, Instant at) {
+            return new Reading<>(value, at, null);
+        }
+
+        public Reading<T> failed(String error) {
+            return new Reading<>(value, at, error);
+        }
+
+        public Duration age(Instant now) {
+            return at == null ? Duration.ofDays(365) : Duration.between(at, now);
+        }
+
+        /**
+         * Whether the value may be served as current: it is within {@code maxAge} and the latest refresh did not
+         * fail. After a failure the old value is kept for display only.
+         */
+        public boolean isFresh(Duration maxAge, Instant now) {
+            return value != null && error == null && age(now).compareTo(maxAge) <= 0;
+        }
+    }
+
+    public MarketSnapshot withVix(Reading<String> reading, Instant now) {
+        return new MarketSnapshot(version + 1, now, reading, marketStatus, balances, portfolios);
+    }
+
+    public MarketSnapshot withMarketStatus(Reading<MarketStatusDto> reading, Instant now) {
+        return new MarketSnapshot(version + 1, now, vix, reading, balances, portfolios);
+    }
+
+    public MarketSnapshot withBalances(String accountId, Reading<Map<String, Object>> reading, Instant now) {
+        Map<String, Reading<Map<String, Object>>> updated = new LinkedHashMap<>(balances);
+        updated.put(accountId, reading);
+        return new MarketSnapshot(version + 1, now, vix, marketStatus, Collections.unmodifiableMap(updated), portfolios);
+    }
+
+    public MarketSnapshot withPortfolio(String accountId, PortfolioSnapshot portfolio, Instant now) {
+        Map<String, PortfolioSnapshot> updated = new LinkedHashMap<>(portfolios);
+        updated.put(accountId, portfolio);
+        return new MarketSnapshot(version + 1, now, vix, marketStatus, balances, Collections.unmodifiableMap(updated));
+    }
+
+    public Reading<Map<String, Object>> balances(String accountId) {
+        return balances.get(accountId);
+    }
+
+    public PortfolioSnapshot portfolio(String accountId) {
+        return portfolios.get(accountId);
+    }
+}
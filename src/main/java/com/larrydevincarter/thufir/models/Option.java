@@ -20,4 +20,11 @@ public class Option {
     private Double yield;
     private LocalDateTime lastUpdated;
     private Double delta;
+
+    // Computed locally by OptionAnalytics from previousClose
+    private Double impliedVolatility;
+    private Double modelDelta;
+    private Double thetaPerDay;
+    private Double probabilityOfProfit;
+    private Double americanValue;
 }
\ No newline at end of file
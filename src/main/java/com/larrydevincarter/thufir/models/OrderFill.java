@@ -0,0 +1,15 @@
+package com.larrydevincarter.thufir.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a tracked order fills, fully or partially. {@code quantity} is the newly filled amount and
+ * {@code account} the id of the account the order was placed in.
+ */
+public record OrderFill(String account, long orderId, String symbol, String ticker, String action, double strike,
+                        int quantity, double price, boolean complete, LocalDateTime filledAt) {
+
+    public double cashCommitted() {
+        return "sell_put".equals(action) ? strike * 100 * quantity : 0.0;
+    }
+}
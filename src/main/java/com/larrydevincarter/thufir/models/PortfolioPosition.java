@@ -0,0 +1,30 @@
+package com.larrydevincarter.thufir.models;
+
+import java.util.Locale;
+
+/**
+ * One broker position as held by the portfolio ledger. Quantity is signed: negative for short legs.
+ */
+public record PortfolioPosition(String symbol, String underlying, String instrumentType, String optionType,
+                                double quantity, Double strike, Double averagePrice, double marketValue) {
+
+    public boolean isShortPut() {
+        return "Equity Option".equals(instrumentType) && "Put".equalsIgnoreCase(optionType) && quantity < 0;
+    }
+
+    public boolean isLongStock() {
+        return "Stock".equals(instrumentType) && quantity > 0;
+    }
+
+    /**
+     * Cash secured by this position if it is a short put.
+     */
+    public double committedCash() {
+        return isShortPut() && strike != null ? strike * 100 * Math.abs(quantity) : 0.0;
+    }
+
+    public String describe() {
+        return String.format(Locale.ROOT, "Underlying: %s | Symbol: %s | Type: %s | Qty: %.0f | Avg Price: $%.2f | Mkt Value: $%.2f",
+                underlying, symbol, instrumentType, quantity, averagePrice == null ? 0.0 : averagePrice, marketValue);
+    }
+}
@@ -0,0 +1,75 @@
+package com.larrydevincarter.thufir.models;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable portfolio state with its aggregates precomputed, so committed cash, per-underlying exposure
+ * and unique underlyings are plain lookups. Changes produce a new snapshot with a higher version.
+ * <p>
+ * Exposure is market value, except that a short put counts at the cash it secures: its market value is only the
+ * premium, far below what an assignment would cost.
+ */
+public record PortfolioSnapshot(long version, LocalDateTime asOf, String source, double netLiq, double cash,
+                                Map<String, PortfolioPosition> positions, Map<String, Double> exposureByUnderlying,
+                                double committedCash, int assignedShares) {
+
+    public static PortfolioSnapshot of(long version, LocalDateTime asOf, String source, double netLiq, double cash,
+                                       Map<String, PortfolioPosition> positions) {
+        Map<String, Double> exposure = new HashMap<>();
+        double committed = 0.0;
+        int shares = 0;
+        for (PortfolioPosition position : positions.values()) {
+            double positionExposure = position.isShortPut() ? position.committedCash() : Math.abs(position.marketValue());
+            exposure.merge(position.underlying(), positionExposure, Double::sum);
+            committed += position.committedCash();
+            if (position.isLongStock()) {
+                shares += (int) position.quantity();
+            }
+        }
+        return new PortfolioSnapshot(version, asOf, source, netLiq, cash,
+                Collections.unmodifiableMap(new LinkedHashMap<>(positions)), Collections.unmodifiableMap(exposure),
+                committed, shares);
+    }
+
+    /**
+     * Applies a sell-to-open fill without going back to the broker: the short leg grows, the credit lands in
+     * cash, and a put's strike is added to committed cash.
+     */
+    public PortfolioSnapshot applyFill(OrderFill fill, LocalDateTime at) {
+        Map<String, PortfolioPosition> updated = new LinkedHashMap<>(positions);
+        PortfolioPosition existing = updated.get(fill.symbol());
+        double filledQty = -fill.quantity();
+        double credit = fill.price() * 100 * fill.quantity();
+
+        PortfolioPosition next;
+        if (existing == null) {
+            next = new PortfolioPosition(fill.symbol(), fill.ticker(), "Equity Option",
+                    "sell_put".equals(fill.action()) ? "Put" : "Call", filledQty, fill.strike(), fill.price(), -credit);
+        } else {
+            double quantity = existing.quantity() + filledQty;
+            double previousAvg = existing.averagePrice() == null ? fill.price() : existing.averagePrice();
+            double averagePrice = (previousAvg * Math.abs(existing.quantity()) + fill.price() * fill.quantity())
+                    / Math.max(1.0, Math.abs(quantity));
+            next = new PortfolioPosition(existing.symbol(), existing.underlying(), existing.instrumentType(),
+                    existing.optionType(), quantity, existing.strike(), averagePrice, existing.marketValue() - credit);
+        }
+        updated.put(next.symbol(), next);
+        return of(version + 1, at, "fill#" + fill.orderId(), netLiq, cash + credit, updated);
+    }
+
+    public int uniqueUnderlyings() {
+        return exposureByUnderlying.size();
+    }
+
+    public double exposure(String underlying) {
+        return exposureByUnderlying.getOrDefault(underlying, 0.0);
+    }
+
+    public double exposurePct(String underlying) {
+        return netLiq > 0 ? exposure(underlying) / netLiq * 100.0 : 0.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.larrydevincarter.thufir.models;
+
+/**
+ * One brokerage account the wheel runs on. {@code id} is the short name used in configuration, logs and
+ * persisted rows; {@code memoryId} is the chat memory its cycles write to.
+ */
+public record TradingAccount(String id, String accountNumber, String username, String password, boolean primary) {
+
+    /**
+     * The primary account keeps the default memory it has always shared with Discord; others get their own.
+     */
+    public String memoryId() {
+        return primary ? "default" : id;
+    }
+
+    @Override
+    public String toString() {
+        return "TradingAccount[" + id + " " + accountNumber + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package com.larrydevincarter.thufir.models;
+
+/**
+ * Trading control states, highest priority first. A state can only be replaced by one of equal or
+ * higher priority, except through an explicit owner resume or an expiry/recovery of the current state.
+ */
+public enum TradingState {
+    PAUSED_BY_OWNER(3),
+    HALTED_UNTIL(2),
+    DEGRADED(1),
+    RUNNING(0);
+
+    private final int priority;
+
+    TradingState(int priority) {
+        this.priority = priority;
+    }
+
+    public int priority() {
+        return priority;
+    }
+}
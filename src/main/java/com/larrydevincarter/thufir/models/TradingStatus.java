@@ -0,0 +1,29 @@
+package com.larrydevincarter.thufir.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Immutable view of the trading control plane, cheap to read on every cycle.
+ */
+public record TradingStatus(TradingState state, LocalDateTime haltedUntil, String reason, String source, LocalDateTime since) {
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    public static TradingStatus running(String source) {
+        return new TradingStatus(TradingState.RUNNING, null, null, source, LocalDateTime.now(CST));
+    }
+
+    public boolean allowsCycles() {
+        return state == TradingState.RUNNING;
+    }
+
+    public String describe() {
+        return switch (state) {
+            case RUNNING -> "RUNNING";
+            case HALTED_UNTIL -> "HALTED until " + haltedUntil + " (" + reason + ")";
+            case PAUSED_BY_OWNER -> "PAUSED by Larry (" + reason + ")";
+            case DEGRADED -> "DEGRADED (" + reason + ")";
+        };
+    }
+}
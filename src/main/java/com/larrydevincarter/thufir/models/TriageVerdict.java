@@ -0,0 +1,12 @@
+package com.larrydevincarter.thufir.models;
+
+import dev.langchain4j.model.output.structured.Description;
+
+@Description("Triage verdict for a wheel cycle")
+public record TriageVerdict(
+        @Description("true if at least one actionable wheel setup may exist and the full model should decide")
+        boolean escalate,
+        @Description("One or two sentences explaining the verdict")
+        String reason
+) {
+}
@@ -0,0 +1,99 @@
+package com.larrydevincarter.thufir.models;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.langchain4j.model.output.structured.Description;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Typed result of a single wheel cycle. The JSON schema sent to the model is derived from this record,
+ * so field names here are the contract. Snake_case aliases keep older free-form replies decodable.
+ */
+@Description("Wheel cycle decision")
+public record WheelDecision(
+        @Description("One of: halt, hold, sell_put, sell_call, sell_shares_limit")
+        String action,
+        @Description("Underlying ticker, null for halt/hold")
+        String ticker,
+        @Description("Option strike price, null for halt/hold")
+        Double strike,
+        @Description("Option expiry as YYYY-MM-DD, null for halt/hold")
+        String expiry,
+        @Description("Number of contracts (small: 1 for $2k)")
+        Integer quantity,
+        @JsonAlias("premium_target")
+        @Description("Target premium per share")
+        Double premiumTarget,
+        @JsonAlias("limit_price")
+        @Description("Limit price per share for the order")
+        Double limitPrice,
+        @JsonAlias("delta_approx")
+        @Description("Delta of the contract; use modelDelta from the chain data")
+        Double deltaApprox,
+        @JsonAlias("yield_per_day_pct")
+        @Description("Yield per trading day in percent on capital at risk")
+        Double yieldPerDayPct,
+        @JsonAlias("expected_monthly_return_pct")
+        @Description("Expected monthly return in percent")
+        Double expectedMonthlyReturnPct,
+        @Description("step-by-step: VIX, committed_pct, uniques, exposures, why this (fundamentals/yield), or hold/loosen")
+        String rationale,
+        @JsonAlias("probability_success")
+        @Description("Probability of success between 0.0 and 1.0; use the contract's probabilityOfProfit from the chain data")
+        Double probabilitySuccess,
+        @JsonAlias("vix_value")
+        @Description("VIX value used for this decision")
+        Double vixValue,
+        @JsonAlias("vix_source")
+        @Description("Source of the VIX value")
+        String vixSource
+) {
+
+    public static final Set<String> ACTIONS = Set.of("halt", "hold", "sell_put", "sell_call", "sell_shares_limit");
+
+    public WheelDecision {
+        if (action == null || action.isBlank()) {
+            throw new IllegalArgumentException("Decision is missing 'action'");
+        }
+        action = action.trim().toLowerCase(Locale.ROOT);
+        if (!ACTIONS.contains(action)) {
+            throw new IllegalArgumentException("Unknown decision action: " + action);
+        }
+        if (ticker != null) {
+            ticker = ticker.trim().toUpperCase(Locale.ROOT);
+        }
+        if (rationale == null) {
+            rationale = "";
+        }
+
+        if (isOptionSale(action)) {
+            List<String> missing = new ArrayList<>();
+            if (ticker == null || ticker.isBlank()) missing.add("ticker");
+            if (strike == null) missing.add("strike");
+            if (expiry == null || expiry.isBlank()) missing.add("expiry");
+            if (quantity == null || quantity <= 0) missing.add("quantity");
+            if (limitPrice == null) missing.add("limitPrice");
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Decision " + action + " is missing " + missing);
+            }
+        }
+    }
+
+    @JsonIgnore
+    public boolean isOptionSale() {
+        return isOptionSale(action);
+    }
+
+    @JsonIgnore
+    public boolean isStandDown() {
+        return "halt".equals(action) || "hold".equals(action);
+    }
+
+    private static boolean isOptionSale(String action) {
+        return "sell_put".equals(action) || "sell_call".equals(action);
+    }
+}
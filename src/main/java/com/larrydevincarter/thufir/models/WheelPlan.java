@@ -0,0 +1,39 @@
+package com.larrydevincarter.thufir.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.langchain4j.model.output.structured.Description;
+
+import java.util.List;
+
+/**
+ * Batch-mode result of a wheel cycle: every action worth taking this cycle, best first. The risk engine
+ * accepts what fits, in rank order, as one portfolio.
+ */
+@Description("Ranked wheel plan for one cycle")
+public record WheelPlan(
+        @Description("Actions ranked best first; a single hold or halt entry when nothing should be done")
+        List<WheelDecision> actions,
+        @Description("Portfolio-level reasoning: VIX, committed_pct, uniques, exposures, why this set")
+        String rationale
+) {
+
+    public WheelPlan {
+        actions = actions == null ? List.of() : List.copyOf(actions);
+        if (rationale == null) {
+            rationale = "";
+        }
+    }
+
+    @JsonIgnore
+    public List<WheelDecision> optionSales() {
+        return actions.stream().filter(WheelDecision::isOptionSale).toList();
+    }
+
+    /**
+     * The stand-down the plan amounts to, if it contains no option sales.
+     */
+    @JsonIgnore
+    public WheelDecision standDown() {
+        return actions.stream().filter(WheelDecision::isStandDown).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.larrydevincarter.thufir.models;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A submitted order that has not reached a terminal state yet, as tracked by the order manager.
+ */
+@Data
+public class WorkingOrder {
+
+    private long orderId;
+    private String account;
+    private String symbol;
+    private String ticker;
+    private String action;
+    private double strike;
+    private int quantity;
+    private int filledQuantity;
+    private double initialPrice;
+    private double limitPrice;
+    private int repriceCount;
+    private String status;
+    private LocalDateTime placedAt;
+    private LocalDateTime lastRepricedAt;
+    private Map<String, Object> orderTemplate;
+
+    public int remainingQuantity() {
+        return quantity - filledQuantity;
+    }
+
+    /**
+     * Cash secured by the unfilled part of a short put (zero for calls, which are covered by shares).
+     */
+    public double workingCommitment() {
+        return "sell_put".equals(action) ? strike * 100 * remainingQuantity() : 0.0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.larrydevincarter.thufir.models.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A named lease held by one instance until {@code expiresAt}. Used for leader election, instance membership
+ * and account ownership when several instances share the database.
+ */
+@Entity
+@Table(name = "leases")
+@Data
+@NoArgsConstructor
+public class Lease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant renewedAt;
+}
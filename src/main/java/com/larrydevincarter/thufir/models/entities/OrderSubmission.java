@@ -0,0 +1,58 @@
+package com.larrydevincarter.thufir.models.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_submissions", uniqueConstraints = @UniqueConstraint(columnNames = "idempotencyKey"))
+@Data
+@NoArgsConstructor
+public class OrderSubmission {
+
+    /**
+     * UNKNOWN: the send failed in a way that does not say whether the broker took the order (a timeout, an I/O
+     * error, a 5xx). It is never sent again from here; the owner checks the account.
+     */
+    public enum Status { PENDING, SUBMITTED, FAILED, UNKNOWN }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String idempotencyKey;
+
+    @Column(length = 32)
+    private String accountId;
+
+    @Column(nullable = false, length = 40)
+    private String symbol;
+
+    @Column(nullable = false, length = 30)
+    private String side;
+
+    @Column(nullable = false, length = 40)
+    private String cycleWindow;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column
+    private Long orderId;
+
+    @Column
+    private Integer attempts;
+
+    @Column(length = 60)
+    private String cycleId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime updatedAt;
+}
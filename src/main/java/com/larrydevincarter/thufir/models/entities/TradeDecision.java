@@ -41,4 +41,10 @@ public class TradeDecision {
     @Getter
     @Column(length = 20)
     private String expectedReturn;
+
+    @Column(length = 32)
+    private String traceId;
+
+    @Column(length = 32)
+    private String accountId;
 }
\ No newline at end of file
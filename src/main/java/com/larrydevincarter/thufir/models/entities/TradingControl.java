@@ -0,0 +1,35 @@
+package com.larrydevincarter.thufir.models.entities;
+
+import com.larrydevincarter.thufir.models.TradingState;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "trading_control")
+@Data
+@NoArgsConstructor
+public class TradingControl {
+
+    @Id
+    @Column(length = 50)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TradingState state;
+
+    @Column
+    private LocalDateTime haltedUntil;
+
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+
+    @Column(length = 50)
+    private String source;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,55 @@
+package com.larrydevincarter.thufir.repositories;
+
+import com.larrydevincarter.thufir.models.entities.Lease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Lease statements take every time from the database's {@code now()}, never from the calling host, so clock skew
+ * between instances cannot make a lease look expired to one of them while another still holds it.
+ */
+@Repository
+public interface LeaseRepository extends JpaRepository<Lease, String> {
+
+    /**
+     * Takes or renews an existing lease in one statement: succeeds if {@code owner} already holds it or it has
+     * expired.
+     *
+     * @return 1 if the lease is now held by {@code owner} for {@code ttlMs}, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update leases set owner = :owner, expires_at = now() + :ttlMs * interval '1 millisecond', renewed_at = now() "
+            + "where name = :name and (owner = :owner or expires_at < now())", nativeQuery = true)
+    int claim(@Param("name") String name, @Param("owner") String owner, @Param("ttlMs") long ttlMs);
+
+    /**
+     * Creates a lease that does not exist yet. Two instances racing to create it both run the insert; only one
+     * row is written.
+     *
+     * @return 1 if this call created the lease, 0 if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into leases (name, owner, expires_at, renewed_at) "
+            + "values (:name, :owner, now() + :ttlMs * interval '1 millisecond', now()) "
+            + "on conflict (name) do nothing", nativeQuery = true)
+    int create(@Param("name") String name, @Param("owner") String owner, @Param("ttlMs") long ttlMs);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Lease l where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+
+    /**
+     * Leases under {@code prefix} that have not expired yet.
+     */
+    @Query(value = "select * from leases where name like concat(:prefix, '%') and expires_at > now()", nativeQuery = true)
+    List<Lease> findLive(@Param("prefix") String prefix);
+}
@@ -0,0 +1,13 @@
+package com.larrydevincarter.thufir.repositories;
+
+import com.larrydevincarter.thufir.models.entities.OrderSubmission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderSubmissionRepository extends JpaRepository<OrderSubmission, Long> {
+
+    Optional<OrderSubmission> findByIdempotencyKey(String idempotencyKey);
+}
@@ -0,0 +1,47 @@
+package com.larrydevincarter.thufir.repositories;
+
+import com.larrydevincarter.thufir.models.entities.TradingControl;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Automated transitions are written with conditional updates, so the state ranking holds across instances: a
+ * write that would lower the stored state matches no row, whatever the instance that sent it believed.
+ */
+@Repository
+public interface TradingControlRepository extends JpaRepository<TradingControl, String> {
+
+    /**
+     * Writes {@code state} if the stored state ranks no higher ({@code priority} is {@code state}'s), or is a
+     * halt that has run out by {@code now}.
+     *
+     * @return 1 if written, 0 if the stored state outranks it or the row does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update trading_control set state = :state, halted_until = :haltedUntil, reason = :reason, "
+            + "source = :source, updated_at = :updatedAt where id = :id and ("
+            + "case state when 'PAUSED_BY_OWNER' then 3 when 'HALTED_UNTIL' then 2 when 'DEGRADED' then 1 else 0 end <= :priority "
+            + "or (state = 'HALTED_UNTIL' and halted_until <= :now))", nativeQuery = true)
+    int raise(@Param("id") String id, @Param("state") String state, @Param("priority") int priority,
+              @Param("haltedUntil") LocalDateTime haltedUntil, @Param("reason") String reason,
+              @Param("source") String source, @Param("updatedAt") LocalDateTime updatedAt,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Clears DEGRADED back to RUNNING, and nothing else.
+     *
+     * @return 1 if the stored state was DEGRADED, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update trading_control set state = 'RUNNING', halted_until = null, reason = null, source = :source, "
+            + "updated_at = :updatedAt where id = :id and state = 'DEGRADED'", nativeQuery = true)
+    int recover(@Param("id") String id, @Param("source") String source, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,102 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TradingAccount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The accounts the wheel runs on, from {@code thufir.accounts} (comma-separated ids, first is primary). Each id
+ * reads {@code thufir.accounts.<id>.account-number}, {@code .username} and {@code .password}; the primary
+ * falls back to the single-account {@code tastytrade.*} properties, so existing configuration keeps working.
+ * <p>
+ * The account a piece of work belongs to is bound to its {@link CycleContext}; outside any account scope,
+ * {@link #current} is the primary.
+ */
+@Component
+@Slf4j
+public class AccountRegistry {
+
+    private final Map<String, TradingAccount> accounts = new LinkedHashMap<>();
+    private final TradingAccount primary;
+
+    public AccountRegistry(Environment environment, @Value("${thufir.accounts:primary}") String ids) {
+        List<String> names = Arrays.stream(ids.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        for (int i = 0; i < names.size(); i++) {
+            String id = names.get(i);
+            boolean isPrimary = i == 0;
+            String prefix = "thufir.accounts." + id + ".";
+            TradingAccount account = new TradingAccount(id,
+                    property(environment, prefix + "account-number", isPrimary ? "tastytrade.live.account-number" : null),
+                    property(environment, prefix + "username", isPrimary ? "tastytrade.sandbox.username" : null),
+                    property(environment, prefix + "password", isPrimary ? "tastytrade.sandbox.password" : null),
+                    isPrimary);
+            accounts.put(id, account);
+        }
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("thufir.accounts lists no accounts");
+        }
+        primary = accounts.values().iterator().next();
+        log.info("Trading accounts: {}", accounts.values());
+    }
+
+    private static String property(Environment environment, String key, String fallbackKey) {
+        String value = environment.getProperty(key);
+        if (value == null && fallbackKey != null) {
+            value = environment.getProperty(fallbackKey);
+        }
+        if (value == null) {
+            throw new IllegalStateException("Missing account property " + key);
+        }
+        return value;
+    }
+
+    public List<TradingAccount> all() {
+        return List.copyOf(accounts.values());
+    }
+
+    public TradingAccount primary() {
+        return primary;
+    }
+
+    public Optional<TradingAccount> find(String id) {
+        return Optional.ofNullable(accounts.get(id));
+    }
+
+    /**
+     * The account bound to the current scope, or the primary.
+     */
+    public TradingAccount current() {
+        return CycleContext.account().map(accounts::get).orElse(primary);
+    }
+
+    /**
+     * Runs {@code work} in a scope bound to {@code account}, nested in the current scope if there is one.
+     */
+    public void runAs(TradingAccount account, String origin, Consumer<CycleContext> work) {
+        try (CycleContext scope = CycleContext.open(origin + "-" + account.id(), null, account.id())) {
+            work.accept(scope);
+        }
+    }
+
+    /**
+     * Runs {@code work} once per account, one after another. A failure is logged and does not stop the others.
+     */
+    public void forEach(String origin, Consumer<TradingAccount> work) {
+        for (TradingAccount account : accounts.values()) {
+            try {
+                runAs(account, origin, scope -> work.accept(account));
+            } catch (Exception e) {
+                log.warn("{} failed for account {}: {}", origin, account.id(), e.getMessage());
+            }
+        }
+    }
+}
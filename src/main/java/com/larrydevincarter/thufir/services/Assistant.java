@@ -1,9 +1,17 @@
 package com.larrydevincarter.thufir.services;
 
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WheelPlan;
+import dev.langchain4j.service.MemoryId;
+import dev.langchain4j.service.UserMessage;
 
 public interface Assistant {
 
     String chat(String message);
 
     String chat(String message, double temperature);
+
+    WheelDecision decideWheelCycle(@MemoryId Object memoryId, @UserMessage String message);
+
+    WheelPlan planWheelCycle(@MemoryId Object memoryId, @UserMessage String message);
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package com.larrydevincarter.thufir.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.CapturedExchange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only record of outbound calls, and the source of responses when replaying them.
+ * <p>
+ * {@code thufir.capture.mode}: {@code off} (default), {@code record} or {@code replay}. Recording appends
+ * length-prefixed, deflated JSON records to a memory-mapped file under {@code thufir.capture.dir}, one file per
+ * run. Writers only compress and copy into the mapping, so the log can stay on in production; the OS flushes it.
+ * <p>
+ * Replay loads every log in the directory (or only {@code thufir.capture.replay-cycle}, if set) and serves each
+ * request key's responses in recorded order. Keys include a digest of the request content ({@link #contentKey}), so
+ * concurrent callers only ever get responses recorded for the same request. A request with no recorded response left
+ * is a miss and fails; nothing goes to the network.
+ */
+@Component
+@Slf4j
+public class CaptureLog {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static final String FILE_SUFFIX = ".tlog";
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private final ObjectMapper objectMapper;
+    private final Mode mode;
+    private final Path directory;
+    private final String replayCycle;
+    private final long segmentBytes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Deque<CapturedExchange>> replayQueues = new HashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+
+    public CaptureLog(ObjectMapper objectMapper,
+                      @Value("${thufir.capture.mode:off}") String mode,
+                      @Value("${thufir.capture.dir:captures}") String directory,
+                      @Value("${thufir.capture.replay-cycle:}") String replayCycle,
+                      @Value("${thufir.capture.segment-mb:16}") int segmentMb) {
+        this.objectMapper = objectMapper;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.directory = Path.of(directory);
+        this.replayCycle = replayCycle.isBlank() ? null : replayCycle;
+        this.segmentBytes = segmentMb * 1024L * 1024L;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (mode == Mode.RECORD) {
+            Files.createDirectories(directory);
+            Path file = directory.resolve("capture-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + FILE_SUFFIX);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segmentStart = 0;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            log.info("Capturing outbound calls to {}", file);
+        } else if (mode == Mode.REPLAY) {
+            int loaded = loadReplay();
+            log.info("Replaying {} captured calls from {}{}", loaded, directory,
+                    replayCycle == null ? "" : " (cycle " + replayCycle + ")");
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public boolean recording() {
+        return mode == Mode.RECORD;
+    }
+
+    public boolean replaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    public void record(String kind, String key, String request, int status, String contentType, String response) {
+        if (mode != Mode.RECORD) {
+            return;
+        }
+        CapturedExchange exchange = new CapturedExchange(sequence.incrementAndGet(), System.currentTimeMillis(),
+                CycleContext.current().map(CycleContext::cycleId).orElse(null), kind, key, request, status, contentType, response);
+        try {
+            append(deflate(objectMapper.writeValueAsBytes(exchange)));
+        } catch (Exception e) {
+            log.warn("Failed to capture {} {}: {}", kind, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Next recorded response for this request; empty once every response captured for it has been served.
+     */
+    public Optional<CapturedExchange> replay(String kind, String key) {
+        String replayKey = kind + " " + key;
+        synchronized (replayQueues) {
+            Deque<CapturedExchange> queue = replayQueues.get(replayKey);
+            CapturedExchange next = queue == null ? null : queue.pollFirst();
+            if (next == null) {
+                log.error("Replay miss for {} ({})", replayKey, queue == null ? "never recorded" : "all recorded responses served");
+            }
+            return Optional.ofNullable(next);
+        }
+    }
+
+    /**
+     * Replay key for a request: its target (URL, model) plus a digest of its content, or the target alone when
+     * there is no content.
+     */
+    public static String contentKey(String target, String content) {
+        if (content == null || content.isEmpty()) {
+            return target;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return target + " #" + HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            int needed = Integer.BYTES + record.length;
+            if (segment.remaining() < needed) {
+                segmentStart += segment.position();
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, Math.max(segmentBytes, needed));
+            }
+            segment.putInt(record.length);
+            segment.put(record);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated capture record");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads every record in a capture file. A zero length marks the unwritten tail of a log that was not closed cleanly.
+     */
+    public List<CapturedExchange> read(Path file) throws IOException {
+        List<CapturedExchange> exchanges = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+                exchanges.add(objectMapper.readValue(inflate(record), CapturedExchange.class));
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt capture file " + file, e);
+        }
+        return exchanges;
+    }
+
+    private int loadReplay() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            log.warn("Capture directory {} does not exist; every replayed call will miss", directory);
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX)).sorted().toList();
+        }
+
+        List<CapturedExchange> all = new ArrayList<>();
+        for (Path file : files) {
+            all.addAll(read(file));
+        }
+        all.sort(Comparator.comparingLong(CapturedExchange::capturedAtMs).thenComparingLong(CapturedExchange::sequence));
+
+        int loaded = 0;
+        for (CapturedExchange exchange : all) {
+            if (replayCycle != null && !replayCycle.equals(exchange.cycleId())) {
+                continue;
+            }
+            replayQueues.computeIfAbsent(exchange.replayKey(), k -> new ArrayDeque<>()).addLast(exchange);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            segment.force();
+            channel.truncate(segmentStart + segment.position());
+            channel.close();
+            channel = null;
+            log.info("Capture log closed after {} records", sequence.get());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.larrydevincarter.thufir.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Writes each model exchange to the {@link CaptureLog}: the request messages in langchain4j's message JSON,
+ * and a {@link Reply} holding the AI message plus the usage a replay needs to report the same spend.
+ * Exchanges are keyed with {@link #key}, which {@link ReplayChatModel} computes the same way.
+ */
+@Component
+@Slf4j
+public class ChatCaptureListener implements ChatModelListener {
+
+    public record Reply(String modelName, String message, Integer inputTokens, Integer outputTokens, String finishReason) {}
+
+    // Prompts carry the wall-clock time; masked so a replay at another time still matches.
+    private static final Pattern TIMESTAMPS = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?");
+
+    private final CaptureLog captureLog;
+    private final ObjectMapper objectMapper;
+
+    public ChatCaptureListener(CaptureLog captureLog, ObjectMapper objectMapper) {
+        this.captureLog = captureLog;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        if (!captureLog.recording()) {
+            return;
+        }
+        ChatResponse response = context.chatResponse();
+        TokenUsage usage = response.tokenUsage();
+        Reply reply = new Reply(response.modelName(),
+                ChatMessageSerializer.messageToJson(response.aiMessage()),
+                usage == null ? null : usage.inputTokenCount(),
+                usage == null ? null : usage.outputTokenCount(),
+                response.finishReason() == null ? null : response.finishReason().name());
+        try {
+            captureLog.record("chat", key(context.chatRequest()),
+                    ChatMessageSerializer.messagesToJson(context.chatRequest().messages()),
+                    200, "application/json", objectMapper.writeValueAsString(reply));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to capture chat reply: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Model name and temperature (the chat models share a name), plus a digest of the messages.
+     */
+    static String key(ChatRequest request) {
+        String messages = TIMESTAMPS.matcher(ChatMessageSerializer.messagesToJson(request.messages())).replaceAll("<time>");
+        return CaptureLog.contentKey(request.modelName() + " t=" + request.temperature(), messages);
+    }
+}
@@ -0,0 +1,236 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.AccountOwnershipChanged;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.repositories.LeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates instances that share the database through a lease table. Every instance renews a
+ * {@code member:<id>} lease on each heartbeat; one of them also holds {@code leader}, which gates jobs that must
+ * run once (VIX health checks, Discord replies). Accounts are spread over the live members by rendezvous
+ * hashing, and an instance only runs cycles for an account while it holds {@code account:<id>}.
+ * <p>
+ * Leases last {@code thufir.cluster.lease-ttl-ms} and are renewed every {@code thufir.cluster.heartbeat-ms}, so
+ * the work of an instance that dies moves to the others within one TTL; a clean shutdown releases its leases at
+ * once. With {@code thufir.cluster.enabled=false} the instance is leader and owns every account.
+ * <p>
+ * Expiry is decided by the database clock ({@link LeaseRepository}). Locally a lease counts as held until one TTL
+ * after the claim was sent, which never outlasts the row. Taking or giving up an account publishes
+ * {@link AccountOwnershipChanged}, so its working orders move with it.
+ */
+@Service
+@Slf4j
+public class ClusterCoordinator {
+
+    static final String LEADER = "leader";
+    private static final String MEMBER_PREFIX = "member:";
+    private static final String ACCOUNT_PREFIX = "account:";
+
+    private final LeaseRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String instanceId;
+    private final Duration ttl;
+
+    // Lease name -> when our hold lapses if we stop renewing. Only leases we believe we hold are in here.
+    private final Map<String, Instant> held = new ConcurrentHashMap<>();
+    private volatile List<String> members = List.of();
+
+    public ClusterCoordinator(LeaseRepository repository, ApplicationEventPublisher eventPublisher,
+                              @Value("${thufir.cluster.enabled:true}") boolean enabled,
+                              @Value("${thufir.cluster.instance-id:}") String instanceId,
+                              @Value("${thufir.cluster.lease-ttl-ms:10000}") long ttlMs) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.ttl = Duration.ofMillis(ttlMs);
+        log.info("Cluster coordination {} (instance {}, lease TTL {} ms)", enabled ? "enabled" : "disabled", this.instanceId, ttlMs);
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Renews membership, leadership and every lease held. If the database cannot be reached nothing is held any
+     * more: the instance stands down rather than risk running work another instance has taken over.
+     */
+    @Scheduled(fixedRateString = "${thufir.cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            claim(MEMBER_PREFIX + instanceId);
+            boolean wasLeader = holds(LEADER);
+            for (String name : List.copyOf(held.keySet())) {
+                if (!name.startsWith(MEMBER_PREFIX) && !claim(name)) {
+                    log.warn("Lease {} was taken over by another instance", name);
+                    lost(name);
+                }
+            }
+            if (!held.containsKey(LEADER)) {
+                claim(LEADER);
+            }
+            if (holds(LEADER) != wasLeader) {
+                log.info("Instance {} {} leadership", instanceId, wasLeader ? "lost" : "acquired");
+            }
+            members = repository.findLive(MEMBER_PREFIX).stream()
+                    .map(lease -> lease.getName().substring(MEMBER_PREFIX.length()))
+                    .sorted()
+                    .toList();
+        } catch (Exception e) {
+            if (!held.isEmpty()) {
+                log.warn("Cluster heartbeat failed, releasing local claims: {}", e.getMessage());
+            }
+            List<String> dropped = List.copyOf(held.keySet());
+            held.clear();
+            dropped.forEach(this::lost);
+        }
+    }
+
+    public boolean isLeader() {
+        return !enabled || holds(LEADER);
+    }
+
+    /**
+     * Whether this instance currently holds the account's lease.
+     */
+    public boolean owns(TradingAccount account) {
+        return !enabled || holds(ACCOUNT_PREFIX + account.id());
+    }
+
+    /**
+     * Takes the account if it is assigned to this instance, and hands it back if it is now assigned elsewhere
+     * (another instance joined). Called before every cycle.
+     *
+     * @return true if this instance may run the account's cycle
+     */
+    public boolean claim(TradingAccount account) {
+        if (!enabled) {
+            return true;
+        }
+        String name = ACCOUNT_PREFIX + account.id();
+        String assignee = assignee(account.id());
+        if (!instanceId.equals(assignee)) {
+            if (held.remove(name) != null) {
+                // Stop following its orders before the lease goes, so the new owner adopts them alone.
+                lost(name);
+                release(name);
+                log.info("Account {} handed over to {}", account.id(), assignee);
+            }
+            return false;
+        }
+        if (holds(name)) {
+            return true;
+        }
+        try {
+            boolean claimed = claim(name);
+            if (claimed) {
+                log.info("Instance {} took account {}", instanceId, account.id());
+                eventPublisher.publishEvent(new AccountOwnershipChanged(account.id(), true));
+            }
+            return claimed;
+        } catch (Exception e) {
+            log.warn("Could not claim account {}: {}", account.id(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The live member an account belongs to: the one with the highest hash of (member, account). Adding or losing
+     * a member only moves the accounts that hash to it.
+     */
+    String assignee(String accountId) {
+        return members.stream()
+                .max(Comparator.comparingLong(member -> mix((member + "|" + accountId).hashCode())))
+                .orElse(null);
+    }
+
+    private static long mix(int hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private boolean holds(String name) {
+        Instant until = held.get(name);
+        return until != null && Instant.now().isBefore(until);
+    }
+
+    private boolean claim(String name) {
+        // Measured from before the statement, so the local hold ends no later than the row the database wrote.
+        Instant heldUntil = Instant.now().plus(ttl);
+        boolean claimed = repository.claim(name, instanceId, ttl.toMillis()) == 1
+                || repository.create(name, instanceId, ttl.toMillis()) == 1;
+        if (claimed) {
+            held.put(name, heldUntil);
+        } else {
+            held.remove(name);
+        }
+        return claimed;
+    }
+
+    private void lost(String name) {
+        if (name.startsWith(ACCOUNT_PREFIX)) {
+            eventPublisher.publishEvent(new AccountOwnershipChanged(name.substring(ACCOUNT_PREFIX.length()), false));
+        }
+    }
+
+    private void release(String name) {
+        try {
+            repository.release(name, instanceId);
+        } catch (Exception e) {
+            log.debug("Lease {} not released, it will expire: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Releases everything on a clean shutdown so the other instances take over on their next heartbeat instead
+     * of waiting for the leases to expire.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        for (String name : List.copyOf(held.keySet())) {
+            release(name);
+        }
+        release(MEMBER_PREFIX + instanceId);
+        held.clear();
+        log.info("Instance {} released its leases", instanceId);
+    }
+}
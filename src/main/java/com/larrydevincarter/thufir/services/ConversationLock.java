@@ -0,0 +1,58 @@
+package com.larrydevincarter.thufir.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes everything that talks to one chat memory: wheel cycles and Discord requests take turns in
+ * arrival order instead of interleaving messages in one conversation. Each memory id has its own lock, so
+ * accounts with separate memories run their cycles side by side; {@link #withLock(String, Supplier)} is the
+ * {@code default} memory shared by the primary account and Discord.
+ */
+@Component
+@Slf4j
+public class ConversationLock {
+
+    public static final String DEFAULT_MEMORY = "default";
+
+    private final Map<Object, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public <T> T withLock(Object memoryId, String holder, Supplier<T> work) {
+        ReentrantLock lock = locks.computeIfAbsent(memoryId, id -> new ReentrantLock(true));
+        long waitStart = System.nanoTime();
+        lock.lock();
+        try {
+            long waitedMs = (System.nanoTime() - waitStart) / 1_000_000;
+            if (waitedMs > 0) {
+                log.info("{} waited {} ms for the conversation lock ({})", holder, waitedMs, memoryId);
+            }
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(Object memoryId, String holder, Runnable work) {
+        withLock(memoryId, holder, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T withLock(String holder, Supplier<T> work) {
+        return withLock(DEFAULT_MEMORY, holder, work);
+    }
+
+    public void withLock(String holder, Runnable work) {
+        withLock(DEFAULT_MEMORY, holder, work);
+    }
+
+    public boolean isBusy() {
+        return locks.values().stream().anyMatch(ReentrantLock::isLocked);
+    }
+}
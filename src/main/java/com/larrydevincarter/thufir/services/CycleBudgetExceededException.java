@@ -0,0 +1,24 @@
+package com.larrydevincarter.thufir.services;
+
+/**
+ * Thrown when a cycle's deadline passes before a stage of it could finish. The wheel cycle treats it as a hold
+ * rather than a failure: nothing was decided, so there is nothing to degrade for.
+ */
+public class CycleBudgetExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public CycleBudgetExceededException(String stage) {
+        super("Cycle budget exhausted during " + stage);
+        this.stage = stage;
+    }
+
+    public CycleBudgetExceededException(String stage, Throwable cause) {
+        super("Cycle budget exhausted during " + stage, cause);
+        this.stage = stage;
+    }
+
+    public String stage() {
+        return stage;
+    }
+}
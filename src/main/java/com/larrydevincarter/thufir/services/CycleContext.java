@@ -0,0 +1,303 @@
+package com.larrydevincarter.thufir.services;
+
+import io.micrometer.observation.Observation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Scope of one decision (a wheel cycle or a Discord request). Identical tool invocations and shared
+ * client calls made while the scope is open are executed once; concurrent callers wait for the in-flight result.
+ * <p>
+ * The scope is bound to the opening thread and inherited by threads it starts, which covers the
+ * virtual threads AiServices uses for concurrent tool calls. Outside a scope {@link #memoize} is a pass-through.
+ * <p>
+ * A scope may carry a deadline. Clients, tools and model calls read it through {@link #remainingMs},
+ * {@link #hasBudgetFor} and {@link #bounded} so that retries and waits never outlive the cycle; a nested scope
+ * keeps the tighter of its own budget and its parent's.
+ * <p>
+ * A scope may also be bound to a trading account. Account cycles run as children of one wheel scope: per-account
+ * data is memoized in the account's scope with {@link #memoize}, market data in the outermost scope with
+ * {@link #memoizeShared}, so it is fetched once however many accounts run.
+ */
+public final class CycleContext implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CycleContext.class);
+
+    private static final InheritableThreadLocal<CycleContext> CURRENT = new InheritableThreadLocal<>();
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "thufir-cycle-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String cycleId;
+    private final CycleContext previous;
+    private final Instant deadline;
+    private final String account;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger deduplicated = new AtomicInteger();
+    private volatile Observation observation;
+
+    private CycleContext(String cycleId, CycleContext previous, Instant deadline, String account) {
+        this.cycleId = cycleId;
+        this.previous = previous;
+        this.deadline = deadline;
+        this.account = account;
+    }
+
+    public static CycleContext open(String origin) {
+        return open(origin, null);
+    }
+
+    public static CycleContext open(String origin, Duration budget) {
+        return open(origin, budget, null);
+    }
+
+    /**
+     * @param budget  how long the scope may run, or null to inherit the parent's deadline (if any)
+     * @param account account id to bind, or null to inherit the parent's
+     */
+    public static CycleContext open(String origin, Duration budget, String account) {
+        CycleContext previous = CURRENT.get();
+        Instant deadline = budget == null ? null : Instant.now().plus(budget);
+        if (previous != null && previous.deadline != null && (deadline == null || previous.deadline.isBefore(deadline))) {
+            deadline = previous.deadline;
+        }
+        if (account == null && previous != null) {
+            account = previous.account;
+        }
+        CycleContext context = new CycleContext(origin + "-" + Long.toString(System.currentTimeMillis(), 36), previous, deadline, account);
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static Optional<CycleContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Returns the result already produced for {@code key} in the current cycle, or computes it.
+     * Failures are not remembered, so a later call in the same cycle retries.
+     */
+    public static <T> T memoize(String key, Supplier<T> supplier) {
+        CycleContext context = CURRENT.get();
+        return context == null ? supplier.get() : context.computeOnce(key, supplier);
+    }
+
+    /**
+     * Like {@link #memoize}, but remembered in the outermost scope, so parallel account scopes under one
+     * cycle share the result. Only for data that does not depend on the account.
+     */
+    public static <T> T memoizeShared(String key, Supplier<T> supplier) {
+        CycleContext context = CURRENT.get();
+        return context == null ? supplier.get() : context.root().computeOnce(key, supplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T computeOnce(String key, Supplier<T> supplier) {
+        calls.incrementAndGet();
+
+        CompletableFuture<Object> fresh = new CompletableFuture<>();
+        CompletableFuture<Object> existing = results.putIfAbsent(key, fresh);
+        if (existing != null) {
+            deduplicated.incrementAndGet();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T value = supplier.get();
+            fresh.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too: a waiter joined on this key would otherwise block forever.
+            results.remove(key, fresh);
+            fresh.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a remembered result, e.g. when a tool reported an error as its return value.
+     */
+    public void evict(String key) {
+        results.remove(key);
+    }
+
+    public String cycleId() {
+        return cycleId;
+    }
+
+    /**
+     * The outermost open scope this one is nested in (itself if it is not nested).
+     */
+    public CycleContext root() {
+        CycleContext context = this;
+        while (context.previous != null) {
+            context = context.previous;
+        }
+        return context;
+    }
+
+    /**
+     * Id of the account bound to the current scope, if any.
+     */
+    public static Optional<String> account() {
+        CycleContext context = CURRENT.get();
+        return context == null ? Optional.empty() : Optional.ofNullable(context.account);
+    }
+
+    public Optional<Instant> deadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    /**
+     * Time left before the current scope's deadline; empty outside a scope or when it has none. Never negative.
+     */
+    public static Optional<Duration> remaining() {
+        CycleContext context = CURRENT.get();
+        if (context == null || context.deadline == null) {
+            return Optional.empty();
+        }
+        Duration left = Duration.between(Instant.now(), context.deadline);
+        return Optional.of(left.isNegative() ? Duration.ZERO : left);
+    }
+
+    /**
+     * {@code timeoutMs} capped at what is left of the cycle.
+     */
+    public static long remainingMs(long timeoutMs) {
+        return remaining().map(left -> Math.min(timeoutMs, left.toMillis())).orElse(timeoutMs);
+    }
+
+    /**
+     * Whether waiting {@code ms} (a retry backoff, a poll interval) would still leave time to act on the result.
+     */
+    public static boolean hasBudgetFor(long ms) {
+        return remaining().map(left -> left.toMillis() > ms).orElse(true);
+    }
+
+    /**
+     * @throws CycleBudgetExceededException if the current scope's deadline has passed
+     */
+    public static void checkBudget(String stage) {
+        if (remaining().map(Duration::isZero).orElse(false)) {
+            throw new CycleBudgetExceededException(stage);
+        }
+    }
+
+    /**
+     * Runs {@code work} on the calling thread and interrupts it if the cycle's deadline passes first. An interrupted
+     * call surfaces as {@link CycleBudgetExceededException} whatever the callee turned the interrupt into.
+     */
+    public static <T> T bounded(String stage, Supplier<T> work) {
+        Optional<Duration> left = remaining();
+        if (left.isEmpty()) {
+            return work.get();
+        }
+        checkBudget(stage);
+
+        Watchdog watchdog = new Watchdog(Thread.currentThread(), left.get().toMillis());
+        try {
+            T result = work.get();
+            if (watchdog.fired()) {
+                throw new CycleBudgetExceededException(stage);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (watchdog.fired() && !(e instanceof CycleBudgetExceededException)) {
+                throw new CycleBudgetExceededException(stage, e);
+            }
+            throw e;
+        } finally {
+            watchdog.release();
+        }
+    }
+
+    private static final class Watchdog {
+
+        private final Thread worker;
+        private final ScheduledFuture<?> timer;
+        private boolean finished;
+        private boolean fired;
+
+        private Watchdog(Thread worker, long delayMs) {
+            this.worker = worker;
+            this.timer = DEADLINES.schedule(this::fire, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void fire() {
+            if (!finished) {
+                fired = true;
+                worker.interrupt();
+            }
+        }
+
+        private synchronized boolean fired() {
+            return fired;
+        }
+
+        private synchronized void release() {
+            finished = true;
+            timer.cancel(false);
+            if (fired) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * The cycle's root observation. Tool and model observations started on other threads use it as their parent,
+     * since Micrometer's current-observation scope does not follow work onto executor threads.
+     */
+    public Optional<Observation> observation() {
+        if (observation == null && previous != null) {
+            return previous.observation();
+        }
+        return Optional.ofNullable(observation);
+    }
+
+    void bindObservation(Observation observation) {
+        this.observation = observation;
+    }
+
+    public int deduplicatedCalls() {
+        return deduplicated.get();
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        if (calls.get() > 0) {
+            log.info("Cycle {} closed: {} memoized calls, {} deduplicated", cycleId, calls.get(), deduplicated.get());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TriageVerdict;
+import com.larrydevincarter.thufir.tools.MarketDataTools;
+import com.larrydevincarter.thufir.tools.TastytradeTools;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides how much model a wheel cycle needs. Hard rules run first at zero token cost, then a small
+ * triage model looks at the pre-fetched snapshot, and only cycles it flags as actionable reach the full model.
+ * The snapshot is fetched inside the cycle's {@link CycleContext}, so the full model's tool calls reuse it.
+ * A tool failure caused by the cycle running out of time is raised as {@link CycleBudgetExceededException}
+ * rather than routed as an urgent TOOL_FAIL hold.
+ */
+@Service
+@Slf4j
+public class CycleRouter {
+
+    public enum Route { RULES_HALT, RULES_HOLD, TRIAGE_HOLD, ESCALATE }
+
+    public record RoutingDecision(Route route, String action, String reason, boolean urgent, String snapshot) {
+
+        public boolean escalate() {
+            return route == Route.ESCALATE;
+        }
+    }
+
+    private static final Pattern VIX_VALUE = Pattern.compile("(\\d{1,2}\\.\\d{2})");
+
+    private final MarketDataTools marketDataTools;
+    private final TastytradeTools tastytradeTools;
+    private final TriageAssistant triageAssistant;
+    private final ModelUsageMetrics modelUsageMetrics;
+
+    @Value("${thufir.routing.enabled:true}")
+    private boolean routingEnabled;
+
+    @Value("${thufir.routing.vix-halt:25.0}")
+    private double vixHaltLevel;
+
+    public CycleRouter(MarketDataTools marketDataTools, TastytradeTools tastytradeTools,
+                       TriageAssistant triageAssistant, ModelUsageMetrics modelUsageMetrics) {
+        this.marketDataTools = marketDataTools;
+        this.tastytradeTools = tastytradeTools;
+        this.triageAssistant = triageAssistant;
+        this.modelUsageMetrics = modelUsageMetrics;
+    }
+
+    public RoutingDecision route() {
+        long start = System.nanoTime();
+        RoutingDecision decision = evaluate();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        modelUsageMetrics.recordRoute(decision.route().name(), elapsedMs);
+        log.info("Cycle routed to {} in {} ms: {}", decision.route(), elapsedMs, decision.reason());
+        return decision;
+    }
+
+    private RoutingDecision evaluate() {
+        if (!routingEnabled) {
+            return new RoutingDecision(Route.ESCALATE, null, "Routing disabled", false, "");
+        }
+
+        String vix = marketDataTools.getCurrentVix();
+        Optional<Double> vixValue = parseVix(vix);
+        if (vixValue.isEmpty()) {
+            CycleContext.checkBudget("routing");
+            return new RoutingDecision(Route.RULES_HOLD, "hold", "VIX_FAIL: " + vix, true, vix);
+        }
+        if (vixValue.get() > vixHaltLevel) {
+            return new RoutingDecision(Route.RULES_HALT, "halt",
+                    String.format("VIX %.2f above %.2f — halting for the day", vixValue.get(), vixHaltLevel), false, vix);
+        }
+
+        String balances = tastytradeTools.getAccountBalances();
+        if (balances.startsWith("ERROR")) {
+            CycleContext.checkBudget("routing");
+            return new RoutingDecision(Route.RULES_HOLD, "hold", "TOOL_FAIL: " + balances, true, vix);
+        }
+
+        String positions = tastytradeTools.getPositionsSummary();
+        if (positions.startsWith("ERROR")) {
+            CycleContext.checkBudget("routing");
+            return new RoutingDecision(Route.RULES_HOLD, "hold", "TOOL_FAIL: " + positions, true, vix + "\n\n" + balances);
+        }
+
+        String snapshot = vix + "\n\n" + balances + "\n\n" + positions;
+
+        try {
+            TriageVerdict verdict = CycleContext.bounded("triage", () -> triageAssistant.triage(snapshot));
+            if (verdict.escalate()) {
+                return new RoutingDecision(Route.ESCALATE, null, verdict.reason(), false, snapshot);
+            }
+            return new RoutingDecision(Route.TRIAGE_HOLD, "hold", verdict.reason(), false, snapshot);
+        } catch (CycleBudgetExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Triage model failed ({}), escalating to full model", e.getMessage());
+            return new RoutingDecision(Route.ESCALATE, null, "Triage unavailable: " + e.getMessage(), false, snapshot);
+        }
+    }
+
+    static Optional<Double> parseVix(String vixResult) {
+        if (vixResult == null || vixResult.contains("CRITICAL FAILURE")) {
+            return Optional.empty();
+        }
+        Matcher m = VIX_VALUE.matcher(vixResult);
+        return m.find() ? Optional.of(Double.parseDouble(m.group(1))) : Optional.empty();
+    }
+}
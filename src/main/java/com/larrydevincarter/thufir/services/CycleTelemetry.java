@@ -0,0 +1,108 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.entities.TradeDecision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Observations for the units of work Thufir cares about: a wheel cycle or Discord request, each tool call and
+ * each model turn. Observations become both a Micrometer timer (histogram, exported on /actuator/prometheus)
+ * and a trace span. Every persisted {@link TradeDecision} stores its trace id, and the cycle span carries the
+ * decision id, so a Prometheus exemplar leads to the trace and the trace leads to the decision row.
+ */
+@Component
+public class CycleTelemetry {
+
+    public static final String CYCLE = "thufir.cycle";
+    public static final String TOOL = "thufir.tool";
+    public static final String LLM = "thufir.llm";
+
+    /**
+     * Tags set later in a cycle with {@link #tagCycle}. Every cycle starts with all of them at {@code none}, because
+     * Prometheus drops meters whose name matches an existing one but whose tag keys differ.
+     */
+    private static final List<String> CYCLE_TAGS = List.of("outcome", "route", "mode");
+
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    public CycleTelemetry(ObservationRegistry observationRegistry, MeterRegistry meterRegistry, Tracer tracer) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Runs {@code work} as the cycle's observation: the root, or a child of the enclosing scope's observation when
+     * the cycle is nested (one account's share of a wheel cycle).
+     *
+     * @param kind low-cardinality name of the unit of work, e.g. {@code wheel} or {@code discord}
+     */
+    public void observe(CycleContext cycle, String kind, Runnable work) {
+        observe(cycle, kind, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T observe(CycleContext cycle, String kind, Supplier<T> work) {
+        Observation observation = Observation.createNotStarted(CYCLE, observationRegistry)
+                .contextualName(kind + " " + cycle.cycleId())
+                .parentObservation(cycle.observation().orElse(null))
+                .lowCardinalityKeyValue("kind", kind)
+                .lowCardinalityKeyValue("account", CycleContext.account().orElse("none"))
+                .highCardinalityKeyValue("cycle.id", cycle.cycleId());
+        CYCLE_TAGS.forEach(key -> observation.lowCardinalityKeyValue(key, "none"));
+        cycle.bindObservation(observation);
+        return observation.observe(work);
+    }
+
+    /**
+     * Sets one of the cycle's low-cardinality tags (route, mode, outcome) on the current cycle's observation.
+     */
+    public void tagCycle(String key, String value) {
+        CycleContext.current().flatMap(CycleContext::observation)
+                .ifPresent(observation -> observation.lowCardinalityKeyValue(key, value));
+    }
+
+    /**
+     * Starts a child of the current cycle, or of whatever observation is open on this thread.
+     */
+    public Observation child(String name) {
+        Observation parent = CycleContext.current().flatMap(CycleContext::observation)
+                .orElse(observationRegistry.getCurrentObservation());
+        return Observation.createNotStarted(name, observationRegistry).parentObservation(parent);
+    }
+
+    /**
+     * Stamps the current trace id on a decision about to be saved.
+     */
+    public void stamp(TradeDecision decision) {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            decision.setTraceId(span.context().traceId());
+        }
+    }
+
+    /**
+     * Records a saved decision: tags the cycle span with its id and counts it by action. The counter's
+     * exemplar carries the trace id while the cycle span is current.
+     */
+    public void decided(TradeDecision decision) {
+        CycleContext.current().flatMap(CycleContext::observation)
+                .ifPresent(observation -> observation.highCardinalityKeyValue("decision.id", String.valueOf(decision.getId())));
+        Counter.builder("thufir.decisions")
+                .tag("action", String.valueOf(decision.getAction()))
+                .register(meterRegistry)
+                .increment();
+    }
+}
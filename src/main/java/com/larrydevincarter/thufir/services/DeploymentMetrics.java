@@ -0,0 +1,88 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Time-to-target-deployment per trading day: how many cycles and minutes it took for committed plus
+ * working cash to reach the target share of cash, tagged with the execution mode so batch and
+ * one-per-cycle days can be compared.
+ */
+@Component
+@Slf4j
+public class DeploymentMetrics {
+
+    record DayResult(LocalDate date, String mode, int cycles, long minutes, double deployedPct, boolean reached) {}
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+    private static final int HISTORY_DAYS = 20;
+
+    @Value("${thufir.risk.target-deployment-pct:80.0}")
+    private double targetDeploymentPct;
+
+    private final Deque<DayResult> history = new ArrayDeque<>();
+
+    private String mode = "single";
+    private LocalDateTime dayStart;
+    private int cycles;
+    private double deployedPct;
+    private boolean reached;
+
+    public synchronized void startDay(String mode) {
+        this.mode = mode;
+        this.dayStart = LocalDateTime.now(CST);
+        this.cycles = 0;
+        this.deployedPct = 0.0;
+        this.reached = false;
+    }
+
+    public synchronized void recordCycle(PortfolioSnapshot portfolio, double workingCommitment) {
+        if (dayStart == null) {
+            startDay(mode);
+        }
+        cycles++;
+        deployedPct = portfolio.cash() > 0 ? (portfolio.committedCash() + workingCommitment) / portfolio.cash() * 100.0 : 0.0;
+        if (!reached && deployedPct >= targetDeploymentPct) {
+            reached = true;
+            long minutes = Duration.between(dayStart, LocalDateTime.now(CST)).toMinutes();
+            log.info("Target deployment {}% reached after {} cycles / {} min ({} mode)", targetDeploymentPct, cycles, minutes, mode);
+            remember(new DayResult(dayStart.toLocalDate(), mode, cycles, minutes, deployedPct, true));
+        }
+    }
+
+    public synchronized void endDay() {
+        if (dayStart != null && !reached) {
+            remember(new DayResult(dayStart.toLocalDate(), mode, cycles,
+                    Duration.between(dayStart, LocalDateTime.now(CST)).toMinutes(), deployedPct, false));
+        }
+        dayStart = null;
+    }
+
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder(String.format("Time to %.0f%% deployment:%n", targetDeploymentPct));
+        if (history.isEmpty()) {
+            sb.append("  no completed days yet\n");
+        }
+        for (DayResult day : history) {
+            sb.append(String.format("  %s [%s] %s after %d cycles / %d min (%.1f%% deployed)%n",
+                    day.date(), day.mode(), day.reached() ? "reached" : "not reached", day.cycles(), day.minutes(), day.deployedPct()));
+        }
+        return sb.toString();
+    }
+
+    private void remember(DayResult result) {
+        history.addLast(result);
+        while (history.size() > HISTORY_DAYS) {
+            history.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.TradingStatus;
+import com.larrydevincarter.thufir.models.entities.TradeDecision;
+import com.larrydevincarter.thufir.repositories.TradeDecisionRepository;
+import com.larrydevincarter.thufir.tools.TastytradeTools;
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic grammar for the routine Discord commands. These run straight against the tools,
+ * the decision log and the executor and never touch the model; anything that does not parse
+ * falls through to the LLM.
+ * <pre>
+ *   status | positions | balances
+ *   (halt | pause | stop) [reason: text] | resume | continue
+ *   decisions [N] | last [N]
+ *   cycle | force cycle
+ *   help
+ * </pre>
+ */
+@Component
+@Slf4j
+public class DiscordCommands {
+
+    public enum Type { STATUS, HALT, RESUME, POSITIONS, BALANCES, DECISIONS, FORCE_CYCLE, HELP }
+
+    public record Command(Type type, String argument, int count) {}
+
+    private static final Pattern PAUSE_REASON = Pattern.compile("(?i)reason\\s*:\\s*(.+)", Pattern.DOTALL);
+
+    private static final int DEFAULT_DECISIONS = 5;
+    private static final int MAX_DECISIONS = 25;
+
+    private final TastytradeTools tastytradeTools;
+    private final TradeDecisionRepository decisionRepo;
+    private final WheelStrategyExecutor wheelStrategyExecutor;
+    private final ConversationLock conversationLock;
+    private final ModelUsageMetrics modelUsageMetrics;
+    private final TradingControlService tradingControl;
+    private final MarketSnapshotService marketSnapshot;
+    private final AccountRegistry accounts;
+    private final BoundedVirtualThreadExecutor discordExecutor;
+
+    // Set while a forced cycle is queued or running; a second one is refused rather than stacked behind it.
+    private final AtomicBoolean forcedCyclePending = new AtomicBoolean();
+
+    public DiscordCommands(TastytradeTools tastytradeTools, TradeDecisionRepository decisionRepo,
+                           WheelStrategyExecutor wheelStrategyExecutor, ConversationLock conversationLock,
+                           ModelUsageMetrics modelUsageMetrics, TradingControlService tradingControl,
+                           MarketSnapshotService marketSnapshot, AccountRegistry accounts,
+                           @Qualifier("discordExecutor") BoundedVirtualThreadExecutor discordExecutor) {
+        this.tastytradeTools = tastytradeTools;
+        this.decisionRepo = decisionRepo;
+        this.wheelStrategyExecutor = wheelStrategyExecutor;
+        this.conversationLock = conversationLock;
+        this.modelUsageMetrics = modelUsageMetrics;
+        this.tradingControl = tradingControl;
+        this.marketSnapshot = marketSnapshot;
+        this.accounts = accounts;
+        this.discordExecutor = discordExecutor;
+    }
+
+    public static Optional<Command> parse(String text) {
+        if (text == null || text.isBlank()) {
+            return Optional.empty();
+        }
+
+        String[] words = text.trim().split("\\s+", 2);
+        String verb = words[0].toLowerCase(Locale.ROOT);
+        String original = words.length > 1 ? words[1].trim() : "";
+        String rest = original.toLowerCase(Locale.ROOT);
+
+        return switch (verb) {
+            case "status" -> rest.isEmpty() ? Optional.of(new Command(Type.STATUS, null, 0)) : Optional.empty();
+            case "positions" -> rest.isEmpty() ? Optional.of(new Command(Type.POSITIONS, null, 0)) : Optional.empty();
+            case "balances", "balance" -> rest.isEmpty() ? Optional.of(new Command(Type.BALANCES, null, 0)) : Optional.empty();
+            case "help" -> Optional.of(new Command(Type.HELP, null, 0));
+            case "halt", "pause", "stop" -> parsePauseReason(original).map(reason -> new Command(Type.HALT, reason, 0));
+            case "resume", "continue" -> rest.isEmpty() ? Optional.of(new Command(Type.RESUME, null, 0)) : Optional.empty();
+            case "cycle" -> rest.isEmpty() ? Optional.of(new Command(Type.FORCE_CYCLE, null, 0)) : Optional.empty();
+            case "force" -> "cycle".equals(rest) ? Optional.of(new Command(Type.FORCE_CYCLE, null, 0)) : Optional.empty();
+            case "decisions", "last" -> parseCount(rest).map(n -> new Command(Type.DECISIONS, null, n));
+            default -> Optional.empty();
+        };
+    }
+
+    /**
+     * A pause takes either no argument or an explicit {@code reason: ...}, kept in the owner's case. Anything
+     * else ("stop selling puts on TSLA") is an instruction for the model, not a pause.
+     */
+    private static Optional<String> parsePauseReason(String rest) {
+        if (rest.isEmpty()) {
+            return Optional.of("");
+        }
+        Matcher m = PAUSE_REASON.matcher(rest);
+        return m.matches() ? Optional.of(m.group(1).trim()) : Optional.empty();
+    }
+
+    private static Optional<Integer> parseCount(String rest) {
+        String count = rest.replace("decisions", "").trim();
+        if (count.isEmpty()) {
+            return Optional.of(DEFAULT_DECISIONS);
+        }
+        try {
+            return Optional.of(Math.max(1, Math.min(MAX_DECISIONS, Integer.parseInt(count))));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Executes a parsed command. Long-running commands reply immediately and report completion through {@code reply} later.
+     */
+    public void execute(Command command, Consumer<String> reply) {
+        log.info("Fast-path Discord command: {}", command);
+        switch (command.type()) {
+            case STATUS -> reply.accept(status());
+            case POSITIONS -> reply.accept(perAccount(tastytradeTools::getPositionsSummary));
+            case BALANCES -> reply.accept(perAccount(tastytradeTools::getAccountBalances));
+            case DECISIONS -> reply.accept(lastDecisions(command.count()));
+            case HALT -> {
+                tradingControl.pauseByOwner(command.argument());
+                reply.accept("Trading " + tradingControl.current().describe() + ". Send `resume` to continue.");
+            }
+            case RESUME -> {
+                tradingControl.resume("owner");
+                reply.accept("Trading resumed. Next cycle runs on schedule.");
+            }
+            case FORCE_CYCLE -> {
+                TradingStatus trading = tradingControl.current();
+                if (tradingControl.statuses().values().stream().noneMatch(TradingStatus::allowsCycles)) {
+                    reply.accept("Trading is " + trading.describe() + ". Resume first.");
+                    return;
+                }
+                if (!forcedCyclePending.compareAndSet(false, true)) {
+                    reply.accept("A forced cycle is already queued or running.");
+                    return;
+                }
+                reply.accept("Starting a wheel cycle now" + (conversationLock.isBusy() ? " (queued behind the current one)." : "."));
+                discordExecutor.execute(() -> {
+                    try {
+                        wheelStrategyExecutor.forceCycle();
+                        reply.accept("Forced cycle finished. Use `decisions 1` for the result.");
+                    } catch (Exception e) {
+                        log.error("Forced cycle failed", e);
+                        reply.accept("Forced cycle failed: " + e.getMessage());
+                    } finally {
+                        forcedCyclePending.set(false);
+                    }
+                });
+            }
+            case HELP -> reply.accept("""
+                    Fast commands: status, positions, balances, decisions [N], halt [reason: text], resume, cycle, help.
+                    Anything else goes to Thufir.""");
+        }
+    }
+
+    private String status() {
+        StringBuilder sb = new StringBuilder("Thufir status\n");
+        Map<String, TradingStatus> statuses = tradingControl.statuses();
+        if (statuses.size() > 1) {
+            sb.append("Trading:\n");
+            statuses.forEach((account, trading) -> sb.append("  ").append(account).append(": ").append(trading.describe()).append('\n'));
+        } else {
+            sb.append("Trading: ").append(tradingControl.current().describe()).append('\n');
+        }
+        sb.append("Conversation: ").append(conversationLock.isBusy() ? "busy (cycle or request in progress)" : "idle").append('\n');
+
+        TradeDecision last = decisionRepo.findTopByOrderByTimestampDesc();
+        if (last != null) {
+            sb.append("Last decision: ").append(formatDecision(last)).append('\n');
+        }
+        sb.append(marketSnapshot.describe());
+        sb.append('\n').append(modelUsageMetrics.summary());
+        return sb.toString();
+    }
+
+    /**
+     * Runs {@code read} in each account's scope, one labelled block per account when there are several.
+     */
+    private String perAccount(Supplier<String> read) {
+        List<TradingAccount> all = accounts.all();
+        StringBuilder sb = new StringBuilder();
+        for (TradingAccount account : all) {
+            if (all.size() > 1) {
+                sb.append(sb.isEmpty() ? "" : "\n").append("[").append(account.id()).append("]\n");
+            }
+            try {
+                accounts.runAs(account, "discord", scope -> sb.append(read.get()));
+            } catch (Exception e) {
+                log.warn("Fast-path read failed for account {}: {}", account.id(), e.getMessage());
+                sb.append("Could not read account ").append(account.id()).append(": ").append(e.getMessage());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String lastDecisions(int count) {
+        List<TradeDecision> decisions = decisionRepo.findAll(
+                PageRequest.of(0, count, Sort.by(Sort.Direction.DESC, "timestamp"))).getContent();
+        if (decisions.isEmpty()) {
+            return "No decisions recorded yet.";
+        }
+        StringBuilder sb = new StringBuilder("Last " + decisions.size() + " decisions:\n");
+        decisions.forEach(d -> sb.append("- ").append(formatDecision(d)).append('\n'));
+        return sb.toString();
+    }
+
+    private String formatDecision(TradeDecision d) {
+        String rationale = d.getRationale() == null ? "" : d.getRationale();
+        return String.format("%s%s %s%s — %s",
+                d.getAccountId() != null && tradingControl.statuses().size() > 1 ? "[" + d.getAccountId() + "] " : "",
+                d.getTimestamp(), d.getAction().toUpperCase(Locale.ROOT),
+                d.getTicker() != null ? " " + d.getTicker() : "",
+                rationale.substring(0, Math.min(150, rationale.length())));
+    }
+}
@@ -0,0 +1,108 @@
+package com.larrydevincarter.thufir.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The bot's gateway connection. It is opened in the background once the application is ready, so a Discord
+ * outage neither prevents startup nor holds trading, and no socket is open while the context refreshes
+ * (an AppCDS training run or a CRaC checkpoint). A failed first connection is retried with backoff; after that
+ * JDA reconnects by itself.
+ */
+@Component
+@Slf4j
+public class DiscordGateway {
+
+    // Looked up at connect time: the listener's dependencies reach back to the health check that uses this bean.
+    private final ObjectProvider<DiscordMessageListener> messageListener;
+    private final StartupTimeline startupTimeline;
+
+    @Value("${discord.bot.token}")
+    private String token;
+
+    @Value("${discord.bot.connect-retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    private volatile JDA jda;
+    private volatile boolean stopping;
+
+    public DiscordGateway(ObjectProvider<DiscordMessageListener> messageListener, StartupTimeline startupTimeline) {
+        this.messageListener = messageListener;
+        this.startupTimeline = startupTimeline;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void connect() {
+        Thread.ofVirtual().name("thufir-discord-connect").start(this::connectWithRetry);
+    }
+
+    private void connectWithRetry() {
+        long backoffMs = 2_000;
+        while (!stopping) {
+            JDA candidate = null;
+            try {
+                candidate = JDABuilder.createDefault(token)
+                        .enableIntents(
+                                GatewayIntent.GUILD_MESSAGES,
+                                GatewayIntent.MESSAGE_CONTENT
+                        )
+                        .setMemberCachePolicy(MemberCachePolicy.NONE)
+                        .setChunkingFilter(ChunkingFilter.NONE)
+                        .addEventListeners(messageListener.getObject())
+                        .setActivity(Activity.watching("Wheel cycles"))
+                        .build();
+                jda = candidate;
+                candidate.awaitReady();
+                log.info("Discord gateway connected as {}", candidate.getSelfUser().getName());
+                startupTimeline.mark(StartupTimeline.DISCORD);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Discord connection failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                if (candidate != null) {
+                    candidate.shutdownNow();
+                }
+                jda = null;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, retryMaxMs);
+        }
+    }
+
+    public boolean isConnected() {
+        JDA current = jda;
+        return current != null && current.getStatus() == JDA.Status.CONNECTED;
+    }
+
+    public String status() {
+        JDA current = jda;
+        return current == null ? "NOT_STARTED" : current.getStatus().name();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        JDA current = jda;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+}
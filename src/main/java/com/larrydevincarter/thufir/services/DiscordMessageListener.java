@@ -1,5 +1,11 @@
 package com.larrydevincarter.thufir.services;
 
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
+import com.larrydevincarter.thufir.utils.DiscordMessages;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
@@ -8,15 +14,49 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Answers the monitored channel. Queued work is measured in Micrometer: {@code thufir.discord.queue.depth} per
+ * channel, {@code thufir.discord.queue.wait} from arrival to the start of handling, and {@code thufir.discord.handle}
+ * for the handling itself ({@code path} is {@code queued} or {@code fast}).
+ */
 @Component
 @Slf4j
 public class DiscordMessageListener extends ListenerAdapter {
 
     private final Assistant chattingAssistant;
     private final Assistant workingAssistant;
+    private final ConversationLock conversationLock;
+    private final BoundedVirtualThreadExecutor discordExecutor;
+    private final DiscordCommands discordCommands;
+    private final CycleTelemetry telemetry;
+    private final ClusterCoordinator coordinator;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWait;
+    private final Timer queuedHandling;
+    private final Timer fastHandling;
+
+    private final Map<String, CompletableFuture<Void>> channelTails = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Channel id -> messages queued or being handled there; each backs a depth gauge.
+    private final Map<String, AtomicInteger> channelDepths = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService typingScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "thufir-discord-typing");
+        t.setDaemon(true);
+        return t;
+    });
 
     @Value("${discord.bot.channel-id}")
     private String monitoredChannelId;
@@ -24,16 +64,46 @@ public class DiscordMessageListener extends ListenerAdapter {
     private String chatPrefix;
     @Value("${discord.bot.command-prefix}")
     private String commandPrefix;
+    @Value("${discord.bot.reply-budget-ms:180000}")
+    private long replyBudgetMs;
 
     public DiscordMessageListener(@Qualifier("chattingAssistant") Assistant chattingAssistant,
-            @Qualifier("workingAssistant") Assistant workingAssistant) {
+            @Qualifier("workingAssistant") Assistant workingAssistant,
+            ConversationLock conversationLock,
+            @Qualifier("discordExecutor") BoundedVirtualThreadExecutor discordExecutor,
+            DiscordCommands discordCommands,
+            CycleTelemetry telemetry,
+            ClusterCoordinator coordinator,
+            MeterRegistry meterRegistry) {
         this.chattingAssistant = chattingAssistant;
         this.workingAssistant = workingAssistant;
+        this.conversationLock = conversationLock;
+        this.discordExecutor = discordExecutor;
+        this.discordCommands = discordCommands;
+        this.telemetry = telemetry;
+        this.coordinator = coordinator;
+        this.meterRegistry = meterRegistry;
+        this.queueWait = Timer.builder("thufir.discord.queue.wait")
+                .description("Time a Discord message waited behind earlier ones in its channel")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queuedHandling = handleTimer("queued");
+        this.fastHandling = handleTimer("fast");
+    }
+
+    private Timer handleTimer(String path) {
+        return Timer.builder("thufir.discord.handle")
+                .description("Time spent answering a Discord message")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
     public void onMessageReceived(MessageReceivedEvent event) {
         if (event.getAuthor().isBot()) return;
+        // Every instance receives the message; only the leader answers.
+        if (!coordinator.isLeader()) return;
 
         TextChannel channel = event.getChannel().asTextChannel();
         if (!channel.getId().equals(monitoredChannelId)) return;
@@ -42,22 +112,103 @@ public class DiscordMessageListener extends ListenerAdapter {
 
         if (content.startsWith(commandPrefix)) {
             String command = content.substring(commandPrefix.length()).trim();
-            processTradingReply(command, event);
+            Optional<DiscordCommands.Command> fastCommand = DiscordCommands.parse(command);
+            if (fastCommand.isPresent()) {
+                discordExecutor.execute(() -> runFastCommand(fastCommand.get(), channel));
+                return;
+            }
+            dispatch(channel, () -> processTradingReply(command, event));
             return;
         }
 
         if (content.toLowerCase().startsWith(chatPrefix)) {
             String message = content.substring(chatPrefix.length()).trim();
-            processChatReply(message, event);
+            dispatch(channel, () -> processChatReply(message, event));
             return;
         }
 
         if (event.getMessage().getMentions().getMembers().stream()
                 .anyMatch(m -> m.getId().equals(event.getJDA().getSelfUser().getId()))) {
-            processTradingReply(content, event);
+            dispatch(channel, () -> processTradingReply(content, event));
+        }
+    }
+
+    /**
+     * Hands work to the Discord executor so JDA's event thread is never blocked. Messages from the same
+     * channel run strictly in arrival order; each one holds the conversation lock, so it never overlaps a wheel cycle.
+     */
+    private void dispatch(TextChannel channel, Runnable work) {
+        long enqueuedAt = System.nanoTime();
+        pending.incrementAndGet();
+        int depth = channelDepth(channel.getId()).incrementAndGet();
+        log.debug("Discord work queued for channel {} (depth {})", channel.getId(), depth);
+
+        channelTails.compute(channel.getId(), (id, tail) ->
+                (tail == null ? CompletableFuture.<Void>completedFuture(null) : tail)
+                        .thenRunAsync(() -> handle(channel, work, enqueuedAt), discordExecutor)
+                        .exceptionally(e -> {
+                            log.error("Discord handling failed: {}", e.getMessage(), e);
+                            return null;
+                        }));
+    }
+
+    private AtomicInteger channelDepth(String channelId) {
+        return channelDepths.computeIfAbsent(channelId, id -> {
+            AtomicInteger depth = new AtomicInteger();
+            Gauge.builder("thufir.discord.queue.depth", depth, AtomicInteger::get)
+                    .description("Discord messages queued or being handled in a channel")
+                    .tag("channel", id)
+                    .register(meterRegistry);
+            return depth;
+        });
+    }
+
+    private void handle(TextChannel channel, Runnable work, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        ScheduledFuture<?> typing = typingScheduler.scheduleAtFixedRate(
+                () -> channel.sendTyping().queue(null, e -> {}), 0, 8, TimeUnit.SECONDS);
+        try {
+            conversationLock.withLock("Discord", work);
+        } finally {
+            typing.cancel(false);
+            pending.decrementAndGet();
+            int depth = channelDepth(channel.getId()).decrementAndGet();
+            long finishedAt = System.nanoTime();
+            queuedHandling.record(finishedAt - startedAt, TimeUnit.NANOSECONDS);
+            log.debug("Discord message handled in {} ms (queued {} ms, depth now {})",
+                    (finishedAt - startedAt) / 1_000_000, (startedAt - enqueuedAt) / 1_000_000, depth);
         }
     }
 
+    private void runFastCommand(DiscordCommands.Command command, TextChannel channel) {
+        long start = System.nanoTime();
+        try {
+            discordCommands.execute(command, text -> reply(channel, text));
+        } catch (Exception e) {
+            log.error("Fast-path command {} failed", command, e);
+            reply(channel, "Command failed: " + e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        fastHandling.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Fast-path command {} answered in {} ms", command.type(), elapsed / 1_000_000);
+    }
+
+    private void reply(TextChannel channel, String text) {
+        for (String chunk : DiscordMessages.split(text)) {
+            channel.sendMessage(chunk).queue();
+        }
+    }
+
+    public int queueDepth() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        typingScheduler.shutdownNow();
+    }
+
     private void processTradingReply(String content, MessageReceivedEvent event) {
         String messageBlock = String.format(
                 "Time: %s CST\nContent: %s\nContext: DISCORD_REPLY\nUrgent: false\n\n",
@@ -77,7 +228,10 @@ public class DiscordMessageListener extends ListenerAdapter {
             - Send confirmation back to Discord if useful
         """.formatted(messageBlock, LocalDateTime.now(ZoneId.of("America/Chicago")));
 
-        String assistantResponse = workingAssistant.chat(prompt);
+        String assistantResponse;
+        try (CycleContext cycle = CycleContext.open("discord", Duration.ofMillis(replyBudgetMs))) {
+            assistantResponse = telemetry.observe(cycle, "discord", () -> CycleContext.bounded("discord reply", () -> workingAssistant.chat(prompt)));
+        }
 
         log.info("Immediate Discord reply processed. Assistant response: {}", assistantResponse);
     }
@@ -101,7 +255,10 @@ public class DiscordMessageListener extends ListenerAdapter {
             - Send confirmation back to Discord if useful
         """.formatted(messageBlock, LocalDateTime.now(ZoneId.of("America/Chicago")));
 
-        String assistantResponse = chattingAssistant.chat(prompt);
+        String assistantResponse;
+        try (CycleContext cycle = CycleContext.open("discord-chat", Duration.ofMillis(replyBudgetMs))) {
+            assistantResponse = telemetry.observe(cycle, "discord-chat", () -> CycleContext.bounded("discord reply", () -> chattingAssistant.chat(prompt)));
+        }
 
         log.info("Immediate Discord reply processed. Assistant response: {}", assistantResponse);
     }
@@ -0,0 +1,233 @@
+package com.larrydevincarter.thufir.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.utils.DiscordMessages;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound queue for webhook notifications. Callers only enqueue; a single background thread posts to
+ * Discord under the webhook's rate limit, honours 429 retry_after, splits messages over 2000 characters,
+ * and coalesces bursts of non-urgent messages into one post. Urgent messages always go first.
+ */
+@Component
+@Slf4j
+public class DiscordNotificationDispatcher {
+
+    private static final String AVATAR_URL = "https://imgur.com/hOCbbwF.jpeg";
+    private static final int MAX_SEND_ATTEMPTS = 5;
+
+    record Notification(String content, boolean urgent, String context, long sequence) {}
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final PriorityBlockingQueue<Notification> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparing((Notification n) -> !n.urgent()).thenComparingLong(Notification::sequence));
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${discord.webhook.url:}")
+    private String discordWebhookUrl;
+
+    @Value("${discord.webhook.coalesce-window-ms:3000}")
+    private long coalesceWindowMs;
+
+    @Value("${discord.webhook.rate-limit.capacity:5}")
+    private int bucketCapacity;
+
+    @Value("${discord.webhook.rate-limit.refill-period-ms:2000}")
+    private long bucketRefillPeriodMs;
+
+    @Value("${discord.webhook.max-queued:500}")
+    private int maxQueued;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Token bucket state; only touched by the worker thread.
+    private double tokens;
+    private long lastRefillNanos;
+
+    public DiscordNotificationDispatcher(RestTemplate restTemplate, ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (discordWebhookUrl.isBlank()) {
+            log.info("No Discord webhook configured — notifications will only be logged");
+            return;
+        }
+        tokens = bucketCapacity;
+        lastRefillNanos = System.nanoTime();
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("thufir-discord-dispatch").start(this::runLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(5_000);
+            if (!queue.isEmpty()) {
+                log.warn("Discord dispatcher stopped with {} undelivered notifications", queue.size());
+            }
+        }
+    }
+
+    /**
+     * Queues a notification and returns immediately.
+     */
+    public void enqueue(String content, boolean urgent, String context) {
+        if (!running) {
+            return;
+        }
+        if (!urgent && queue.size() >= maxQueued) {
+            log.warn("Discord queue full ({}), dropping non-urgent notification [{}]", maxQueued, context);
+            return;
+        }
+        queue.offer(new Notification(content, urgent, context, sequence.incrementAndGet()));
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void runLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                if (first.urgent()) {
+                    deliverUrgent(first);
+                    continue;
+                }
+
+                List<Notification> batch = new ArrayList<>();
+                batch.add(first);
+                long windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs);
+                while (running) {
+                    long remaining = windowEnd - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Notification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.urgent()) {
+                        deliverUrgent(next);
+                    } else {
+                        batch.add(next);
+                    }
+                }
+                deliverBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Discord dispatcher loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void deliverUrgent(Notification notification) throws InterruptedException {
+        String content = "🚨 URGENT [" + notification.context() + "]: @everyone " + notification.content();
+        for (String chunk : DiscordMessages.split(content)) {
+            post(chunk, "Thufir Alert");
+        }
+    }
+
+    private void deliverBatch(List<Notification> batch) throws InterruptedException {
+        StringBuilder combined = new StringBuilder();
+        for (Notification notification : batch) {
+            if (!combined.isEmpty()) {
+                combined.append("\n\n");
+            }
+            combined.append("ℹ️ [").append(notification.context()).append("]: ").append(notification.content());
+        }
+        if (batch.size() > 1) {
+            log.debug("Coalesced {} notifications into one Discord post", batch.size());
+        }
+        for (String chunk : DiscordMessages.split(combined.toString())) {
+            post(chunk, "Thufir Log");
+        }
+    }
+
+    private void post(String content, String username) throws InterruptedException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("content", content);
+        body.put("username", username);
+        body.put("avatar_url", AVATAR_URL);
+
+        for (int attempt = 1; attempt <= MAX_SEND_ATTEMPTS; attempt++) {
+            acquireToken();
+            try {
+                restTemplate.postForObject(discordWebhookUrl, body, String.class);
+                log.debug("Discord webhook sent: {}", content);
+                return;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                long retryAfterMs = retryAfterMs(e);
+                log.warn("Discord webhook rate limited (attempt {}), retrying in {} ms", attempt, retryAfterMs);
+                Thread.sleep(retryAfterMs);
+            } catch (Exception e) {
+                log.error("Discord webhook delivery failed: {}", e.getMessage());
+                return;
+            }
+        }
+        log.error("Discord webhook delivery abandoned after {} rate-limited attempts", MAX_SEND_ATTEMPTS);
+    }
+
+    private void acquireToken() throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            double refill = (double) (now - lastRefillNanos) / TimeUnit.MILLISECONDS.toNanos(bucketRefillPeriodMs) * bucketCapacity;
+            tokens = Math.min(bucketCapacity, tokens + refill);
+            lastRefillNanos = now;
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return;
+            }
+            long waitMs = (long) Math.ceil((1.0 - tokens) * bucketRefillPeriodMs / bucketCapacity);
+            Thread.sleep(Math.max(1, waitMs));
+        }
+    }
+
+    private long retryAfterMs(HttpClientErrorException e) {
+        try {
+            JsonNode body = objectMapper.readTree(e.getResponseBodyAsString());
+            if (body.hasNonNull("retry_after")) {
+                return (long) Math.ceil(body.get("retry_after").asDouble() * 1000);
+            }
+        } catch (Exception ignored) {
+        }
+        if (e.getResponseHeaders() != null) {
+            String header = e.getResponseHeaders().getFirst("Retry-After");
+            if (header != null) {
+                try {
+                    return (long) Math.ceil(Double.parseDouble(header) * 1000);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return bucketRefillPeriodMs;
+    }
+}
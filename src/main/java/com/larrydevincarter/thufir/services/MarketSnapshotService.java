@@ -0,0 +1,278 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.clients.MarketStatusClient;
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.MarketSnapshot;
+import com.larrydevincarter.thufir.models.MarketSnapshot.Reading;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
+import com.larrydevincarter.thufir.tools.MarketDataTools;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The latest {@link MarketSnapshot}, swapped atomically so readers never take a lock or wait on I/O. Background
+ * refreshers keep each part current on their own cadence during the trading session (VIX and balances every
+ * minute, the session itself every 15 minutes by default); the ledger publishes the portfolio whenever it changes.
+ * <p>
+ * {@link #view} pins the snapshot for the current cycle, so the cycle, its tools and its triage all see the same
+ * version. Readers that need a part call {@link #vix}, {@link #marketStatus} or {@link #balances}: a part older
+ * than its {@code thufir.snapshot.*-max-age-ms} (outside the session, or after a failed refresh) is read
+ * from the source on the spot and published, so a stale value is never served as current.
+ */
+@Service
+@Slf4j
+public class MarketSnapshotService {
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    // Looked up on use: the VIX tool reads its value from this service.
+    private final ObjectProvider<MarketDataTools> marketDataTools;
+    private final MarketStatusClient marketStatusClient;
+    private final TastytradeClient tastytradeClient;
+    private final AccountRegistry accounts;
+
+    private final AtomicReference<MarketSnapshot> current = new AtomicReference<>(MarketSnapshot.EMPTY);
+
+    @Value("${thufir.snapshot.vix-max-age-ms:180000}")
+    private long vixMaxAgeMs;
+
+    @Value("${thufir.snapshot.balances-max-age-ms:180000}")
+    private long balancesMaxAgeMs;
+
+    @Value("${thufir.snapshot.market-status-max-age-ms:3600000}")
+    private long marketStatusMaxAgeMs;
+
+    @Value("${thufir.snapshot.session-start:08:00}")
+    private String sessionStart;
+
+    public MarketSnapshotService(ObjectProvider<MarketDataTools> marketDataTools, MarketStatusClient marketStatusClient,
+                                 TastytradeClient tastytradeClient, AccountRegistry accounts) {
+        this.marketDataTools = marketDataTools;
+        this.marketStatusClient = marketStatusClient;
+        this.tastytradeClient = tastytradeClient;
+        this.accounts = accounts;
+    }
+
+    /**
+     * The latest snapshot.
+     */
+    public MarketSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * The snapshot as of the first read in the current cycle; outside a cycle, the latest.
+     */
+    public MarketSnapshot view() {
+        return CycleContext.memoizeShared("market:snapshot", current::get);
+    }
+
+    private MarketSnapshot publish(UnaryOperator<MarketSnapshot> change) {
+        return current.updateAndGet(change);
+    }
+
+    // --- Readers ---
+
+    /**
+     * The VIX, or {@link MarketDataTools#VIX_CRITICAL_FAILURE} if it is stale and both sources are down. A
+     * failure is not remembered for the cycle, so the next reader tries the sources again.
+     */
+    public String vix() {
+        try {
+            return CycleContext.memoizeShared("marketdata:vix", () -> {
+                Reading<String> reading = view().vix();
+                return reading != null && reading.isFresh(Duration.ofMillis(vixMaxAgeMs), Instant.now())
+                        ? reading.value()
+                        : fetchVix();
+            });
+        } catch (RuntimeException e) {
+            return MarketDataTools.VIX_CRITICAL_FAILURE;
+        }
+    }
+
+    public MarketStatusDto marketStatus() {
+        Reading<MarketStatusDto> reading = view().marketStatus();
+        if (reading != null && reading.isFresh(Duration.ofMillis(marketStatusMaxAgeMs), Instant.now())
+                && LocalDateTime.ofInstant(reading.at(), CST).toLocalDate().equals(LocalDateTime.now(CST).toLocalDate())) {
+            return reading.value();
+        }
+        return refreshMarketStatus();
+    }
+
+    /**
+     * Balances of {@link AccountRegistry#current}. Throws if they are stale and the broker cannot be reached.
+     */
+    public Reading<Map<String, Object>> balances() {
+        String accountId = accounts.current().id();
+        return CycleContext.memoize("market:balances:" + accountId, () -> {
+            Reading<Map<String, Object>> reading = view().balances(accountId);
+            return reading != null && reading.isFresh(Duration.ofMillis(balancesMaxAgeMs), Instant.now())
+                    ? reading
+                    : refreshBalances(accounts.current());
+        });
+    }
+
+    // --- Refreshers ---
+
+    /**
+     * Reads the VIX from its sources now and publishes it. The health checks call this directly.
+     *
+     * @return the reading, or {@link MarketDataTools#VIX_CRITICAL_FAILURE} if both sources are down
+     */
+    public String refreshVix() {
+        try {
+            return fetchVix();
+        } catch (RuntimeException e) {
+            return MarketDataTools.VIX_CRITICAL_FAILURE;
+        }
+    }
+
+    /**
+     * On failure the last good reading stays in, marked failed, so it is never served as a fresh one.
+     */
+    private String fetchVix() {
+        Instant now = Instant.now();
+        try {
+            String vix = marketDataTools.getObject().fetchCurrentVix();
+            publish(s -> s.withVix(Reading.of(vix, now), now));
+            return vix;
+        } catch (RuntimeException e) {
+            publish(s -> {
+                Reading<String> previous = s.vix();
+                Reading<String> failed = previous == null
+                        ? new Reading<>(null, null, e.getMessage())
+                        : previous.failed(e.getMessage());
+                return s.withVix(failed, now);
+            });
+            throw e;
+        }
+    }
+
+    public MarketStatusDto refreshMarketStatus() {
+        MarketStatusDto status = marketStatusClient.getStatus();
+        MarketStatusDto copy = new MarketStatusDto(status.isTradingDay(), status.getTodayCloseTime());
+        Instant now = Instant.now();
+        publish(s -> s.withMarketStatus(Reading.of(copy, now), now));
+        return copy;
+    }
+
+    private Reading<Map<String, Object>> refreshBalances(TradingAccount account) {
+        Instant now = Instant.now();
+        try {
+            Map<String, Object> raw = tastytradeClient.getAccountBalances();
+            Reading<Map<String, Object>> reading = Reading.of(Collections.unmodifiableMap(new LinkedHashMap<>(raw)), now);
+            publish(s -> s.withBalances(account.id(), reading, now));
+            return reading;
+        } catch (RuntimeException e) {
+            publish(s -> {
+                Reading<Map<String, Object>> previous = s.balances(account.id());
+                Reading<Map<String, Object>> failed = previous == null
+                        ? new Reading<>(null, null, e.getMessage())
+                        : previous.failed(e.getMessage());
+                return s.withBalances(account.id(), failed, now);
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * Publishes the ledger's snapshot of an account, unless a newer version is already in.
+     */
+    public void publishPortfolio(String accountId, PortfolioSnapshot portfolio) {
+        if (portfolio == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        publish(s -> {
+            PortfolioSnapshot existing = s.portfolio(accountId);
+            return existing != null && existing.version() > portfolio.version() ? s : s.withPortfolio(accountId, portfolio, now);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${thufir.snapshot.vix-refresh-ms:60000}")
+    public void refreshVixOnSchedule() {
+        if (inSession()) {
+            refreshVix();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${thufir.snapshot.market-status-refresh-ms:900000}")
+    public void refreshMarketStatusOnSchedule() {
+        try {
+            refreshMarketStatus();
+        } catch (Exception e) {
+            log.warn("Market status refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${thufir.snapshot.balances-refresh-ms:60000}")
+    public void refreshBalancesOnSchedule() {
+        if (!inSession() || !tastytradeClient.isConnected()) {
+            return;
+        }
+        accounts.forEach("snapshot-balances", this::refreshBalances);
+    }
+
+    /**
+     * From {@code thufir.snapshot.session-start} to the close on a trading day, as far as the snapshot knows.
+     * Outside it nothing is polled and readers fetch on demand.
+     */
+    private boolean inSession() {
+        Reading<MarketStatusDto> status = current.get().marketStatus();
+        if (status == null || status.value() == null || !status.value().isTradingDay()) {
+            return false;
+        }
+        LocalTime now = LocalTime.now(CST);
+        LocalTime close = marketStatusClient.parseCloseTime(status.value().getTodayCloseTime());
+        return !now.isBefore(LocalTime.parse(sessionStart)) && now.isBefore(close);
+    }
+
+    /**
+     * Version and age of every part, for the Discord status.
+     */
+    public String describe() {
+        MarketSnapshot snapshot = current.get();
+        Instant now = Instant.now();
+        StringBuilder sb = new StringBuilder("Market snapshot v").append(snapshot.version()).append('\n');
+        sb.append("  VIX: ").append(describe(snapshot.vix(), vixMaxAgeMs, now)).append('\n');
+        sb.append("  Session: ").append(describe(snapshot.marketStatus(), marketStatusMaxAgeMs, now)).append('\n');
+        for (TradingAccount account : accounts.all()) {
+            sb.append("  Balances ").append(account.id()).append(": ")
+                    .append(describe(snapshot.balances(account.id()), balancesMaxAgeMs, now)).append('\n');
+            PortfolioSnapshot portfolio = snapshot.portfolio(account.id());
+            sb.append("  Positions ").append(account.id()).append(": ")
+                    .append(portfolio == null ? "not loaded" : "ledger v" + portfolio.version() + " as of " + portfolio.asOf())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String describe(Reading<?> reading, long maxAgeMs, Instant now) {
+        if (reading == null || reading.value() == null) {
+            return reading != null && reading.error() != null ? "never read (" + reading.error() + ")" : "not read yet";
+        }
+        String text = age(reading.age(now)) + " old" + (reading.isFresh(Duration.ofMillis(maxAgeMs), now) ? "" : ", stale");
+        return reading.error() == null ? text : text + ", last refresh failed: " + reading.error();
+    }
+
+    private static String age(Duration age) {
+        long seconds = age.toSeconds();
+        return seconds < 120 ? seconds + " s" : seconds < 7200 ? seconds / 60 + " min" : seconds / 3600 + " h";
+    }
+}
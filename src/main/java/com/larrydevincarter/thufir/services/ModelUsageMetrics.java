@@ -0,0 +1,148 @@
+package com.larrydevincarter.thufir.services;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Per-model latency, token and cost accounting, plus per-route counters for the cycle router.
+ * Prices are read from {@code thufir.models.pricing.<modelName>.input-usd-per-mtok} and
+ * {@code ...output-usd-per-mtok}; unpriced models report zero cost.
+ * <p>
+ * The same numbers go to Micrometer: each model turn is a {@code thufir.llm} observation under the current cycle,
+ * tokens and cost accumulate in {@code thufir.llm.tokens} and {@code thufir.llm.cost}, and routing latency in
+ * {@code thufir.cycle.route}.
+ */
+@Component
+@Slf4j
+public class ModelUsageMetrics implements ChatModelListener {
+
+    private static final String START_NANOS = "thufir.startNanos";
+    private static final String OBSERVATION = "thufir.observation";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final CycleTelemetry telemetry;
+    private final Map<String, Stats> byModel = new ConcurrentHashMap<>();
+    private final Map<String, Stats> byRoute = new ConcurrentHashMap<>();
+
+    public ModelUsageMetrics(Environment environment, MeterRegistry meterRegistry, CycleTelemetry telemetry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.telemetry = telemetry;
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext context) {
+        context.attributes().put(START_NANOS, System.nanoTime());
+        String model = String.valueOf(context.chatRequest().modelName());
+        context.attributes().put(OBSERVATION, telemetry.child(CycleTelemetry.LLM)
+                .contextualName("chat " + model)
+                .lowCardinalityKeyValue("model", model)
+                .start());
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        String model = context.chatResponse().modelName() != null
+                ? context.chatResponse().modelName()
+                : context.chatRequest().modelName();
+        Stats stats = byModel.computeIfAbsent(String.valueOf(model), k -> new Stats());
+        stats.record(elapsedMs(context.attributes()));
+
+        TokenUsage usage = context.chatResponse().tokenUsage();
+        if (usage != null) {
+            long input = usage.inputTokenCount() != null ? usage.inputTokenCount() : 0;
+            long output = usage.outputTokenCount() != null ? usage.outputTokenCount() : 0;
+            stats.inputTokens.addAndGet(input);
+            stats.outputTokens.addAndGet(output);
+            double cost = price(model, "input") * input / 1_000_000.0 + price(model, "output") * output / 1_000_000.0;
+            stats.costUsd.add(cost);
+            tokens(model, "input").increment(input);
+            tokens(model, "output").increment(output);
+            Counter.builder("thufir.llm.cost").baseUnit("usd").tag("model", String.valueOf(model))
+                    .register(meterRegistry).increment(cost);
+        }
+        stop(context.attributes(), null);
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        byModel.computeIfAbsent(String.valueOf(context.chatRequest().modelName()), k -> new Stats()).errors.incrementAndGet();
+        stop(context.attributes(), context.error());
+    }
+
+    public void recordRoute(String route, long latencyMs) {
+        byRoute.computeIfAbsent(route, k -> new Stats()).record(latencyMs);
+        Timer.builder("thufir.cycle.route").tag("route", route).publishPercentileHistogram()
+                .register(meterRegistry).record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Counter tokens(String model, String direction) {
+        return Counter.builder("thufir.llm.tokens").tag("model", String.valueOf(model)).tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static void stop(Map<Object, Object> attributes, Throwable error) {
+        if (attributes.remove(OBSERVATION) instanceof Observation observation) {
+            if (error != null) {
+                observation.error(error);
+            }
+            observation.stop();
+        }
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Model usage:\n");
+        byModel.forEach((model, s) -> sb.append(String.format(
+                "  %s: calls=%d errors=%d avg=%.0f ms in=%d out=%d cost=$%.4f\n",
+                model, s.count.get(), s.errors.get(), s.averageMs(), s.inputTokens.get(), s.outputTokens.get(), s.costUsd.sum())));
+        sb.append("Cycle routes:\n");
+        byRoute.forEach((route, s) -> sb.append(String.format(
+                "  %s: cycles=%d avg=%.0f ms\n", route, s.count.get(), s.averageMs())));
+        return sb.toString();
+    }
+
+    private double price(String model, String direction) {
+        return environment.getProperty("thufir.models.pricing." + model + "." + direction + "-usd-per-mtok", Double.class, 0.0);
+    }
+
+    private long elapsedMs(Map<Object, Object> attributes) {
+        Object start = attributes.get(START_NANOS);
+        return start instanceof Long nanos ? (System.nanoTime() - nanos) / 1_000_000 : 0;
+    }
+
+    private static final class Stats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong inputTokens = new AtomicLong();
+        private final AtomicLong outputTokens = new AtomicLong();
+        private final DoubleAdder costUsd = new DoubleAdder();
+
+        private void record(long latencyMs) {
+            count.incrementAndGet();
+            totalMs.addAndGet(latencyMs);
+        }
+
+        private double averageMs() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) totalMs.get() / n;
+        }
+    }
+}
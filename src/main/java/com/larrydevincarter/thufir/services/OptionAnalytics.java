@@ -0,0 +1,126 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.Asset;
+import com.larrydevincarter.thufir.models.Option;
+import com.larrydevincarter.thufir.models.dtos.OptionBatchResponseDto;
+import com.larrydevincarter.thufir.utils.OptionChainBuffers;
+import com.larrydevincarter.thufir.utils.OptionPricing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Adds locally computed Greeks and probability of profit to OptionScanner chains and ranks each chain by
+ * POP-weighted yield per day, so the model works from hard numbers instead of estimating them.
+ */
+@Component
+@Slf4j
+public class OptionAnalytics {
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    @Value("${thufir.pricing.risk-free-rate:0.045}")
+    private double riskFreeRate;
+
+    @Value("${thufir.pricing.dividend-yield:0.0}")
+    private double dividendYield;
+
+    public void enrich(OptionBatchResponseDto response) {
+        if (response == null || response.getOptionChains() == null) {
+            return;
+        }
+
+        Map<String, Double> spots = new HashMap<>();
+        if (response.getAssets() != null) {
+            for (Asset asset : response.getAssets()) {
+                if (asset.getSymbol() != null && asset.getCurrentPrice() != null) {
+                    spots.put(asset.getSymbol(), asset.getCurrentPrice());
+                }
+            }
+        }
+
+        List<Option> priced = new ArrayList<>();
+        int total = response.getOptionChains().values().stream().filter(Objects::nonNull).mapToInt(List::size).sum();
+        OptionChainBuffers buffers = new OptionChainBuffers(Math.max(total, 1));
+        buffers.riskFreeRate = riskFreeRate;
+        buffers.dividendYield = dividendYield;
+
+        LocalDate today = LocalDate.now(CST);
+        response.getOptionChains().forEach((ticker, chain) -> {
+            Double spot = spots.get(ticker);
+            if (spot == null || chain == null) {
+                return;
+            }
+            for (Option option : chain) {
+                if (option.getStrike() == null || option.getPreviousClose() == null || option.getExpirationDate() == null) {
+                    continue;
+                }
+                long days = Math.max(1, ChronoUnit.DAYS.between(today, option.getExpirationDate()));
+                buffers.add(isCall(option), spot, option.getStrike(), days / 365.0, option.getPreviousClose());
+                priced.add(option);
+            }
+        });
+
+        long start = System.nanoTime();
+        OptionPricing.evaluate(buffers);
+        log.debug("Priced {} contracts in {} µs", buffers.size, (System.nanoTime() - start) / 1_000);
+
+        for (int i = 0; i < buffers.size; i++) {
+            Option option = priced.get(i);
+            option.setImpliedVolatility(round(buffers.impliedVol[i], 4));
+            option.setModelDelta(round(buffers.delta[i], 4));
+            option.setThetaPerDay(round(buffers.thetaPerDay[i], 4));
+            option.setProbabilityOfProfit(round(buffers.probabilityOfProfit[i], 4));
+            option.setAmericanValue(round(buffers.americanValue[i], 4));
+            if (option.getDelta() == null) {
+                option.setDelta(option.getModelDelta());
+            }
+        }
+
+        response.getOptionChains().replaceAll((ticker, chain) -> rank(chain, today));
+    }
+
+    /**
+     * Best first by yield per day times probability of profit; contracts that could not be priced go last.
+     */
+    private static List<Option> rank(List<Option> chain, LocalDate today) {
+        if (chain == null) {
+            return null;
+        }
+        List<Option> ranked = new ArrayList<>(chain);
+        ranked.sort(Comparator.comparingDouble((Option o) -> -score(o, today)));
+        return ranked;
+    }
+
+    private static double score(Option option, LocalDate today) {
+        if (option.getProbabilityOfProfit() == null || option.getStrike() == null || option.getStrike() <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        long days = Math.max(1, ChronoUnit.DAYS.between(today, option.getExpirationDate()));
+        double yieldPerDay = option.getPreviousClose() / option.getStrike() / days;
+        return yieldPerDay * option.getProbabilityOfProfit();
+    }
+
+    private static boolean isCall(Option option) {
+        return option.getOptionType() != null && option.getOptionType().toLowerCase(Locale.ROOT).startsWith("c");
+    }
+
+    private static Double round(double value, int places) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        double scale = Math.pow(10, places);
+        return Math.round(value * scale) / scale;
+    }
+}
@@ -0,0 +1,366 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.AccountOwnershipChanged;
+import com.larrydevincarter.thufir.models.OrderFill;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WorkingOrder;
+import com.larrydevincarter.thufir.tools.CommunicationTools;
+import com.larrydevincarter.thufir.utils.OccSymbols;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Follows orders after {@link TastytradeClient#placeOrder} returns. Working orders are held in memory and
+ * polled while any exist; fills are published as {@link OrderFill} events, and credit orders that sit
+ * unfilled are walked toward the mid with cancel/replace, never conceding more than a configured share
+ * of the original limit. Without cluster coordination, orders placed before a restart are not re-adopted and
+ * simply expire as Day orders.
+ * <p>
+ * Each order remembers the account it was placed in and is polled in that account's scope. Inside an account
+ * scope, {@link #workingOrders} and {@link #workingCommitment} only see that account's orders.
+ * <p>
+ * Only the instance that owns an account follows its orders. When the account moves
+ * ({@link AccountOwnershipChanged}) the old owner drops them and the new one adopts the broker's live orders,
+ * so their cash counts against the new owner's risk checks. Adopted orders are followed for fills but not
+ * repriced, since their original limit is unknown.
+ */
+@Service
+@Slf4j
+public class OrderManager {
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+    private static final Set<String> TERMINAL = Set.of("Filled", "Cancelled", "Expired", "Rejected", "Removed", "Partially Removed");
+    private static final Set<String> REPRICEABLE = Set.of("Received", "Routed", "Live");
+
+    private final TastytradeClient tastytradeClient;
+    private final CommunicationTools communicationTools;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountRegistry accounts;
+    private final ClusterCoordinator coordinator;
+
+    private final Map<Long, WorkingOrder> working = new ConcurrentHashMap<>();
+
+    @Value("${thufir.orders.reprice-interval-ms:120000}")
+    private long repriceIntervalMs;
+
+    @Value("${thufir.orders.reprice-step:0.34}")
+    private double repriceStep;
+
+    @Value("${thufir.orders.max-reprices:4}")
+    private int maxReprices;
+
+    @Value("${thufir.orders.max-concession-pct:0.15}")
+    private double maxConcessionPct;
+
+    @Value("${thufir.orders.tick:0.05}")
+    private double tick;
+
+    public OrderManager(TastytradeClient tastytradeClient, CommunicationTools communicationTools,
+                        ApplicationEventPublisher eventPublisher, AccountRegistry accounts,
+                        ClusterCoordinator coordinator) {
+        this.tastytradeClient = tastytradeClient;
+        this.communicationTools = communicationTools;
+        this.eventPublisher = eventPublisher;
+        this.accounts = accounts;
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Starts tracking an order that was just accepted by the broker.
+     */
+    public WorkingOrder track(Map<String, Object> placeResult, Map<String, Object> order, WheelDecision decision) {
+        Long orderId = orderId(placeResult);
+        if (orderId == null) {
+            log.warn("Placed order has no id in response, cannot track it: {}", placeResult);
+            return null;
+        }
+
+        List<Map<String, Object>> legs = (List<Map<String, Object>>) order.get("legs");
+        WorkingOrder tracked = new WorkingOrder();
+        tracked.setOrderId(orderId);
+        tracked.setAccount(accounts.current().id());
+        tracked.setSymbol(String.valueOf(legs.get(0).get("symbol")));
+        tracked.setTicker(decision.ticker());
+        tracked.setAction(decision.action());
+        tracked.setStrike(decision.strike());
+        tracked.setQuantity(decision.quantity());
+        tracked.setInitialPrice(decision.limitPrice());
+        tracked.setLimitPrice(decision.limitPrice());
+        tracked.setStatus("Received");
+        tracked.setPlacedAt(LocalDateTime.now(CST));
+        tracked.setLastRepricedAt(tracked.getPlacedAt());
+        tracked.setOrderTemplate(order);
+
+        working.put(orderId, tracked);
+        log.info("Tracking order {} ({} {} @ {})", orderId, tracked.getAction(), tracked.getSymbol(), tracked.getLimitPrice());
+        return tracked;
+    }
+
+    public List<WorkingOrder> workingOrders() {
+        List<WorkingOrder> orders = new ArrayList<>(visible());
+        orders.sort(Comparator.comparing(WorkingOrder::getPlacedAt));
+        return orders;
+    }
+
+    /**
+     * Cash that unfilled short puts will secure once they fill. Not yet visible in broker positions.
+     */
+    public double workingCommitment() {
+        return visible().stream().mapToDouble(WorkingOrder::workingCommitment).sum();
+    }
+
+    /**
+     * The bound account's orders inside an account scope, every order outside one.
+     */
+    private List<WorkingOrder> visible() {
+        return CycleContext.account()
+                .map(account -> working.values().stream().filter(o -> account.equals(o.getAccount())).toList())
+                .orElseGet(() -> List.copyOf(working.values()));
+    }
+
+    @Scheduled(fixedDelayString = "${thufir.orders.poll-interval-ms:20000}")
+    public void poll() {
+        if (working.isEmpty()) {
+            return;
+        }
+        for (WorkingOrder order : List.copyOf(working.values())) {
+            TradingAccount account = accounts.find(order.getAccount()).orElse(accounts.primary());
+            if (!coordinator.owns(account)) {
+                continue;
+            }
+            try {
+                accounts.runAs(account, "orders", scope -> refresh(order));
+            } catch (Exception e) {
+                log.warn("Order {} refresh failed: {}", order.getOrderId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops a lost account's orders, which stay live at the broker for the new owner, and adopts the live orders
+     * of a newly owned one.
+     */
+    @EventListener
+    public void onOwnershipChanged(AccountOwnershipChanged change) {
+        if (!change.owned()) {
+            int before = working.size();
+            working.values().removeIf(order -> change.accountId().equals(order.getAccount()));
+            if (working.size() < before) {
+                log.info("Stopped following {} orders of account {}, now owned elsewhere", before - working.size(), change.accountId());
+            }
+            return;
+        }
+        accounts.find(change.accountId()).ifPresent(account -> {
+            try {
+                accounts.runAs(account, "orders", scope -> adoptLiveOrders(account));
+            } catch (Exception e) {
+                log.warn("Could not adopt live orders of account {}: {}", account.id(), e.getMessage());
+            }
+        });
+    }
+
+    private void adoptLiveOrders(TradingAccount account) {
+        for (Map<String, Object> remote : tastytradeClient.getLiveOrders()) {
+            Long orderId = orderId(remote);
+            if (orderId == null || working.containsKey(orderId)
+                    || !(remote.get("legs") instanceof List<?> legs) || legs.isEmpty()
+                    || !(legs.get(0) instanceof Map<?, ?> leg) || !"Sell to Open".equals(leg.get("action"))) {
+                continue;
+            }
+            String symbol = String.valueOf(leg.get("symbol"));
+            OccSymbols.Parsed option = OccSymbols.parse(symbol).orElse(null);
+            Double quantity = getDouble((Map<String, Object>) leg, "quantity");
+            Double price = getDouble(remote, "price");
+            if (option == null || quantity == null || price == null) {
+                continue;
+            }
+
+            WorkingOrder adopted = new WorkingOrder();
+            adopted.setOrderId(orderId);
+            adopted.setAccount(account.id());
+            adopted.setSymbol(symbol);
+            adopted.setTicker(option.ticker());
+            adopted.setAction(option.optionType() == 'P' ? "sell_put" : "sell_call");
+            adopted.setStrike(option.strike());
+            adopted.setQuantity(quantity.intValue());
+            adopted.setFilledQuantity(filledQuantity(remote, quantity.intValue()));
+            adopted.setInitialPrice(Math.abs(price));
+            adopted.setLimitPrice(Math.abs(price));
+            adopted.setRepriceCount(maxReprices);
+            adopted.setStatus(String.valueOf(remote.get("status")));
+            adopted.setPlacedAt(LocalDateTime.now(CST));
+            adopted.setLastRepricedAt(adopted.getPlacedAt());
+            working.put(orderId, adopted);
+            log.info("Adopted order {} ({} {} @ {}) of account {}", orderId, adopted.getAction(), symbol,
+                    adopted.getLimitPrice(), account.id());
+        }
+    }
+
+    private void refresh(WorkingOrder order) {
+        Map<String, Object> remote = tastytradeClient.getOrder(order.getOrderId());
+        String status = String.valueOf(remote.get("status"));
+        order.setStatus(status);
+
+        int filled = filledQuantity(remote, order.getQuantity());
+        if (filled > order.getFilledQuantity()) {
+            int newlyFilled = filled - order.getFilledQuantity();
+            order.setFilledQuantity(filled);
+            onFill(order, newlyFilled, "Filled".equals(status));
+        }
+
+        if (TERMINAL.contains(status)) {
+            working.remove(order.getOrderId());
+            if (!"Filled".equals(status)) {
+                log.info("Order {} ended as {} with {}/{} filled", order.getOrderId(), status,
+                        order.getFilledQuantity(), order.getQuantity());
+                communicationTools.sendMessageToLarry(
+                        String.format("Order %s %s: %s %s, %d/%d filled", order.getOrderId(), status.toUpperCase(),
+                                order.getAction(), order.getSymbol(), order.getFilledQuantity(), order.getQuantity()),
+                        "Rejected".equals(status),
+                        "ORDER_" + status.toUpperCase().replace(' ', '_')
+                );
+            }
+            return;
+        }
+
+        if (REPRICEABLE.contains(status) && repriceDue(order)) {
+            reprice(order);
+        }
+    }
+
+    private void onFill(WorkingOrder order, int newlyFilled, boolean complete) {
+        OrderFill fill = new OrderFill(order.getAccount(), order.getOrderId(), order.getSymbol(), order.getTicker(), order.getAction(),
+                order.getStrike(), newlyFilled, order.getLimitPrice(), complete, LocalDateTime.now(CST));
+        log.info("Order {} filled {} ({}/{}) @ {}", order.getOrderId(), newlyFilled,
+                order.getFilledQuantity(), order.getQuantity(), order.getLimitPrice());
+
+        eventPublisher.publishEvent(fill);
+
+        Duration timeToFill = Duration.between(order.getPlacedAt(), fill.filledAt());
+        communicationTools.sendMessageToLarry(
+                String.format("FILL: %s %s x%d @ %.2f (%s, %d reprices, %ds after placement)%s",
+                        order.getAction(), order.getSymbol(), newlyFilled, order.getLimitPrice(),
+                        complete ? "complete" : "partial", order.getRepriceCount(), timeToFill.toSeconds(),
+                        fill.cashCommitted() > 0 ? String.format("\nCash committed: $%.2f", fill.cashCommitted()) : ""),
+                false,
+                "ORDER_FILL"
+        );
+    }
+
+    private boolean repriceDue(WorkingOrder order) {
+        return order.getRepriceCount() < maxReprices
+                && Duration.between(order.getLastRepricedAt(), LocalDateTime.now(CST)).toMillis() >= repriceIntervalMs;
+    }
+
+    /**
+     * Moves the limit a step toward the mid. The floor is the higher of the mid and the maximum concession
+     * below the original limit; once the limit is within a tick of the floor the order is left alone.
+     */
+    private void reprice(WorkingOrder order) {
+        Map<String, Object> quote = tastytradeClient.getOptionQuotes(order.getSymbol()).get(order.getSymbol());
+        Double bid = quote == null ? null : getDouble(quote, "bid");
+        Double ask = quote == null ? null : getDouble(quote, "ask");
+        if (bid == null || ask == null || ask <= 0) {
+            log.debug("No usable quote for {}, skipping reprice", order.getSymbol());
+            return;
+        }
+
+        double mid = (bid + ask) / 2.0;
+        double floor = Math.max(mid, order.getInitialPrice() * (1.0 - maxConcessionPct));
+        double current = order.getLimitPrice();
+        if (current - floor < tick) {
+            order.setRepriceCount(maxReprices);
+            log.info("Order {} already at {} (floor {}), no further repricing", order.getOrderId(), current, floor);
+            return;
+        }
+
+        double next = Math.ceil((current - repriceStep * (current - floor)) / tick) * tick;
+        next = Math.min(next, current - tick);
+        next = Math.round(Math.max(next, floor) * 100.0) / 100.0;
+
+        Map<String, Object> replacement = new HashMap<>(order.getOrderTemplate());
+        replacement.put("price", next);
+        List<Map<String, Object>> legs = new ArrayList<>();
+        for (Map<String, Object> leg : (List<Map<String, Object>>) order.getOrderTemplate().get("legs")) {
+            Map<String, Object> copy = new HashMap<>(leg);
+            copy.put("quantity", order.remainingQuantity());
+            legs.add(copy);
+        }
+        replacement.put("legs", legs);
+
+        Map<String, Object> result = tastytradeClient.replaceOrder(order.getOrderId(), replacement);
+        Long newId = orderId(result);
+
+        log.info("Order {} repriced {} -> {} (bid {} / ask {} / mid {}){}", order.getOrderId(), current, next,
+                bid, ask, mid, newId != null && newId != order.getOrderId() ? ", replaced by " + newId : "");
+
+        working.remove(order.getOrderId());
+        if (newId != null) {
+            order.setOrderId(newId);
+            order.setQuantity(order.remainingQuantity());
+            order.setFilledQuantity(0);
+        }
+        order.setLimitPrice(next);
+        order.setOrderTemplate(replacement);
+        order.setRepriceCount(order.getRepriceCount() + 1);
+        order.setLastRepricedAt(LocalDateTime.now(CST));
+        working.put(order.getOrderId(), order);
+    }
+
+    private static Long orderId(Map<String, Object> result) {
+        if (result == null) {
+            return null;
+        }
+        Object nested = result.get("order");
+        Map<String, Object> order = nested instanceof Map<?, ?> map ? (Map<String, Object>) map : result;
+        Object id = order.get("id");
+        if (id instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return id == null ? null : Long.parseLong(id.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int filledQuantity(Map<String, Object> remote, int quantity) {
+        Object legs = remote.get("legs");
+        if (legs instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Map<?, ?> leg) {
+            Object remaining = leg.get("remaining-quantity");
+            if (remaining != null) {
+                return quantity - (int) Double.parseDouble(remaining.toString());
+            }
+        }
+        return "Filled".equals(remote.get("status")) ? quantity : 0;
+    }
+
+    private static Double getDouble(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return value == null ? null : Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
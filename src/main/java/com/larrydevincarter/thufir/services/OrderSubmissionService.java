@@ -0,0 +1,266 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.entities.OrderSubmission;
+import com.larrydevincarter.thufir.repositories.OrderSubmissionRepository;
+import com.larrydevincarter.thufir.utils.OccSymbols;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotent order submission. Each order gets a deterministic key from account, ticker, strike, expiry, side
+ * and the cycle window; the key is claimed in the database before anything is sent, and the broker's live
+ * orders are checked before every attempt. A repeated decision within the window therefore never opens a second
+ * position.
+ * <p>
+ * An order is only sent again after the broker clearly refused it (a 4xx), and only if the live-order check
+ * before the resend worked. Any other failure (a timeout, an I/O error, a 5xx) may have reached the broker, and
+ * the order may already have filled and left the live list, so the claim is marked UNKNOWN and nothing more is
+ * sent for that key.
+ */
+@Service
+@Slf4j
+public class OrderSubmissionService {
+
+    public record SubmissionResult(String idempotencyKey, Map<String, Object> orderResult, Long orderId, boolean duplicate) {}
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    private final TastytradeClient tastytradeClient;
+    private final OrderSubmissionRepository repository;
+    private final AccountRegistry accounts;
+    private final ClusterCoordinator coordinator;
+    private final ReentrantLock claimLock = new ReentrantLock();
+
+    @Value("${thufir.orders.idempotency-window-minutes:1440}")
+    private long windowMinutes;
+
+    @Value("${thufir.orders.submit-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${thufir.orders.submit-backoff-ms:2000}")
+    private long backoffMs;
+
+    public OrderSubmissionService(TastytradeClient tastytradeClient, OrderSubmissionRepository repository,
+                                  AccountRegistry accounts, ClusterCoordinator coordinator) {
+        this.tastytradeClient = tastytradeClient;
+        this.repository = repository;
+        this.accounts = accounts;
+        this.coordinator = coordinator;
+    }
+
+    public static String idempotencyKey(String account, String ticker, double strike, String expiry, String side, String window) {
+        String material = String.join("|", account, ticker.toUpperCase(), String.format("%.3f", strike), expiry, side, window);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * The window a submission at {@code time} falls into. With the default of one day this is the date,
+     * matching the lifetime of a Day order.
+     */
+    String cycleWindow(LocalDateTime time) {
+        long minuteOfDay = time.getHour() * 60L + time.getMinute();
+        return time.toLocalDate() + "#" + (minuteOfDay / Math.max(1, windowMinutes));
+    }
+
+    @SuppressWarnings("unchecked")
+    public SubmissionResult submit(Map<String, Object> order, String ticker, double strike, String expiry, String side) {
+        List<Map<String, Object>> legs = (List<Map<String, Object>>) order.get("legs");
+        String symbol = String.valueOf(legs.get(0).get("symbol"));
+        String legAction = String.valueOf(legs.get(0).get("action"));
+        String window = cycleWindow(LocalDateTime.now(CST));
+        TradingAccount owner = accounts.current();
+        if (!coordinator.owns(owner)) {
+            throw new IllegalStateException("Account " + owner.id() + " is no longer held by this instance, order not sent");
+        }
+        String account = owner.id();
+        String key = idempotencyKey(account, ticker, strike, expiry, side, window);
+
+        Optional<OrderSubmission> claimed = claim(key, account, symbol, side, window);
+        if (claimed.isEmpty()) {
+            OrderSubmission existing = repository.findByIdempotencyKey(key).orElse(null);
+            log.warn("Duplicate submission suppressed for {} {} (key {}, existing order {})",
+                    side, symbol, key.substring(0, 12), existing == null ? null : existing.getOrderId());
+            return new SubmissionResult(key, null, existing == null ? null : existing.getOrderId(), true);
+        }
+
+        OrderSubmission submission = claimed.get();
+        RuntimeException lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            submission.setAttempts(attempt);
+
+            Optional<Long> live;
+            try {
+                live = findLiveOrder(symbol, legAction);
+            } catch (RuntimeException e) {
+                if (attempt > 1) {
+                    log.warn("Live order check failed before resending {}, not resending: {}", symbol, e.getMessage());
+                    break;
+                }
+                // The database claim still prevents duplicates from this process; don't block the first send on it.
+                log.warn("Live order check failed, relying on the idempotency key alone: {}", e.getMessage());
+                live = Optional.empty();
+            }
+            if (live.isPresent()) {
+                log.warn("Order for {} already live at the broker (#{}), not resending", symbol, live.get());
+                markSubmitted(submission, live.get());
+                return new SubmissionResult(key, null, live.get(), true);
+            }
+
+            try {
+                Map<String, Object> result = tastytradeClient.placeOrder(order);
+                Long orderId = orderId(result);
+                markSubmitted(submission, orderId);
+                return new SubmissionResult(key, result, orderId, false);
+            } catch (RuntimeException e) {
+                lastError = e;
+                log.warn("Order submission attempt {}/{} for {} failed: {}", attempt, maxAttempts, symbol, e.getMessage());
+                if (!rejectedByBroker(e)) {
+                    submission.setStatus(OrderSubmission.Status.UNKNOWN);
+                    submission.setUpdatedAt(LocalDateTime.now(CST));
+                    repository.save(submission);
+                    throw new RuntimeException("Order for " + symbol + " may or may not have reached the broker, "
+                            + "not resending — check the account", e);
+                }
+                if (attempt < maxAttempts && !CycleContext.hasBudgetFor(backoffMs * attempt)) {
+                    log.warn("Cycle budget too short to retry {} — stopping after attempt {}", symbol, attempt);
+                    break;
+                }
+                if (attempt < maxAttempts) {
+                    sleep(backoffMs * attempt);
+                }
+            }
+        }
+
+        submission.setStatus(OrderSubmission.Status.FAILED);
+        submission.setUpdatedAt(LocalDateTime.now(CST));
+        repository.save(submission);
+        throw new RuntimeException("Order submission failed after " + submission.getAttempts() + " attempts", lastError);
+    }
+
+    /**
+     * Whether the broker answered with a 4xx, i.e. looked at the order and refused it without accepting it.
+     */
+    static boolean rejectedByBroker(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Claims the key. A FAILED claim may be taken over (nothing reached the broker); PENDING, SUBMITTED or UNKNOWN may not.
+     */
+    private Optional<OrderSubmission> claim(String key, String account, String symbol, String side, String window) {
+        claimLock.lock();
+        try {
+            return claimLocked(key, account, symbol, side, window);
+        } finally {
+            claimLock.unlock();
+        }
+    }
+
+    private Optional<OrderSubmission> claimLocked(String key, String account, String symbol, String side, String window) {
+        Optional<OrderSubmission> existing = repository.findByIdempotencyKey(key);
+        if (existing.isPresent()) {
+            OrderSubmission submission = existing.get();
+            if (submission.getStatus() != OrderSubmission.Status.FAILED) {
+                return Optional.empty();
+            }
+            submission.setStatus(OrderSubmission.Status.PENDING);
+            submission.setUpdatedAt(LocalDateTime.now(CST));
+            return Optional.of(repository.saveAndFlush(submission));
+        }
+
+        OrderSubmission submission = new OrderSubmission();
+        submission.setIdempotencyKey(key);
+        submission.setAccountId(account);
+        submission.setSymbol(symbol);
+        submission.setSide(side);
+        submission.setCycleWindow(window);
+        submission.setStatus(OrderSubmission.Status.PENDING);
+        submission.setAttempts(0);
+        submission.setCycleId(CycleContext.current().map(CycleContext::cycleId).orElse(null));
+        submission.setCreatedAt(LocalDateTime.now(CST));
+        try {
+            return Optional.of(repository.saveAndFlush(submission));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The id of a live order for the same leg, if any. Throws if the broker cannot be asked.
+     */
+    private Optional<Long> findLiveOrder(String symbol, String legAction) {
+        String wanted = OccSymbols.normalize(symbol);
+        for (Map<String, Object> order : tastytradeClient.getLiveOrders()) {
+            Object legs = order.get("legs");
+            if (!(legs instanceof List<?> list)) {
+                continue;
+            }
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> leg
+                        && wanted.equals(OccSymbols.normalize(String.valueOf(leg.get("symbol"))))
+                        && legAction.equals(leg.get("action"))) {
+                    return Optional.ofNullable(orderId(order));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void markSubmitted(OrderSubmission submission, Long orderId) {
+        submission.setStatus(OrderSubmission.Status.SUBMITTED);
+        submission.setOrderId(orderId);
+        submission.setUpdatedAt(LocalDateTime.now(CST));
+        repository.save(submission);
+    }
+
+    private static Long orderId(Map<String, Object> result) {
+        if (result == null) {
+            return null;
+        }
+        Object nested = result.get("order");
+        Object id = (nested instanceof Map<?, ?> order ? order : result).get("id");
+        if (id instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return id == null ? null : Long.parseLong(id.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted between order submission attempts", e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.OrderFill;
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.tools.CommunicationTools;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory portfolio ledger. Seeded from the broker once the application is ready, advanced locally by
+ * {@link OrderFill} events, and periodically reconciled against the broker; a reconcile that finds the
+ * ledger disagreeing with the broker reports the drift and adopts the broker's view.
+ * <p>
+ * One snapshot is kept per account; {@link #current} is the snapshot of {@link AccountRegistry#current}. Every
+ * new snapshot is also published to the {@link MarketSnapshotService}.
+ */
+@Service
+@Slf4j
+public class PortfolioLedger {
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    private final TastytradeClient tastytradeClient;
+    private final CommunicationTools communicationTools;
+    private final AccountRegistry accounts;
+    private final ClusterCoordinator coordinator;
+    private final MarketSnapshotService marketSnapshot;
+
+    private final Map<String, AtomicReference<PortfolioSnapshot>> snapshots = new ConcurrentHashMap<>();
+
+    @Value("${thufir.ledger.drift-tolerance-usd:1.0}")
+    private double driftToleranceUsd;
+
+    public PortfolioLedger(TastytradeClient tastytradeClient, CommunicationTools communicationTools,
+                           AccountRegistry accounts, ClusterCoordinator coordinator, MarketSnapshotService marketSnapshot) {
+        this.tastytradeClient = tastytradeClient;
+        this.communicationTools = communicationTools;
+        this.accounts = accounts;
+        this.coordinator = coordinator;
+        this.marketSnapshot = marketSnapshot;
+    }
+
+    private AtomicReference<PortfolioSnapshot> snapshot(String accountId) {
+        return snapshots.computeIfAbsent(accountId, id -> new AtomicReference<>());
+    }
+
+    /**
+     * Seeds in the background so a slow broker does not hold up the ready event. {@link #current} loads on
+     * demand if a cycle gets there first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Thread.ofVirtual().name("thufir-ledger-seed").start(this::seedAll);
+    }
+
+    private void seedAll() {
+        accounts.forEach("ledger-seed", account -> {
+            try {
+                PortfolioSnapshot seeded = load(0, "seed");
+                snapshot(account.id()).set(seeded);
+                marketSnapshot.publishPortfolio(account.id(), seeded);
+                log.info("Portfolio ledger seeded for {}: {} positions, committed ${}", account.id(),
+                        seeded.positions().size(), seeded.committedCash());
+            } catch (Exception e) {
+                log.error("Portfolio ledger seed failed for {}, will load on first use: {}", account.id(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Current snapshot, loading it from the broker if the ledger has not been seeded yet.
+     */
+    public PortfolioSnapshot current() {
+        AtomicReference<PortfolioSnapshot> snapshot = snapshot(accounts.current().id());
+        PortfolioSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        PortfolioSnapshot loaded = load(0, "lazy-seed");
+        if (snapshot.compareAndSet(null, loaded)) {
+            marketSnapshot.publishPortfolio(accounts.current().id(), loaded);
+            return loaded;
+        }
+        return snapshot.get();
+    }
+
+    @EventListener
+    public void onFill(OrderFill fill) {
+        PortfolioSnapshot updated = snapshot(fill.account())
+                .updateAndGet(s -> s == null ? null : s.applyFill(fill, LocalDateTime.now(CST)));
+        if (updated != null) {
+            marketSnapshot.publishPortfolio(fill.account(), updated);
+            log.info("Ledger {} v{} applied fill {} x{} {}", fill.account(), updated.version(), fill.symbol(),
+                    fill.quantity(), fill.action());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${thufir.ledger.reconcile-interval-ms:300000}",
+            initialDelayString = "${thufir.ledger.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        accounts.forEach("ledger-reconcile", this::reconcile);
+    }
+
+    private void reconcile(TradingAccount account) {
+        AtomicReference<PortfolioSnapshot> snapshot = snapshot(account.id());
+        PortfolioSnapshot local = snapshot.get();
+        PortfolioSnapshot broker;
+        try {
+            broker = load(local == null ? 0 : local.version() + 1, "reconcile");
+        } catch (Exception e) {
+            log.warn("Ledger reconcile skipped for {}, broker unavailable: {}", account.id(), e.getMessage());
+            return;
+        }
+
+        // Every instance keeps its ledger current; only the account's owner reports drift.
+        if (local != null && coordinator.owns(account)) {
+            List<String> drift = drift(local, broker);
+            if (!drift.isEmpty()) {
+                log.warn("Ledger drift detected against broker for {}:\n{}", account.id(), String.join("\n", drift));
+                communicationTools.sendMessageToLarry(
+                        "Ledger drift corrected for " + account.id() + " (local v" + local.version() + " vs broker):\n"
+                                + String.join("\n", drift),
+                        false,
+                        "LEDGER_DRIFT"
+                );
+            }
+        }
+        snapshot.set(broker);
+        marketSnapshot.publishPortfolio(account.id(), broker);
+    }
+
+    private List<String> drift(PortfolioSnapshot local, PortfolioSnapshot broker) {
+        List<String> drift = new ArrayList<>();
+        Set<String> symbols = new HashSet<>(local.positions().keySet());
+        symbols.addAll(broker.positions().keySet());
+        for (String symbol : symbols) {
+            PortfolioPosition mine = local.positions().get(symbol);
+            PortfolioPosition theirs = broker.positions().get(symbol);
+            double localQty = mine == null ? 0 : mine.quantity();
+            double brokerQty = theirs == null ? 0 : theirs.quantity();
+            if (localQty != brokerQty) {
+                drift.add(String.format("  %s: ledger %.0f, broker %.0f", symbol, localQty, brokerQty));
+            }
+        }
+        if (Math.abs(local.committedCash() - broker.committedCash()) > driftToleranceUsd) {
+            drift.add(String.format("  Committed cash: ledger $%.2f, broker $%.2f", local.committedCash(), broker.committedCash()));
+        }
+        return drift;
+    }
+
+    private PortfolioSnapshot load(long version, String source) {
+        Map<String, Object> positionsData = tastytradeClient.getPositions();
+        Map<String, Object> balances = tastytradeClient.getAccountBalances();
+        return fromBroker(version, LocalDateTime.now(CST), source, positionsData, balances);
+    }
+
+    /**
+     * Builds a snapshot from Tastytrade's decoded positions and balances payloads. Short positions are signed
+     * negative using {@code quantity-direction} or {@code long-short}.
+     */
+    @SuppressWarnings("unchecked")
+    public static PortfolioSnapshot fromBroker(long version, LocalDateTime asOf, String source,
+                                               Map<String, Object> positionsData, Map<String, Object> balances) {
+        Map<String, PortfolioPosition> positions = new LinkedHashMap<>();
+        List<Map<String, Object>> items = (List<Map<String, Object>>) positionsData.get("items");
+        if (items != null) {
+            for (Map<String, Object> pos : items) {
+                Double qty = getDouble(pos, "quantity");
+                Double mktValue = getDouble(pos, "market-value");
+                boolean isShort = "Short".equalsIgnoreCase(String.valueOf(pos.get("quantity-direction")))
+                        || "Short".equalsIgnoreCase(String.valueOf(pos.get("long-short")));
+                double signedQty = qty == null ? 0.0 : (isShort && qty > 0 ? -qty : qty);
+                PortfolioPosition position = new PortfolioPosition(
+                        (String) pos.get("symbol"),
+                        (String) pos.get("underlying-symbol"),
+                        (String) pos.get("instrument-type"),
+                        (String) pos.getOrDefault("option-type", ""),
+                        signedQty,
+                        getDouble(pos, "strike-price"),
+                        getDouble(pos, "average-open-price"),
+                        mktValue == null ? 0.0 : mktValue);
+                positions.put(position.symbol(), position);
+            }
+        }
+
+        Double netLiq = getDouble(balances, "net-liquidating-value");
+        Double cash = getDouble(balances, "cash-balance");
+        return PortfolioSnapshot.of(version, asOf, source,
+                netLiq == null ? 0.0 : netLiq, cash == null ? 0.0 : cash, positions);
+    }
+
+    private static Double getDouble(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return value == null ? null : Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
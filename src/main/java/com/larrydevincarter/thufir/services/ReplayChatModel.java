@@ -0,0 +1,75 @@
+package com.larrydevincarter.thufir.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.CapturedExchange;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stands in for a provider model in replay mode, answering each request with the next reply captured for the same
+ * model, temperature and messages (see {@link ChatCaptureListener#key}). A request that was never recorded fails.
+ * Listeners still fire, so usage metrics behave as they did during the recorded run.
+ */
+public class ReplayChatModel implements ChatModel {
+
+    private final CaptureLog captureLog;
+    private final ObjectMapper objectMapper;
+    private final String modelName;
+    private final Double temperature;
+    private final Set<Capability> capabilities;
+    private final List<ChatModelListener> listeners;
+
+    public ReplayChatModel(CaptureLog captureLog, ObjectMapper objectMapper, String modelName, Double temperature,
+                           Set<Capability> capabilities, List<ChatModelListener> listeners) {
+        this.captureLog = captureLog;
+        this.objectMapper = objectMapper;
+        this.modelName = modelName;
+        this.temperature = temperature;
+        this.capabilities = capabilities;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest request) {
+        String key = ChatCaptureListener.key(request);
+        CapturedExchange exchange = captureLog.replay("chat", key)
+                .orElseThrow(() -> new IllegalStateException("Replay miss: no captured chat reply left for " + key));
+        try {
+            ChatCaptureListener.Reply reply = objectMapper.readValue(exchange.response(), ChatCaptureListener.Reply.class);
+            return ChatResponse.builder()
+                    .aiMessage((AiMessage) ChatMessageDeserializer.messageFromJson(reply.message()))
+                    .modelName(reply.modelName())
+                    .tokenUsage(new TokenUsage(reply.inputTokens(), reply.outputTokens()))
+                    .finishReason(reply.finishReason() == null ? null : FinishReason.valueOf(reply.finishReason()))
+                    .build();
+        } catch (Exception e) {
+            throw new RuntimeException("Corrupt captured chat reply #" + exchange.sequence(), e);
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return ChatRequestParameters.builder().modelName(modelName).temperature(temperature).build();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return listeners;
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return capabilities;
+    }
+}
@@ -0,0 +1,126 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-execution checks for a set of option sales taken as one portfolio. Decisions are considered in rank
+ * order and accepted greedily: each one must still fit once everything ranked above it is counted, so the
+ * aggregate capital check holds for the whole batch rather than per order.
+ * <p>
+ * Only puts need cash: calls are covered by shares, and are sold exactly when cash is lowest, after an
+ * assignment. The per-underlying cap counts short puts at their strike notional, including puts accepted
+ * earlier in the batch.
+ */
+@Component
+public class RiskEngine {
+
+    public record Rejection(WheelDecision decision, String reason) {}
+
+    public record Assessment(List<WheelDecision> accepted, List<Rejection> rejected, double newCommitment) {
+
+        public boolean allRejected() {
+            return accepted.isEmpty() && !rejected.isEmpty();
+        }
+    }
+
+    private final double cashBuffer;
+    private final double maxUnderlyingExposurePct;
+    private final int maxBatchOrders;
+
+    public RiskEngine(@Value("${thufir.risk.cash-buffer:1.1}") double cashBuffer,
+                      @Value("${thufir.risk.max-underlying-exposure-pct:10.0}") double maxUnderlyingExposurePct,
+                      @Value("${thufir.risk.max-batch-orders:5}") int maxBatchOrders) {
+        this.cashBuffer = cashBuffer;
+        this.maxUnderlyingExposurePct = maxUnderlyingExposurePct;
+        this.maxBatchOrders = maxBatchOrders;
+    }
+
+    /**
+     * @param ranked            option sales, best first
+     * @param portfolio         current ledger snapshot
+     * @param workingCommitment cash already promised to unfilled short puts (open short puts are taken
+     *                          from the snapshot)
+     */
+    public Assessment evaluate(List<WheelDecision> ranked, PortfolioSnapshot portfolio, double workingCommitment) {
+        List<WheelDecision> accepted = new ArrayList<>();
+        List<Rejection> rejected = new ArrayList<>();
+        Set<String> contracts = new HashSet<>();
+        Map<String, Double> coverableShares = coverableShares(portfolio);
+        Map<String, Double> batchExposure = new HashMap<>();
+        double newCommitment = 0.0;
+        double existingCommitment = portfolio.committedCash() + workingCommitment;
+        double cashLimit = portfolio.cash() * cashBuffer;
+
+        for (WheelDecision decision : ranked) {
+            String contract = decision.ticker() + "|" + decision.strike() + "|" + decision.expiry() + "|" + decision.action();
+            double commitment = "sell_put".equals(decision.action()) ? decision.strike() * 100 * decision.quantity() : 0.0;
+
+            boolean put = "sell_put".equals(decision.action());
+            double exposurePct = exposurePct(portfolio, decision.ticker(), batchExposure);
+
+            String reason = null;
+            if (put && portfolio.cash() <= 0) {
+                reason = "no cash balance available";
+            } else if (!contracts.add(contract)) {
+                reason = "duplicate of a higher-ranked order";
+            } else if (accepted.size() >= maxBatchOrders) {
+                reason = "batch limit of " + maxBatchOrders + " orders reached";
+            } else if ("sell_call".equals(decision.action())
+                    && coverableShares.getOrDefault(decision.ticker(), 0.0) < 100.0 * decision.quantity()) {
+                reason = "not enough uncovered shares of " + decision.ticker();
+            } else if (put && exposurePct > maxUnderlyingExposurePct) {
+                reason = String.format("%s exposure %.1f%% already above %.1f%%",
+                        decision.ticker(), exposurePct, maxUnderlyingExposurePct);
+            } else if (existingCommitment + newCommitment + commitment > cashLimit) {
+                reason = String.format("aggregate commitment $%.2f exceeds cash limit $%.2f",
+                        existingCommitment + newCommitment + commitment, cashLimit);
+            }
+
+            if (reason != null) {
+                rejected.add(new Rejection(decision, reason));
+                continue;
+            }
+
+            accepted.add(decision);
+            newCommitment += commitment;
+            batchExposure.merge(decision.ticker(), commitment, Double::sum);
+            if ("sell_call".equals(decision.action())) {
+                coverableShares.merge(decision.ticker(), -100.0 * decision.quantity(), Double::sum);
+            }
+        }
+        return new Assessment(List.copyOf(accepted), List.copyOf(rejected), newCommitment);
+    }
+
+    private static double exposurePct(PortfolioSnapshot portfolio, String ticker, Map<String, Double> batchExposure) {
+        return portfolio.netLiq() > 0
+                ? (portfolio.exposure(ticker) + batchExposure.getOrDefault(ticker, 0.0)) / portfolio.netLiq() * 100.0
+                : 0.0;
+    }
+
+    /**
+     * Long shares per underlying not already covered by a short call.
+     */
+    private static Map<String, Double> coverableShares(PortfolioSnapshot portfolio) {
+        Map<String, Double> shares = new HashMap<>();
+        for (PortfolioPosition position : portfolio.positions().values()) {
+            if (position.isLongStock()) {
+                shares.merge(position.underlying(), position.quantity(), Double::sum);
+            } else if ("Equity Option".equals(position.instrumentType())
+                    && "Call".equalsIgnoreCase(position.optionType()) && position.quantity() < 0) {
+                shares.merge(position.underlying(), position.quantity() * 100, Double::sum);
+            }
+        }
+        return shares;
+    }
+}
@@ -0,0 +1,66 @@
+package com.larrydevincarter.thufir.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When each part of startup finished, in milliseconds of JVM uptime: {@code context} (Spring is up and serving
+ * HTTP), {@code discord} and {@code tastytrade} (the background connections). Time to ready is the later of
+ * {@code context} and {@code tastytrade}, which is when cycles may start; Discord does not gate them. Published as {@code thufir.startup.time} by phase and logged once everything is in.
+ */
+@Component
+@Slf4j
+public class StartupTimeline {
+
+    public static final String CONTEXT = "context";
+    public static final String DISCORD = "discord";
+    public static final String TASTYTRADE = "tastytrade";
+    private static final Set<String> READY_PHASES = Set.of(CONTEXT, TASTYTRADE);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> reachedAtMs = new ConcurrentHashMap<>();
+
+    public StartupTimeline(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void contextReady() {
+        mark(CONTEXT);
+    }
+
+    /**
+     * Records the first time {@code phase} is reached; later calls (a reconnect) are ignored.
+     */
+    public void mark(String phase) {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (reachedAtMs.putIfAbsent(phase, uptimeMs) != null) {
+            return;
+        }
+        TimeGauge.builder("thufir.startup.time", () -> uptimeMs, TimeUnit.MILLISECONDS)
+                .description("JVM uptime at which a startup phase completed")
+                .tag("phase", phase)
+                .register(meterRegistry);
+        log.info("Startup: {} ready at {} ms", phase, uptimeMs);
+
+        if (READY_PHASES.contains(phase) && reachedAtMs.keySet().containsAll(READY_PHASES)) {
+            long readyMs = Math.max(reachedAtMs.get(CONTEXT), reachedAtMs.get(TASTYTRADE));
+            TimeGauge.builder("thufir.startup.time", () -> readyMs, TimeUnit.MILLISECONDS)
+                    .description("JVM uptime at which a startup phase completed")
+                    .tag("phase", "ready")
+                    .register(meterRegistry);
+            log.info("Startup: ready for cycles at {} ms (context {} ms, tastytrade {} ms)", readyMs,
+                    reachedAtMs.get(CONTEXT), reachedAtMs.get(TASTYTRADE));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exchange calendar held in memory: one close time per day, indexed by the day's offset from the first covered
+ * year, so a lookup is an array read. Holidays and early closes come from {@code calendar/nyse.txt}; lines in the
+ * overrides file ({@code thufir.calendar.overrides-file}) take precedence and are where differences found by
+ * {@link #reconcile} are persisted.
+ */
+@Component
+public class TradingCalendar {
+
+    private static final Logger log = LoggerFactory.getLogger(TradingCalendar.class);
+
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+    private static final String RESOURCE = "calendar/nyse.txt";
+    private static final short REGULAR_CLOSE = 15 * 60;
+    private static final short CLOSED = -1;
+
+    private final Path overridesFile;
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private LocalDate first;
+    private short[] closeMinutes;
+
+    public TradingCalendar(@Value("${thufir.calendar.overrides-file:calendar-overrides.txt}") String overridesFile) {
+        this.overridesFile = Path.of(overridesFile);
+        try (InputStream in = new ClassPathResource(RESOURCE).getInputStream()) {
+            load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load trading calendar " + RESOURCE, e);
+        }
+        if (Files.exists(this.overridesFile)) {
+            try (InputStream in = Files.newInputStream(this.overridesFile)) {
+                load(in);
+            } catch (IOException e) {
+                log.warn("Calendar overrides {} unreadable, using the bundled calendar only: {}", overridesFile, e.getMessage());
+            }
+        }
+        log.info("Trading calendar covers {} to {}", first, last());
+    }
+
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(first) && !date.isAfter(last());
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        return closeMinutes(date) != CLOSED;
+    }
+
+    /**
+     * @return the session's close in Central time, empty when the market is closed all day
+     * @throws IllegalArgumentException for a date outside the covered years
+     */
+    public Optional<LocalTime> closeTime(LocalDate date) {
+        short minutes = closeMinutes(date);
+        return minutes == CLOSED ? Optional.empty() : Optional.of(LocalTime.of(minutes / 60, minutes % 60));
+    }
+
+    /**
+     * The calendar's answer in OptionScanner's shape, or empty for a date it does not cover.
+     */
+    public Optional<MarketStatusDto> status(LocalDate date) {
+        if (!covers(date)) {
+            return Optional.empty();
+        }
+        return Optional.of(new MarketStatusDto(isTradingDay(date),
+                closeTime(date).orElse(LocalTime.of(REGULAR_CLOSE / 60, 0)).toString()));
+    }
+
+    public Optional<MarketStatusDto> today() {
+        return status(LocalDate.now(CST));
+    }
+
+    /**
+     * Compares the calendar with a live answer for the same day. OptionScanner wins a disagreement: the day is
+     * corrected in memory and appended to the overrides file so the correction survives a restart.
+     *
+     * @return true if the calendar already agreed
+     */
+    public boolean reconcile(LocalDate date, MarketStatusDto remote) {
+        reconcileLock.lock();
+        try {
+            return reconcileLocked(date, remote);
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private boolean reconcileLocked(LocalDate date, MarketStatusDto remote) {
+        short remoteMinutes = remote.isTradingDay() ? toMinutes(remote.getTodayCloseTime()) : CLOSED;
+        if (!covers(date)) {
+            log.info("Calendar does not cover {}, nothing to reconcile", date);
+            return false;
+        }
+        short local = closeMinutes(date);
+        if (local == remoteMinutes) {
+            return true;
+        }
+
+        String line = date + " " + (remoteMinutes == CLOSED ? "closed" : LocalTime.of(remoteMinutes / 60, remoteMinutes % 60));
+        log.warn("Calendar disagrees with OptionScanner for {} (calendar {}, OptionScanner {}) — adopting '{}'",
+                date, describe(local), describe(remoteMinutes), line);
+        closeMinutes[index(date)] = remoteMinutes;
+        try {
+            Files.writeString(overridesFile, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Could not persist calendar override to {}: {}", overridesFile, e.getMessage());
+        }
+        return false;
+    }
+
+    private short closeMinutes(LocalDate date) {
+        if (!covers(date)) {
+            throw new IllegalArgumentException("Trading calendar does not cover " + date);
+        }
+        return closeMinutes[index(date)];
+    }
+
+    private int index(LocalDate date) {
+        return (int) (date.toEpochDay() - first.toEpochDay());
+    }
+
+    private LocalDate last() {
+        return first.plusDays(closeMinutes.length - 1L);
+    }
+
+    /**
+     * Applies one calendar file. A {@code range} line (only expected in the bundled file) sizes the table and fills
+     * in regular sessions; every other line sets a single day.
+     */
+    private void load(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if ("range".equals(parts[0])) {
+                if (closeMinutes == null) {
+                    allocate(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                }
+                continue;
+            }
+            LocalDate date = LocalDate.parse(parts[0]);
+            if (closeMinutes == null || !covers(date)) {
+                log.warn("Calendar line outside the covered range ignored: {}", line);
+                continue;
+            }
+            closeMinutes[index(date)] = "closed".equals(parts[1]) ? CLOSED : toMinutes(parts[1]);
+        }
+    }
+
+    private void allocate(int fromYear, int toYear) {
+        first = LocalDate.of(fromYear, 1, 1);
+        closeMinutes = new short[(int) (LocalDate.of(toYear + 1, 1, 1).toEpochDay() - first.toEpochDay())];
+        Arrays.fill(closeMinutes, REGULAR_CLOSE);
+        for (int i = 0; i < closeMinutes.length; i++) {
+            DayOfWeek day = first.plusDays(i).getDayOfWeek();
+            if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+                closeMinutes[i] = CLOSED;
+            }
+        }
+    }
+
+    private static short toMinutes(String time) {
+        if (time == null || time.isBlank()) {
+            return REGULAR_CLOSE;
+        }
+        LocalTime parsed = LocalTime.parse(time);
+        return (short) (parsed.getHour() * 60 + parsed.getMinute());
+    }
+
+    private static String describe(short minutes) {
+        return minutes == CLOSED ? "closed" : "close " + LocalTime.of(minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,334 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.TradingState;
+import com.larrydevincarter.thufir.models.TradingStatus;
+import com.larrydevincarter.thufir.models.entities.TradingControl;
+import com.larrydevincarter.thufir.repositories.TradingControlRepository;
+import com.larrydevincarter.thufir.tools.CommunicationTools;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persisted trading state machine. The current status lives in memory so the executor can check it
+ * before every cycle without any I/O; transitions are written through to the database so halts and
+ * owner pauses survive restarts.
+ * <p>
+ * States are ranked {@code PAUSED_BY_OWNER > HALTED_UNTIL > DEGRADED > RUNNING}. Automated drivers can
+ * only move the state up (or sideways), so a risk halt never lifts an owner pause. Only {@link #resume}
+ * clears everything; {@link #recover} clears DEGRADED, and HALTED_UNTIL lapses by itself.
+ * <p>
+ * DEGRADED means a dependency is down (the VIX health checks set it); the wheel probes it before every cycle
+ * and recovers on the first healthy read. A failure inside one cycle only holds that cycle.
+ * <p>
+ * Every account has its own status. A transition made inside an account scope applies to that account only
+ * (a risk halt in one account leaves the others trading); one made outside any account scope, and every owner
+ * pause or resume, applies to all accounts. Outside an account scope {@link #current} is the most restrictive
+ * status. The primary account keeps the original {@code default} row.
+ * <p>
+ * When several instances share the database, each adopts the others' transitions on every heartbeat
+ * ({@link #sync}), so a pause sent to the leader stops cycles everywhere. The ranking is enforced in the write
+ * itself ({@link TradingControlRepository}): an automated transition that the stored row outranks is not
+ * written, and the instance adopts the row instead. Only owner overrides replace the row unconditionally.
+ */
+@Service
+@Slf4j
+public class TradingControlService {
+
+    static final String CONTROL_ID = "default";
+    private static final ZoneId CST = ZoneId.of("America/Chicago");
+
+    private final TradingControlRepository repository;
+    private final CommunicationTools communicationTools;
+    private final AccountRegistry accounts;
+    private final ClusterCoordinator coordinator;
+
+    private final Map<String, AtomicReference<TradingStatus>> statuses = new ConcurrentHashMap<>();
+    // Account id -> how its local status should have been written when the database could not be reached.
+    private final Map<String, Write> unpersisted = new ConcurrentHashMap<>();
+    // Transitions persist and notify while held, so a ReentrantLock keeps virtual threads from pinning.
+    private final ReentrantLock transitionLock = new ReentrantLock();
+
+    public TradingControlService(TradingControlRepository repository, CommunicationTools communicationTools,
+                                 AccountRegistry accounts, ClusterCoordinator coordinator) {
+        this.repository = repository;
+        this.communicationTools = communicationTools;
+        this.accounts = accounts;
+        this.coordinator = coordinator;
+        for (TradingAccount account : accounts.all()) {
+            statuses.put(account.id(), new AtomicReference<>(TradingStatus.running("startup")));
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        for (TradingAccount account : accounts.all()) {
+            AtomicReference<TradingStatus> status = status(account);
+            repository.findById(controlId(account)).ifPresentOrElse(control -> {
+                status.set(toStatus(control));
+                log.info("Trading state restored for {}: {}", account.id(), status.get().describe());
+            }, () -> persist(account, status.get(), Write.OVERRIDE));
+        }
+    }
+
+    /**
+     * Writes any local transition that could not be persisted, then, when clustered, adopts any persisted status
+     * that differs from the one held here, i.e. a transition made by another instance. The row is authoritative
+     * because every write to it respected the ranking. The retry runs on a single instance too, so an owner pause
+     * made during a database outage still survives a restart.
+     */
+    @Scheduled(fixedDelayString = "${thufir.cluster.heartbeat-ms:2000}")
+    public void sync() {
+        boolean clustered = coordinator.enabled();
+        if (!clustered && unpersisted.isEmpty()) {
+            return;
+        }
+        transitionLock.lock();
+        try {
+            for (TradingAccount account : accounts.all()) {
+                Write pending = unpersisted.remove(account.id());
+                if (pending != null) {
+                    apply(account, status(account).get(), pending, false);
+                    continue;
+                }
+                if (!clustered) {
+                    continue;
+                }
+                repository.findById(controlId(account)).ifPresent(control -> {
+                    if (!matches(control, status(account).get())) {
+                        status(account).set(toStatus(control));
+                        log.info("Trading state for {} synced from another instance: {}", account.id(), status(account).get().describe());
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.debug("Trading state sync skipped: {}", e.getMessage());
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    /**
+     * Current status of the bound account, or the most restrictive one outside an account scope. An expired
+     * halt lapses back to RUNNING.
+     */
+    public TradingStatus current() {
+        if (CycleContext.account().isPresent()) {
+            return current(accounts.current());
+        }
+        return accounts.all().stream()
+                .map(this::current)
+                .max(Comparator.comparingInt(s -> s.state().priority()))
+                .orElseThrow();
+    }
+
+    /**
+     * Current status of every account, in configuration order.
+     */
+    public Map<String, TradingStatus> statuses() {
+        Map<String, TradingStatus> all = new LinkedHashMap<>();
+        for (TradingAccount account : accounts.all()) {
+            all.put(account.id(), current(account));
+        }
+        return all;
+    }
+
+    private TradingStatus current(TradingAccount account) {
+        TradingStatus snapshot = status(account).get();
+        if (snapshot.state() == TradingState.HALTED_UNTIL && !LocalDateTime.now(CST).isBefore(snapshot.haltedUntil())) {
+            lapseHalt(account, snapshot);
+            return status(account).get();
+        }
+        return snapshot;
+    }
+
+    public boolean allowsCycles() {
+        return current().allowsCycles();
+    }
+
+    public void pauseByOwner(String reason) {
+        transition(accounts.all(), TradingState.PAUSED_BY_OWNER, null,
+                reason == null || reason.isBlank() ? "paused by Larry" : reason, "owner", true);
+    }
+
+    /**
+     * Owner override: clears any pause, halt or degradation on every account.
+     */
+    public void resume(String source) {
+        transition(accounts.all(), TradingState.RUNNING, null, null, source, true);
+    }
+
+    public void haltUntil(LocalDateTime until, String reason, String source) {
+        transition(targets(), TradingState.HALTED_UNTIL, until, reason, source, false);
+    }
+
+    /**
+     * Halts until the start of the next calendar day (CST).
+     */
+    public void haltForDay(String reason, String source) {
+        haltUntil(LocalDate.now(CST).plusDays(1).atStartOfDay(), reason, source);
+    }
+
+    public void degrade(String reason, String source) {
+        transition(targets(), TradingState.DEGRADED, null, reason, source, false);
+    }
+
+    /**
+     * Clears DEGRADED once the failing dependency is healthy again. Has no effect on other states.
+     */
+    public void recover(String source) {
+        transitionLock.lock();
+        try {
+            for (TradingAccount account : targets()) {
+                if (status(account).get().state() == TradingState.DEGRADED) {
+                    apply(account, TradingStatus.running(source), Write.RECOVER, true);
+                }
+            }
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    /**
+     * The bound account, or every account outside an account scope.
+     */
+    private List<TradingAccount> targets() {
+        return CycleContext.account().isPresent() ? List.of(accounts.current()) : accounts.all();
+    }
+
+    private AtomicReference<TradingStatus> status(TradingAccount account) {
+        return statuses.get(account.id());
+    }
+
+    private void lapseHalt(TradingAccount account, TradingStatus expired) {
+        transitionLock.lock();
+        try {
+            if (status(account).get() == expired) {
+                log.info("Trading halt expired for {} ({})", account.id(), expired.reason());
+                // Every instance sees the halt lapse; only the leader says so.
+                apply(account, TradingStatus.running("halt-expired"), Write.RAISE, coordinator.isLeader());
+            }
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    private void transition(List<TradingAccount> targets, TradingState target, LocalDateTime until, String reason,
+                            String source, boolean override) {
+        transitionLock.lock();
+        try {
+            for (TradingAccount account : targets) {
+                TradingStatus previous = status(account).get();
+                if (!override && target.priority() < previous.state().priority()) {
+                    log.info("Ignoring {} from {} for {} while {}", target, source, account.id(), previous.describe());
+                    continue;
+                }
+                apply(account, new TradingStatus(target, until, reason, source, LocalDateTime.now(CST)),
+                        override ? Write.OVERRIDE : Write.RAISE, true);
+            }
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    private void apply(TradingAccount account, TradingStatus next, Write write, boolean notify) {
+        if (!persist(account, next, write)) {
+            repository.findById(controlId(account)).ifPresent(control -> {
+                status(account).set(toStatus(control));
+                log.info("Ignoring {} from {} for {}: another instance set {}", next.state(), next.source(), account.id(),
+                        status(account).get().describe());
+            });
+            return;
+        }
+        TradingStatus previous = status(account).getAndSet(next);
+        log.info("Trading state for {} {} -> {} (by {})", account.id(), previous.state(), next.describe(), next.source());
+        if (notify && previous.state() != next.state()) {
+            String label = accounts.all().size() > 1 ? " (" + account.id() + ")" : "";
+            communicationTools.sendMessageToLarry(
+                    "Trading state" + label + ": " + previous.state() + " → " + next.describe(),
+                    next.state() == TradingState.HALTED_UNTIL || next.state() == TradingState.DEGRADED,
+                    "TRADING_STATE"
+            );
+        }
+    }
+
+    private static String controlId(TradingAccount account) {
+        return account.primary() ? CONTROL_ID : account.id();
+    }
+
+    /**
+     * How a transition may replace the stored row.
+     */
+    private enum Write {
+        /** Owner pause or resume: always replaces it. */
+        OVERRIDE,
+        /** Automated transition: only over a state it outranks or matches, or a lapsed halt. */
+        RAISE,
+        /** Recovery: only over DEGRADED. */
+        RECOVER
+    }
+
+    /**
+     * Writes the status as {@code write} allows.
+     *
+     * @return false if the stored row outranks it and should be adopted instead; true if it was written, or if
+     * the database could not be reached (the status then holds locally and is written again on the next sync)
+     */
+    private boolean persist(TradingAccount account, TradingStatus snapshot, Write write) {
+        String id = controlId(account);
+        try {
+            int written = switch (write) {
+                case OVERRIDE -> 0;
+                case RAISE -> repository.raise(id, snapshot.state().name(), snapshot.state().priority(),
+                        snapshot.haltedUntil(), snapshot.reason(), snapshot.source(), snapshot.since(),
+                        LocalDateTime.now(CST));
+                case RECOVER -> repository.recover(id, snapshot.source(), snapshot.since());
+            };
+            if (written == 1) {
+                return true;
+            }
+            if (write != Write.OVERRIDE && repository.existsById(id)) {
+                return false;
+            }
+            TradingControl control = new TradingControl();
+            control.setId(id);
+            control.setState(snapshot.state());
+            control.setHaltedUntil(snapshot.haltedUntil());
+            control.setReason(snapshot.reason());
+            control.setSource(snapshot.source());
+            control.setUpdatedAt(snapshot.since());
+            repository.save(control);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to persist trading state for {} {}: {}", account.id(), snapshot.describe(), e.getMessage());
+            unpersisted.put(account.id(), write);
+            return true;
+        }
+    }
+
+    private static TradingStatus toStatus(TradingControl control) {
+        return new TradingStatus(control.getState(), control.getHaltedUntil(), control.getReason(),
+                control.getSource(), control.getUpdatedAt());
+    }
+
+    private static boolean matches(TradingControl control, TradingStatus status) {
+        return control.getState() == status.state()
+                && Objects.equals(control.getHaltedUntil(), status.haltedUntil())
+                && Objects.equals(control.getReason(), status.reason())
+                && Objects.equals(control.getSource(), status.source());
+    }
+}
@@ -0,0 +1,20 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TriageVerdict;
+import dev.langchain4j.service.SystemMessage;
+
+public interface TriageAssistant {
+
+    @SystemMessage("""
+        You triage cycles for a wheel options trading bot. You never trade; you only decide whether the
+        full decision model is needed this cycle.
+        Escalate when any of these may hold:
+        - Settled cash allows at least one new cash-secured put within risk limits (committed cash <= 50%, or a
+          tier-1 setup could justify going above)
+        - Assigned shares exist without a covered call
+        - Positions, balances or VIX look unusual and need judgement
+        Do not escalate when VIX is above 25, when no cash or shares can be deployed, or when nothing changed
+        materially and no setup is possible.
+        """)
+    TriageVerdict triage(String snapshot);
+}
@@ -1,7 +1,6 @@
 package com.larrydevincarter.thufir.services;
 
 import com.larrydevincarter.thufir.tools.CommunicationTools;
-import com.larrydevincarter.thufir.tools.MarketDataTools;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,8 +14,29 @@ import java.time.ZoneId;
 @RequiredArgsConstructor
 public class VixHealthMonitor {
 
-    private final MarketDataTools marketDataTools;
+    private final MarketSnapshotService marketSnapshot;
     private final CommunicationTools communicationTools;
+    private final TradingControlService tradingControl;
+    private final ClusterCoordinator coordinator;
+
+    /**
+     * Pre-market check (~8:10 AM CST) so a DEGRADED state left over from yesterday's failures is
+     * cleared before the first cycle, or confirmed before any tokens are spent.
+     */
+    @Scheduled(cron = "0 10 8 * * MON-FRI", zone = "America/Chicago")
+    public void preMarketVixHealthCheck() {
+        if (!coordinator.isLeader()) {
+            return;
+        }
+        String vixResult = marketSnapshot.refreshVix();
+        if (vixResult.contains("CRITICAL FAILURE")) {
+            log.error("Pre-market VIX check failed:\n{}", vixResult);
+            tradingControl.degrade("VIX sources unavailable pre-market", "vix-health");
+        } else {
+            log.info("Pre-market VIX check OK: {}", vixResult);
+            tradingControl.recover("vix-health");
+        }
+    }
 
     /**
      * Daily post-market VIX source health check (~4:30 PM CST / after NYSE close).
@@ -24,10 +44,13 @@ public class VixHealthMonitor {
      */
     @Scheduled(cron = "0 30 16 * * MON-FRI", zone = "America/Chicago")
     public void dailyVixHealthCheck() {
+        if (!coordinator.isLeader()) {
+            return;
+        }
         log.info("Starting daily VIX health check (post-market) at {}",
                 LocalDateTime.now(ZoneId.of("America/Chicago")));
 
-        String vixResult = marketDataTools.getCurrentVix();
+        String vixResult = marketSnapshot.refreshVix();
 
         boolean isHealthy = true;
         String alertMessage = null;
@@ -52,6 +75,10 @@ public class VixHealthMonitor {
 
             log.error(fullAlert);
 
+            if (vixResult.contains("CRITICAL FAILURE")) {
+                tradingControl.degrade(alertMessage, "vix-health");
+            }
+
             communicationTools.sendMessageToLarry(
                     fullAlert,
                     true,
@@ -69,6 +96,8 @@ public class VixHealthMonitor {
 
             log.info(summary);
 
+            tradingControl.recover("vix-health");
+
             communicationTools.sendMessageToLarry(
                     summary,
                     false,
@@ -1,24 +1,45 @@
 package com.larrydevincarter.thufir.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.larrydevincarter.thufir.clients.MarketStatusClient;
-import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.TradingState;
+import com.larrydevincarter.thufir.models.TradingStatus;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WheelPlan;
 import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
 import com.larrydevincarter.thufir.models.entities.TradeDecision;
 import com.larrydevincarter.thufir.repositories.TradeDecisionRepository;
 import com.larrydevincarter.thufir.tools.CommunicationTools;
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
+import com.larrydevincarter.thufir.utils.OccSymbols;
+import com.larrydevincarter.thufir.utils.WheelDecisionParser;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.service.output.OutputParsingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class WheelStrategyExecutor {
@@ -27,18 +48,64 @@ public class WheelStrategyExecutor {
 
     private final Assistant workingAssistant;
     private final MarketStatusClient marketClient;
-    private final TastytradeClient tastytradeClient;
     private final ObjectMapper objectMapper;
     private final TradeDecisionRepository decisionRepo;
     private final CommunicationTools communicationTools;
-
-    public WheelStrategyExecutor(@Qualifier("workingAssistant") Assistant workingAssistant, MarketStatusClient marketClient, TastytradeClient tastytradeClient, ObjectMapper objectMapper, TradeDecisionRepository decisionRepository, CommunicationTools communicationTools) {
+    private final ChatMemoryProvider chatMemoryProvider;
+    private final CycleRouter cycleRouter;
+    private final ModelUsageMetrics modelUsageMetrics;
+    private final ConversationLock conversationLock;
+    private final TradingControlService tradingControl;
+    private final OrderManager orderManager;
+    private final OrderSubmissionService orderSubmissionService;
+    private final RiskEngine riskEngine;
+    private final PortfolioLedger portfolioLedger;
+    private final DeploymentMetrics deploymentMetrics;
+    private final BoundedVirtualThreadExecutor toolExecutor;
+    private final CycleTelemetry telemetry;
+    private final AccountRegistry accounts;
+    private final BoundedVirtualThreadExecutor accountExecutor;
+    private final ClusterCoordinator coordinator;
+    private final ObjectProvider<HealthEndpoint> healthEndpoint;
+    private final MarketSnapshotService marketSnapshot;
+
+    @Value("${thufir.wheel.batch-mode:false}")
+    private boolean batchMode;
+
+    @Value("${thufir.risk.max-batch-orders:5}")
+    private int riskEngineMaxOrders;
+
+    @Value("${thufir.cycle.budget-ms:240000}")
+    private long cycleBudgetMs;
+
+    @Value("${thufir.cycle.interval-ms:300000}")
+    private long cycleIntervalMs;
+
+    private volatile LocalTime todayClose;
+
+    public WheelStrategyExecutor(@Qualifier("workingAssistant") Assistant workingAssistant, MarketStatusClient marketClient, ObjectMapper objectMapper, TradeDecisionRepository decisionRepository, CommunicationTools communicationTools, ChatMemoryProvider chatMemoryProvider, CycleRouter cycleRouter, ModelUsageMetrics modelUsageMetrics, ConversationLock conversationLock, TradingControlService tradingControl, OrderManager orderManager, OrderSubmissionService orderSubmissionService, RiskEngine riskEngine, PortfolioLedger portfolioLedger, DeploymentMetrics deploymentMetrics, @Qualifier("toolExecutor") BoundedVirtualThreadExecutor toolExecutor, CycleTelemetry telemetry, AccountRegistry accounts, @Qualifier("accountExecutor") BoundedVirtualThreadExecutor accountExecutor, ClusterCoordinator coordinator, ObjectProvider<HealthEndpoint> healthEndpoint, MarketSnapshotService marketSnapshot) {
         this.workingAssistant = workingAssistant;
         this.marketClient = marketClient;
-        this.tastytradeClient = tastytradeClient;
         this.objectMapper = objectMapper;
         this.decisionRepo = decisionRepository;
         this.communicationTools = communicationTools;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.cycleRouter = cycleRouter;
+        this.modelUsageMetrics = modelUsageMetrics;
+        this.conversationLock = conversationLock;
+        this.tradingControl = tradingControl;
+        this.orderManager = orderManager;
+        this.orderSubmissionService = orderSubmissionService;
+        this.riskEngine = riskEngine;
+        this.portfolioLedger = portfolioLedger;
+        this.deploymentMetrics = deploymentMetrics;
+        this.toolExecutor = toolExecutor;
+        this.telemetry = telemetry;
+        this.accounts = accounts;
+        this.accountExecutor = accountExecutor;
+        this.coordinator = coordinator;
+        this.healthEndpoint = healthEndpoint;
+        this.marketSnapshot = marketSnapshot;
     }
 
 //    @Scheduled(fixedRate = 600000000)
@@ -46,7 +113,7 @@ public class WheelStrategyExecutor {
     public void startDailyWheelCycles() {
         ZoneId cst = ZoneId.of("America/Chicago");
 
-        MarketStatusDto status = marketClient.getStatus();
+        MarketStatusDto status = marketSnapshot.marketStatus();
 
         if (!status.isTradingDay()) {
             log.info("Not a trading day today — Thufir skipping cycles.");
@@ -54,29 +121,212 @@ public class WheelStrategyExecutor {
         }
 
         LocalTime marketClose = marketClient.parseCloseTime(status.getTodayCloseTime());
+        todayClose = marketClose;
+        if (!awaitReadiness(marketClose)) {
+            todayClose = null;
+            return;
+        }
         log.info("Trading day detected — Thufir starting cycles. Close time: {}", marketClose);
+        deploymentMetrics.startDay(batchMode ? "batch" : "single");
 
         while (LocalTime.now(cst).isBefore(marketClose)) {
 
+            long started = System.currentTimeMillis();
             executeSingleWheelCycle();
 
             try {
-                Thread.sleep(5 * 60 * 1000);
+                // Cycles start on a fixed cadence; a bounded cycle never pushes the next one back.
+                Thread.sleep(Math.max(0, cycleIntervalMs - (System.currentTimeMillis() - started)));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.warn("Cycle loop interrupted");
                 break;
             }
         }
+
+        todayClose = null;
+        deploymentMetrics.endDay();
+        log.info("Trading day finished.\n{}\n{}", modelUsageMetrics.summary(), deploymentMetrics.summary());
     }
 
+    /**
+     * Runs one cycle immediately, outside the 5-minute schedule (Discord "cycle" command).
+     */
+    public void forceCycle() {
+        log.info("Forced wheel cycle requested");
+        if (!isReady()) {
+            log.warn("Forced wheel cycle skipped — readiness group is {}", readiness());
+            return;
+        }
+        executeSingleWheelCycle();
+    }
+
+    /**
+     * Runs one cycle per account, side by side. The accounts share the outer scope, so market data and
+     * chains fetched by one are reused by the others, and its budget, so they all finish by the same deadline.
+     * Every instance runs this loop; each cycle only covers the accounts this instance holds, so an account
+     * whose instance dies is picked up by another one on its next cycle.
+     */
     private void executeSingleWheelCycle() {
-        log.info("Thufir executing wheel cycle at {}", LocalDateTime.now(ZoneId.of("America/Chicago")));
+        Duration budget = cycleBudget();
+        if (budget.isZero()) {
+            log.info("Wheel cycle skipped — market closes at {}", todayClose);
+            return;
+        }
+        try (CycleContext shared = CycleContext.open("wheel", budget)) {
+            probeDegraded();
+            List<CompletableFuture<Void>> runs = accounts.all().stream()
+                    .filter(coordinator::claim)
+                    .map(account -> CompletableFuture.runAsync(() -> executeAccountCycle(account), accountExecutor))
+                    .toList();
+            CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    /**
+     * DEGRADED is only set by the VIX health checks. Rather than wait for the next check, every cycle re-reads
+     * the VIX first and clears it as soon as the sources answer again.
+     */
+    private void probeDegraded() {
+        if (tradingControl.statuses().values().stream().noneMatch(s -> s.state() == TradingState.DEGRADED)) {
+            return;
+        }
+        try {
+            String vix = marketSnapshot.refreshVix();
+            if (!vix.contains("CRITICAL FAILURE")) {
+                log.info("VIX sources answering again ({}) — clearing DEGRADED", vix);
+                tradingControl.recover("cycle-probe");
+            }
+        } catch (Exception e) {
+            log.warn("Degraded-state probe failed: {}", e.getMessage());
+        }
+    }
+
+    private void executeAccountCycle(TradingAccount account) {
+        try {
+            accounts.runAs(account, "wheel", cycle -> {
+                TradingStatus status = tradingControl.current();
+                if (!status.allowsCycles()) {
+                    log.info("Wheel cycle for {} skipped — {}", account.id(), status.describe());
+                    return;
+                }
+                conversationLock.withLock(account.memoryId(), "Wheel cycle " + account.id(), () ->
+                        telemetry.observe(cycle, "wheel", () -> {
+                            runWheelCycle(cycle);
+                            if (account.primary()) {
+                                recordDeployment();
+                            }
+                        }));
+            });
+        } catch (Exception e) {
+            log.error("Wheel cycle for {} failed", account.id(), e);
+        }
+    }
+
+    /**
+     * Holds the first cycle until the readiness group (the Tastytrade connection) is UP. Discord is not part of
+     * it, so a gateway reconnect never holds cycles.
+     *
+     * @return false if the market closed, or the wait was interrupted, before that happened
+     */
+    private boolean awaitReadiness(LocalTime marketClose) {
+        ZoneId cst = ZoneId.of("America/Chicago");
+        boolean logged = false;
+        while (!isReady()) {
+            if (!LocalTime.now(cst).isBefore(marketClose)) {
+                log.error("Readiness never reached before the close ({}) — no cycles today", readiness());
+                return false;
+            }
+            if (!logged) {
+                log.warn("Waiting for readiness before the first cycle: {}", readiness());
+                logged = true;
+            }
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isReady() {
+        return Status.UP.equals(readiness());
+    }
+
+    private Status readiness() {
+        // Without the health endpoint (or the group) there is nothing to wait for.
+        HealthEndpoint endpoint = healthEndpoint.getIfAvailable();
+        HealthComponent readiness = endpoint == null ? null : endpoint.healthForPath("readiness");
+        return readiness == null ? Status.UP : readiness.getStatus();
+    }
+
+    /**
+     * The configured budget, cut short so that a cycle never runs past the close. Zero once the market has closed.
+     */
+    private Duration cycleBudget() {
+        Duration budget = Duration.ofMillis(cycleBudgetMs);
+        LocalTime close = todayClose;
+        if (close == null) {
+            return budget;
+        }
+        Duration untilClose = Duration.between(LocalTime.now(ZoneId.of("America/Chicago")), close);
+        if (untilClose.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilClose.compareTo(budget) < 0 ? untilClose : budget;
+    }
+
+    private void recordDeployment() {
+        try {
+            deploymentMetrics.recordCycle(portfolioLedger.current(), orderManager.workingCommitment());
+        } catch (Exception e) {
+            log.debug("Deployment metric skipped: {}", e.getMessage());
+        }
+    }
+
+    private void runWheelCycle(CycleContext cycle) {
+        log.info("Thufir executing wheel cycle {} for {} at {} (deadline {})", cycle.cycleId(), accounts.current().id(),
+                LocalDateTime.now(ZoneId.of("America/Chicago")), cycle.deadline().orElse(null));
+
+        try {
+            routeAndDecide();
+            telemetry.tagCycle("outcome", "completed");
+        } catch (CycleBudgetExceededException e) {
+            telemetry.tagCycle("outcome", "budget_exhausted");
+            recordBudgetHold(e);
+        }
+    }
+
+    private void routeAndDecide() {
+        CycleRouter.RoutingDecision routing = cycleRouter.route();
+        telemetry.tagCycle("route", routing.route().name());
+        telemetry.tagCycle("mode", batchMode ? "batch" : "single");
+        if (!routing.escalate()) {
+            recordRoutedStandDown(routing);
+            return;
+        }
 
         String currentTime = LocalDateTime.now(ZoneId.of("America/Chicago")).toString();
 
-        String prompt = String.format("""
+        if (batchMode) {
+            runBatchCycle(currentTime, routing.snapshot());
+        } else {
+            runSingleDecisionCycle(currentTime, routing.snapshot());
+        }
+    }
+
+    /**
+     * Assembles the per-cycle prompt around the router's snapshot. Static so prompt size and cost can be
+     * benchmarked without a running context.
+     */
+    public static String cyclePrompt(String currentTime, String snapshot, String choiceSteps, String outputSpec) {
+        return String.format("""
             Current time: %s CST
+
+            Snapshot fetched this cycle (tool calls for the same data return these values):
+            %s
                                         
             Execute wheel cycle per soul + refinements.
             Handle VIX/tool fails by messaging Larry urgently.
@@ -85,148 +335,371 @@ public class WheelStrategyExecutor {
             Cycle steps:
             1. Call getCurrentVix() — handle fail as above
             2. Call getAccountBalances() — compute committed_cash_pct = sum(CSP commitments) / cash
-            3. Call getPositionsSummary() — exposures, uniques, assigned shares
+            3. Call getPositionsSummary() — exposures, uniques, assigned shares; getWorkingOrders() — unfilled orders count as committed
             4. Apply HARD RULES; message me if needed
             5. If safe: Call getStockCandidatesForPuts() for new puts list + chains via getOptionChain
             6. For assigned: Call getCoveredCallOptions or decide sell
-            7. Choose ONE best: contract to sell or share limit order
-            8. If none → hold + loosen for next
+            %s
         
-            Output ONLY valid JSON:
+            %s
+        """, currentTime, snapshot, choiceSteps, outputSpec);
+    }
+
+    public static final String DECISION_SCHEMA = """
             {
               "action": "halt" | "hold" | "sell_put" | "sell_call" | "sell_shares_limit",
               "ticker": null | string,
               "strike": null | number,
               "expiry": null | "YYYY-MM-DD",
               "quantity": null | integer (small: 1 for $2k),
-              "premium_target": null | number,
-              "limit_price": null | number,
-              "delta_approx": null | number,
-              "yield_per_day_pct": null | number,
+              "premiumTarget": null | number,
+              "limitPrice": null | number,
+              "deltaApprox": null | number,
+              "yieldPerDayPct": null | number,
+              "expectedMonthlyReturnPct": null | number,
               "rationale": "step-by-step: VIX, committed_pct, uniques, exposures, why this (fundamentals/yield), or hold/loosen",
-              "probability_success": null | 0.0–1.0,
-              "vix_value": number | null,
-              "vix_source": string | null
-            }
-        """, currentTime);
-
-        String decisionJson = workingAssistant.chat(prompt);
+              "probabilitySuccess": null | 0.0–1.0,
+              "vixValue": number | null,
+              "vixSource": string | null
+            }""";
 
-        log.info("Thufir raw decision: {}", decisionJson);
+    private void runSingleDecisionCycle(String currentTime, String snapshot) {
+        String prompt = cyclePrompt(currentTime, snapshot, """
+            7. Choose ONE best: contract to sell or share limit order
+            8. If none → hold + loosen for next""",
+                "Output ONLY the decision object (schema enforced):\n" + DECISION_SCHEMA);
 
+        WheelDecision decisionResult;
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> decisionMap = objectMapper.readValue(decisionJson, Map.class);
-
-            TradeDecision decision = new TradeDecision();
-            decision.setTimestamp(LocalDateTime.now(ZoneId.of("America/Chicago")));
-            decision.setAction((String) decisionMap.get("action"));
-            decision.setTicker((String) decisionMap.getOrDefault("ticker", null));
-            decision.setRationale((String) decisionMap.get("rationale"));
-            decision.setDetailsJson(objectMapper.writeValueAsString(decisionMap));
-            decision.setProbabilitySuccess(getDouble(decisionMap, "probability_success"));
-            decision.setExpectedReturn(decisionMap.get("expected_monthly_return_pct") + "%");
+            decisionResult = requestDecision(prompt);
+        } catch (CycleBudgetExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            reportUndecodable(e);
+            return;
+        }
 
-            decisionRepo.save(decision);
-            log.info("Decision persisted: action={}, ticker={}", decision.getAction(), decision.getTicker());
+        log.info("Thufir decision: {}", decisionResult);
 
+        try {
+            TradeDecision decision = persistDecision(decisionResult);
             String action = decision.getAction();
 
-            if ("halt".equals(action) || "hold".equals(action)) {
-                log.info("Thufir cycle result: {}", action.toUpperCase());
-                communicationTools.sendMessageToLarry(
-                        "Cycle result: " + action.toUpperCase() + "\n" + decision.getRationale(),
-                        "halt".equals(action),
-                        "CYCLE_" + action.toUpperCase()
-                );
+            if (decisionResult.isStandDown()) {
+                reportStandDown(decisionResult);
                 return;
             }
 
-            if (!("sell_put".equals(action) || "sell_call".equals(action))) {
-                log.warn("Unknown action received: {}", action);
+            if (!decisionResult.isOptionSale()) {
+                log.warn("Unsupported action received: {}", action);
                 return;
             }
 
-            Map<String, Object> details = (Map<String, Object>) decisionMap.getOrDefault("details", decisionMap);
-
-            String expiryYYMMDD = ((String) decisionMap.get("expiry")).replace("-", "").substring(2); // e.g. 250321
-            String optionType = "sell_put".equals(action) ? "P" : "C";
-            String strikeStr = String.format("%.0f", ((Number) decisionMap.get("strike")).doubleValue());
-            String symbol = decision.getTicker() + " " + expiryYYMMDD + optionType + strikeStr;
-
-            Map<String, Object> leg = new HashMap<>();
-            leg.put("instrument-type", "Equity Option");
-            leg.put("symbol", symbol);
-            leg.put("quantity", decisionMap.get("quantity"));
-            leg.put("action", "Sell to Open");
-            leg.put("effect", "Open");
-
-            Map<String, Object> order = new HashMap<>();
-            order.put("time-in-force", "Day");
-            order.put("order-type", decisionMap.getOrDefault("order_type", "Limit"));
-            order.put("price", decisionMap.get("limit_price"));
-            order.put("price-effect", "Credit");
-            order.put("legs", List.of(leg));
-
-            Map<String, Object> balances = tastytradeClient.getAccountBalances();
-            Double cash = getDouble(balances, "cash-balance");
-            Double netLiq = getDouble(balances, "net-liquidating-value");
-            Double approxRisk = ((Number) decisionMap.get("strike")).doubleValue() * 100 * ((Number) decisionMap.get("quantity")).intValue();
-
-            if (cash == null || netLiq == null || approxRisk > cash * 1.1) {
-                log.warn("Pre-execution risk check failed - insufficient cash or excessive risk");
-                communicationTools.sendMessageToLarry(
-                        "PRE-EXECUTION HALT: Insufficient cash or risk too high for " + decision.getTicker() +
-                                "\nRationale: " + decision.getRationale(),
-                        true,
-                        "TRADE_HALT_RISK"
-                );
+            RiskEngine.Assessment risk = riskEngine.evaluate(List.of(decisionResult),
+                    portfolioLedger.current(), orderManager.workingCommitment());
+
+            if (!risk.rejected().isEmpty()) {
+                log.warn("Pre-execution risk check failed - {}", risk.rejected().get(0).reason());
+                reportRiskRejection(decision.getTicker(), risk.rejected().get(0).reason() + "\nRationale: " + decision.getRationale());
                 return;
             }
 
-            Map<String, Object> orderResult = tastytradeClient.placeOrder(order);
-
-            log.info("Sandbox order placed successfully: {}", orderResult);
+            submitAndTrack(decisionResult);
 
+        } catch (Exception e) {
+            log.error("Failed to execute decision: {}", decisionResult, e);
             communicationTools.sendMessageToLarry(
-                    "SANDBOX TRADE EXECUTED\n" +
-                            "Action: " + action + "\n" +
-                            "Ticker: " + decision.getTicker() + "\n" +
-                            "Strike/Expiry: " + decisionMap.get("strike") + " / " + decisionMap.get("expiry") + "\n" +
-                            "Quantity: " + decisionMap.get("quantity") + "\n" +
-                            "Rationale excerpt: " + decision.getRationale().substring(0, Math.min(200, decision.getRationale().length())),
-                    false,
-                    "TRADE_EXEC_SANDBOX"
+                    "CRITICAL: Wheel cycle execution failed — holding this cycle\nDecision:\n" + decisionResult + "\nError: " + e.getMessage(),
+                    true,
+                    "CYCLE_CRITICAL_ERROR"
             );
+        }
+    }
+
+    /**
+     * Batch mode: the model ranks every action worth taking, the risk engine accepts what fits as one
+     * portfolio, and the accepted orders are submitted concurrently within this cycle.
+     */
+    private void runBatchCycle(String currentTime, String snapshot) {
+        String prompt = cyclePrompt(currentTime, snapshot, String.format("""
+            7. Rank EVERY contract to sell or share limit order worth placing now, best first (at most %d).
+               Capital is checked across the whole list, so include enough to reach target deployment.
+            8. If none → a single hold entry + loosen for next""", riskEngineMaxOrders),
+                "Output ONLY the plan object (schema enforced): {\"actions\": [decision, ...], \"rationale\": string}, each decision:\n"
+                        + DECISION_SCHEMA);
+
+        WheelPlan plan;
+        try {
+            plan = requestPlan(prompt);
+        } catch (CycleBudgetExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            reportUndecodable(e);
+            return;
+        }
+
+        log.info("Thufir plan: {} actions — {}", plan.actions().size(), plan.rationale());
+
+        try {
+            List<WheelDecision> sales = plan.optionSales();
+            if (sales.isEmpty()) {
+                WheelDecision standDown = plan.standDown() != null ? plan.standDown()
+                        : new WheelDecision("hold", null, null, null, null, null, null, null, null, null,
+                        plan.rationale(), null, null, null);
+                persistDecision(standDown);
+                reportStandDown(standDown);
+                return;
+            }
+            for (WheelDecision sale : sales) {
+                persistDecision(sale);
+            }
+
+            RiskEngine.Assessment risk = riskEngine.evaluate(sales, portfolioLedger.current(), orderManager.workingCommitment());
+            risk.rejected().forEach(r -> log.info("Risk engine rejected {} {} {}: {}",
+                    r.decision().action(), r.decision().ticker(), r.decision().strike(), r.reason()));
+
+            if (risk.allRejected()) {
+                reportRiskRejection("batch of " + sales.size(), risk.rejected().get(0).reason());
+                return;
+            }
+
+            List<CompletableFuture<Boolean>> submissions = risk.accepted().stream()
+                    .map(sale -> CompletableFuture.supplyAsync(() -> submitAndTrack(sale), toolExecutor))
+                    .toList();
+            CompletableFuture.allOf(submissions.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+            int placed = 0;
+            List<String> failures = new ArrayList<>();
+            for (int i = 0; i < submissions.size(); i++) {
+                try {
+                    if (submissions.get(i).join()) {
+                        placed++;
+                    }
+                } catch (Exception e) {
+                    WheelDecision sale = risk.accepted().get(i);
+                    log.error("Batch order failed: {}", sale, e);
+                    failures.add(sale.action() + " " + sale.ticker() + " " + sale.strike() + ": " + e.getMessage());
+                }
+            }
 
+            StringBuilder report = new StringBuilder(String.format(
+                    "BATCH CYCLE: %d/%d orders placed, new commitment $%.2f%n", placed, sales.size(), risk.newCommitment()));
+            risk.rejected().forEach(r -> report.append("  rejected ").append(r.decision().ticker())
+                    .append(' ').append(r.decision().strike()).append(": ").append(r.reason()).append('\n'));
+            failures.forEach(f -> report.append("  failed ").append(f).append('\n'));
+            communicationTools.sendMessageToLarry(report.toString(), !failures.isEmpty(), "BATCH_CYCLE");
         } catch (Exception e) {
-            log.error("Failed to parse decision or execute: {}", decisionJson, e);
+            log.error("Failed to execute plan: {}", plan, e);
             communicationTools.sendMessageToLarry(
-                    "CRITICAL: Wheel cycle decision parsing / execution failed\nRaw JSON:\n" + decisionJson + "\nError: " + e.getMessage(),
+                    "CRITICAL: Batch wheel cycle execution failed — holding this cycle\nError: " + e.getMessage(),
                     true,
                     "CYCLE_CRITICAL_ERROR"
             );
         }
     }
 
-    private Double getDouble(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) {
-            return null;
+    /**
+     * A cycle that ran out of time decided nothing, so it is recorded as a hold. Trading is not degraded: the
+     * next cycle starts with a fresh budget.
+     */
+    private void recordBudgetHold(CycleBudgetExceededException e) {
+        log.warn("Wheel cycle out of time during {} — holding", e.stage());
+        String rationale = "[BUDGET] " + e.getMessage();
+
+        TradeDecision decision = new TradeDecision();
+        decision.setTimestamp(LocalDateTime.now(ZoneId.of("America/Chicago")));
+        decision.setAction("hold");
+        decision.setRationale(rationale);
+        decision.setDetailsJson(String.format("{\"budgetMs\":%d,\"stage\":\"%s\"}", cycleBudgetMs, e.stage()));
+        decision.setAccountId(accounts.current().id());
+        telemetry.stamp(decision);
+        decisionRepo.save(decision);
+        telemetry.decided(decision);
+
+        communicationTools.sendMessageToLarry("Cycle result: HOLD\n" + rationale, false, "CYCLE_BUDGET");
+    }
+
+    /**
+     * One bad reply is a hold for this cycle; the next cycle asks again.
+     */
+    private void reportUndecodable(Exception e) {
+        log.error("Failed to obtain a valid wheel decision", e);
+        communicationTools.sendMessageToLarry(
+                "CRITICAL: Wheel cycle decision could not be decoded — holding this cycle\nError: " + e.getMessage(),
+                true,
+                "CYCLE_CRITICAL_ERROR"
+        );
+    }
+
+    private TradeDecision persistDecision(WheelDecision decisionResult) throws JsonProcessingException {
+        TradeDecision decision = new TradeDecision();
+        decision.setTimestamp(LocalDateTime.now(ZoneId.of("America/Chicago")));
+        decision.setAction(decisionResult.action());
+        decision.setTicker(decisionResult.ticker());
+        decision.setRationale(decisionResult.rationale());
+        decision.setDetailsJson(objectMapper.writeValueAsString(decisionResult));
+        decision.setProbabilitySuccess(decisionResult.probabilitySuccess());
+        decision.setExpectedReturn(decisionResult.expectedMonthlyReturnPct() + "%");
+        decision.setAccountId(accounts.current().id());
+        telemetry.stamp(decision);
+
+        decisionRepo.save(decision);
+        telemetry.decided(decision);
+        log.info("Decision persisted: id={}, action={}, ticker={}, trace={}",
+                decision.getId(), decision.getAction(), decision.getTicker(), decision.getTraceId());
+        return decision;
+    }
+
+    private void reportStandDown(WheelDecision decisionResult) {
+        String action = decisionResult.action();
+        log.info("Thufir cycle result: {}", action.toUpperCase());
+        if ("halt".equals(action)) {
+            tradingControl.haltForDay(decisionResult.rationale(), "model");
+        }
+        communicationTools.sendMessageToLarry(
+                "Cycle result: " + action.toUpperCase() + "\n" + decisionResult.rationale(),
+                "halt".equals(action),
+                "CYCLE_" + action.toUpperCase()
+        );
+    }
+
+    /**
+     * A rejected order is dropped and trading carries on; the next cycle decides against the updated book.
+     */
+    private void reportRiskRejection(String subject, String reason) {
+        communicationTools.sendMessageToLarry(
+                "PRE-EXECUTION REJECT: Insufficient cash or risk too high for " + subject + " — order not placed\nReason: " + reason,
+                false,
+                "TRADE_RISK_REJECTED"
+        );
+    }
+
+    private static String optionSymbol(WheelDecision decisionResult) {
+        char optionType = "sell_put".equals(decisionResult.action()) ? 'P' : 'C';
+        return OccSymbols.format(decisionResult.ticker(), LocalDate.parse(decisionResult.expiry()),
+                optionType, decisionResult.strike()); // e.g. "AAPL  250321P00150000"
+    }
+
+    private Map<String, Object> buildOrder(WheelDecision decisionResult) {
+        Map<String, Object> leg = new HashMap<>();
+        leg.put("instrument-type", "Equity Option");
+        leg.put("symbol", optionSymbol(decisionResult));
+        leg.put("quantity", decisionResult.quantity());
+        leg.put("action", "Sell to Open");
+        leg.put("effect", "Open");
+
+        Map<String, Object> order = new HashMap<>();
+        order.put("time-in-force", "Day");
+        order.put("order-type", "Limit");
+        order.put("price", decisionResult.limitPrice());
+        order.put("price-effect", "Credit");
+        order.put("legs", List.of(leg));
+        return order;
+    }
+
+    /**
+     * Submits one option sale through the idempotency layer and hands it to the order manager.
+     *
+     * @return true if a new order reached the broker, false if it was suppressed as a duplicate
+     */
+    private boolean submitAndTrack(WheelDecision decisionResult) {
+        String action = decisionResult.action();
+        Map<String, Object> order = buildOrder(decisionResult);
+        String symbol = optionSymbol(decisionResult);
+
+        OrderSubmissionService.SubmissionResult submission = orderSubmissionService.submit(order,
+                decisionResult.ticker(), decisionResult.strike(), decisionResult.expiry(), action);
+        if (submission.duplicate()) {
+            communicationTools.sendMessageToLarry(
+                    "Duplicate order suppressed: " + action + " " + symbol +
+                            (submission.orderId() != null ? " (already working as #" + submission.orderId() + ")" : ""),
+                    false,
+                    "ORDER_DUPLICATE"
+            );
+            return false;
+        }
+        Map<String, Object> orderResult = submission.orderResult();
+
+        log.info("Sandbox order placed successfully: {}", orderResult);
+        orderManager.track(orderResult, order, decisionResult);
+
+        String rationale = decisionResult.rationale();
+        communicationTools.sendMessageToLarry(
+                "SANDBOX TRADE EXECUTED\n" +
+                        "Action: " + action + "\n" +
+                        "Ticker: " + decisionResult.ticker() + "\n" +
+                        "Strike/Expiry: " + decisionResult.strike() + " / " + decisionResult.expiry() + "\n" +
+                        "Quantity: " + decisionResult.quantity() + "\n" +
+                        "Rationale excerpt: " + rationale.substring(0, Math.min(200, rationale.length())),
+                false,
+                "TRADE_EXEC_SANDBOX"
+        );
+        return true;
+    }
+
+    /**
+     * Persists and reports a cycle that was settled by the router without consulting the full model. A rules hold
+     * (a VIX or broker blip) holds this cycle only; a rules halt stops trading for the day.
+     */
+    private void recordRoutedStandDown(CycleRouter.RoutingDecision routing) {
+        String rationale = "[" + routing.route() + "] " + routing.reason();
+
+        TradeDecision decision = new TradeDecision();
+        decision.setTimestamp(LocalDateTime.now(ZoneId.of("America/Chicago")));
+        decision.setAction(routing.action());
+        decision.setRationale(rationale);
+        decision.setDetailsJson(String.format("{\"route\":\"%s\"}", routing.route()));
+        decision.setAccountId(accounts.current().id());
+        telemetry.stamp(decision);
+        decisionRepo.save(decision);
+        telemetry.decided(decision);
+
+        communicationTools.sendMessageToLarry(
+                "Cycle result: " + routing.action().toUpperCase() + "\n" + rationale,
+                routing.urgent() || "halt".equals(routing.action()),
+                routing.urgent() ? "TOOL_FAIL" : "CYCLE_" + routing.action().toUpperCase()
+        );
+
+        if (routing.route() == CycleRouter.Route.RULES_HALT) {
+            tradingControl.haltForDay(routing.reason(), "router");
+        }
+    }
+
+    /**
+     * Asks the model for a schema-constrained decision. If the provider still returns something the
+     * structured decoder rejects, the raw reply is already in chat memory, so it is repaired locally
+     * instead of re-prompting.
+     */
+    private WheelDecision requestDecision(String prompt) {
+        try {
+            return CycleContext.bounded("decision", () -> workingAssistant.decideWheelCycle(memoryId(), prompt));
+        } catch (OutputParsingException e) {
+            log.warn("Structured decision decode failed ({}), attempting local repair", e.getMessage());
+            return WheelDecisionParser.parse(lastAssistantReply());
         }
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
+    }
+
+    private WheelPlan requestPlan(String prompt) {
+        try {
+            return CycleContext.bounded("plan", () -> workingAssistant.planWheelCycle(memoryId(), prompt));
+        } catch (OutputParsingException e) {
+            log.warn("Structured plan decode failed ({}), attempting local repair", e.getMessage());
+            return WheelDecisionParser.parsePlan(lastAssistantReply());
         }
+    }
 
-        if (value instanceof String) {
-            try {
-                return Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                log.warn("Failed to parse {} value '{}' as Double", key, value);
-                return null;
+    private Object memoryId() {
+        return accounts.current().memoryId();
+    }
+
+    private String lastAssistantReply() {
+        List<ChatMessage> messages = chatMemoryProvider.get(memoryId()).messages();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof AiMessage aiMessage && aiMessage.text() != null) {
+                return aiMessage.text();
             }
         }
-        log.warn("Unexpected type for {}: {}", key, value.getClass().getSimpleName());
         return null;
     }
+
 }
\ No newline at end of file
@@ -1,26 +1,17 @@
 package com.larrydevincarter.thufir.tools;
 
+import com.larrydevincarter.thufir.services.DiscordNotificationDispatcher;
 import dev.langchain4j.agent.tool.Tool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.HashMap;
-import java.util.Map;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class CommunicationTools {
 
-    private final RestTemplate restTemplate;
-
-    @Value("${discord.webhook.url:}")
-    private String discordWebhookUrl;
+    private final DiscordNotificationDispatcher notificationDispatcher;
 
     @Tool("""
         Send a message to Larry (the builder/owner).
@@ -47,44 +38,9 @@ public class CommunicationTools {
         Only urgent=true triggers a notification/ping.
         """)
     public String sendMessageToLarry(String content, boolean urgent, String context) {
-        String messageBlock = String.format(
-                "Time: %s CST\nContent: %s\nContext: D%s\nUrgent: %b\n\n",
-                LocalDateTime.now(ZoneId.of("America/Chicago")), content, context, urgent
-        );
-
-        if (!discordWebhookUrl.isBlank()) {
-            sendDiscordWebhook(content, urgent, context);
-        }
+        notificationDispatcher.enqueue(content, urgent, context);
 
-        log.info("Message sent to Larry: {} (urgent={}, context={})", content, urgent, context);
+        log.info("Message queued for Larry: {} (urgent={}, context={})", content, urgent, context);
         return "Message delivered to Larry";
     }
-
-    private void sendDiscordWebhook(String message, boolean urgent, String context) {
-        try {
-            Map<String, Object> body = new HashMap<>();
-
-            String finalContent = message;
-
-            if (urgent) {
-                finalContent = "@everyone " + message;
-            }
-
-            if (urgent) {
-                finalContent = "🚨 URGENT [" + context + "]: " + finalContent;
-            } else {
-                finalContent = "ℹ️ [" + context + "]: " + finalContent;
-            }
-
-            body.put("content", finalContent);
-
-            body.put("username", urgent ? "Thufir Alert" : "Thufir Log");
-            body.put("avatar_url", "https://imgur.com/hOCbbwF.jpeg");
-
-            restTemplate.postForObject(discordWebhookUrl, body, String.class);
-            log.debug("Discord webhook sent: {}", finalContent);
-        } catch (Exception e) {
-            log.error("Discord webhook delivery failed: {}", e.getMessage());
-        }
-    }
 }
\ No newline at end of file
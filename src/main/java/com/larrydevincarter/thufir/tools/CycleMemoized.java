@@ -0,0 +1,21 @@
+package com.larrydevincarter.thufir.tools;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only @Tool whose result can be reused for identical arguments within one cycle.
+ * Never put this on tools with side effects (messages, orders).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CycleMemoized {
+
+    /**
+     * True for market data that is the same for every account, so account cycles running in parallel share one
+     * result. Leave false for anything read from an account.
+     */
+    boolean shared() default false;
+}
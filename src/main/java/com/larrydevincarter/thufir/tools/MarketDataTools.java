@@ -1,5 +1,6 @@
 package com.larrydevincarter.thufir.tools;
 
+import com.larrydevincarter.thufir.services.MarketSnapshotService;
 import dev.langchain4j.agent.tool.Tool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,15 +20,36 @@ import java.util.regex.Pattern;
 public class MarketDataTools {
 
     private final RestTemplate restTemplate;
+    private final MarketSnapshotService marketSnapshot;
 
-    record VixResult(double value, String asOf, String source, String rawSnippet) {
-        String toFormattedString() {
+    private static final Pattern PRICE = Pattern.compile("(\\d{1,2}\\.\\d{2})");
+    private static final Pattern CNBC_TIME = Pattern.compile("(\\d{2}/\\d{2}/\\d{2}\\s*(AM|PM)?\\s*EST)");
+    private static final Pattern CNBC_CHANGE = Pattern.compile("([+-]\\d{1,2}\\.\\d{2})\\s*\\(([+-]\\d{1,2}\\.\\d{2}%)\\)");
+    /**
+     * What VIX readers get when neither source answered. Callers look for "CRITICAL FAILURE" in it.
+     */
+    public static final String VIX_CRITICAL_FAILURE = "ERROR: VIX fetch CRITICAL FAILURE — BOTH SOURCES DOWN — HALT TRADING & ALERT LARRY";
+
+    private static final String[] INVESTING_ANCHORS = {"Closed ·", " + ", "Day's Range", "CBOE Volatility Index"};
+
+    public record VixResult(double value, String asOf, String source, String rawSnippet) {
+        public String toFormattedString() {
             return String.format("Current VIX: %.2f (as of %s, %s)", value, asOf, source);
         }
     }
 
     @Tool("Fetch the current or most recent CBOE VIX level from reliable public sources. Returns the value and as-of date.")
+    @CycleMemoized(shared = true)
     public String getCurrentVix() {
+        return marketSnapshot.vix();
+    }
+
+    /**
+     * Reads both sources now. Called by {@link MarketSnapshotService}; everything else reads the snapshot.
+     *
+     * @throws IllegalStateException if neither source returned a value
+     */
+    public String fetchCurrentVix() {
         Optional<VixResult> cnbc = tryCnbc();
         Optional<VixResult> investing = tryInvestingDotCom();
 
@@ -49,40 +71,13 @@ public class MarketDataTools {
         }
 
         log.error("Both VIX sources failed completely");
-        return "VIX fetch CRITICAL FAILURE — BOTH SOURCES DOWN — HALT TRADING & ALERT LARRY";
+        throw new IllegalStateException("both VIX sources down");
     }
 
     private Optional<VixResult> tryCnbc() {
         try {
-            String url = "https://www.cnbc.com/quotes/.VIX";
-            String html = restTemplate.getForObject(url, String.class);
-
-            String marker = "Last |";
-            int markerIndex = html.indexOf(marker);
-            if (markerIndex == -1) {
-                log.warn("CNBC marker not found.");
-                return Optional.empty();
-            }
-
-            String snippet = html.substring(markerIndex, Math.min(markerIndex + 300, html.length()));
-
-            Matcher timeMatcher = Pattern.compile("(\\d{2}/\\d{2}/\\d{2}\\s*(AM|PM)?\\s*EST)").matcher(snippet);
-            String timePart = timeMatcher.find() ? timeMatcher.group(1) : "last close (delayed)";
-
-            Matcher valueMatcher = Pattern.compile("(\\d{1,2}\\.\\d{2})").matcher(snippet.substring(timeMatcher.end()));
-            if (valueMatcher.find()) {
-                String vixValueStr = valueMatcher.group(1);
-                double vixValue = Double.parseDouble(vixValueStr);
-
-                Matcher changeMatcher = Pattern.compile("([+-]\\d{1,2}\\.\\d{2})\\s*\\(([+-]\\d{1,2}\\.\\d{2}%)\\)").matcher(snippet.substring(valueMatcher.end()));
-                String change = changeMatcher.find() ? changeMatcher.group(0) : "";
-
-                String formattedAsOf = timePart + (change.isEmpty() ? "" : " " + change);
-                return Optional.of(new VixResult(vixValue, formattedAsOf, "CNBC delayed", snippet));
-            }
-
-            log.warn("CNBC value extraction failed from snippet: {}", snippet);
-            return Optional.empty();
+            String html = restTemplate.getForObject("https://www.cnbc.com/quotes/.VIX", String.class);
+            return parseCnbc(html);
         } catch (Exception e) {
             log.error("CNBC fetch error: {}", e.getMessage());
             return Optional.empty();
@@ -97,47 +92,83 @@ public class MarketDataTools {
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             String html = restTemplate.exchange(url, HttpMethod.GET, entity, String.class).getBody();
-            String snippet = null;
-            String keyMarker = "data-test=\"instrument-price-last\"";
-            int idx = html.indexOf(keyMarker);
-            if (idx != -1) {
-                snippet = html.substring(Math.max(0, idx - 100), Math.min(html.length(), idx + 300));
-                Matcher m = Pattern.compile("(\\d{1,2}\\.\\d{2})").matcher(snippet);
-                while (m.find()) {
-                    String valueStr = m.group(1);
-                    double val = Double.parseDouble(valueStr);
-                    if (val >= 5.0 && val <= 80.0) {
-                        String context = snippet.substring(Math.max(0, m.start() - 80), Math.min(snippet.length(), m.end() + 150));
-                        if (context.contains("+") || context.contains("-") || context.contains("Closed") || context.contains("Day's Range")) {
-                            String asOf = context.contains("Closed") ? "closed (delayed)" : "intraday (delayed)";
-                            return Optional.of(new VixResult(val, asOf, "Investing.com", snippet));
-                        }
+            return parseInvesting(html);
+        } catch (Exception e) {
+            log.error("Investing.com error: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts the VIX quote from CNBC's quote page. Pure, so it can be benchmarked on recorded pages.
+     */
+    public static Optional<VixResult> parseCnbc(String html) {
+        String marker = "Last |";
+        int markerIndex = html.indexOf(marker);
+        if (markerIndex == -1) {
+            log.warn("CNBC marker not found.");
+            return Optional.empty();
+        }
+
+        String snippet = html.substring(markerIndex, Math.min(markerIndex + 300, html.length()));
+
+        Matcher timeMatcher = CNBC_TIME.matcher(snippet);
+        boolean timed = timeMatcher.find();
+        String timePart = timed ? timeMatcher.group(1) : "last close (delayed)";
+
+        Matcher valueMatcher = PRICE.matcher(snippet).region(timed ? timeMatcher.end() : 0, snippet.length());
+        if (valueMatcher.find()) {
+            double vixValue = Double.parseDouble(valueMatcher.group(1));
+
+            Matcher changeMatcher = CNBC_CHANGE.matcher(snippet).region(valueMatcher.end(), snippet.length());
+            String change = changeMatcher.find() ? changeMatcher.group(0) : "";
+
+            String formattedAsOf = timePart + (change.isEmpty() ? "" : " " + change);
+            return Optional.of(new VixResult(vixValue, formattedAsOf, "CNBC delayed", snippet));
+        }
+
+        log.warn("CNBC value extraction failed from snippet: {}", snippet);
+        return Optional.empty();
+    }
+
+    /**
+     * Extracts the VIX quote from Investing.com's index page, trying the price element first and then known anchors.
+     */
+    public static Optional<VixResult> parseInvesting(String html) {
+        String snippet = null;
+        String keyMarker = "data-test=\"instrument-price-last\"";
+        int idx = html.indexOf(keyMarker);
+        if (idx != -1) {
+            snippet = html.substring(Math.max(0, idx - 100), Math.min(html.length(), idx + 300));
+            Matcher m = PRICE.matcher(snippet);
+            while (m.find()) {
+                double val = Double.parseDouble(m.group(1));
+                if (val >= 5.0 && val <= 80.0) {
+                    String context = snippet.substring(Math.max(0, m.start() - 80), Math.min(snippet.length(), m.end() + 150));
+                    if (context.contains("+") || context.contains("-") || context.contains("Closed") || context.contains("Day's Range")) {
+                        String asOf = context.contains("Closed") ? "closed (delayed)" : "intraday (delayed)";
+                        return Optional.of(new VixResult(val, asOf, "Investing.com", snippet));
                     }
                 }
             }
+        }
 
-            String[] anchors = {"Closed ·", " + ", "Day's Range", "CBOE Volatility Index"};
-            for (String anchor : anchors) {
-                idx = html.indexOf(anchor);
-                if (idx != -1) {
-                    snippet = html.substring(Math.max(0, idx - 200), Math.min(html.length(), idx + 200));
-                    Matcher m = Pattern.compile("(\\d{1,2}\\.\\d{2})").matcher(snippet);
-                    if (m.find()) {
-                        String valueStr = m.group(1);
-                        double val = Double.parseDouble(valueStr);
-                        if (val >= 5.0 && val <= 80.0) {
-                            String asOf = anchor.contains("Closed") ? "closed (delayed)" : "intraday (delayed)";
-                            return Optional.of(new VixResult(val, asOf, "Investing.com anchored near '" + anchor + "'", snippet));
-                        }
+        for (String anchor : INVESTING_ANCHORS) {
+            idx = html.indexOf(anchor);
+            if (idx != -1) {
+                snippet = html.substring(Math.max(0, idx - 200), Math.min(html.length(), idx + 200));
+                Matcher m = PRICE.matcher(snippet);
+                if (m.find()) {
+                    double val = Double.parseDouble(m.group(1));
+                    if (val >= 5.0 && val <= 80.0) {
+                        String asOf = anchor.contains("Closed") ? "closed (delayed)" : "intraday (delayed)";
+                        return Optional.of(new VixResult(val, asOf, "Investing.com anchored near '" + anchor + "'", snippet));
                     }
                 }
             }
-
-            log.warn("Investing.com: Reliable VIX price not extracted: {}", snippet);
-            return Optional.empty();
-        } catch (Exception e) {
-            log.error("Investing.com error: " + e.getMessage());
-            return Optional.empty();
         }
+
+        log.warn("Investing.com: Reliable VIX price not extracted: {}", snippet);
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import com.larrydevincarter.thufir.clients.OptionScannerClient;
 import com.larrydevincarter.thufir.models.dtos.OptionBatchRequestDto;
 import com.larrydevincarter.thufir.models.dtos.OptionBatchResponseDto;
 import com.larrydevincarter.thufir.models.dtos.StockCandidatesRequestDto;
+import com.larrydevincarter.thufir.services.OptionAnalytics;
 import dev.langchain4j.agent.tool.Tool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,12 +22,14 @@ public class OptionScannerTools {
 
     private final OptionScannerClient client;
     private final ObjectMapper objectMapper;
+    private final OptionAnalytics optionAnalytics;
 
     @Tool("""
     Fetch ranked, filtered stock candidates for new cash-secured puts.
     Thufir passes a structured request with hold streak, liquidity, and excluded tickers.
     Returns top-ranked tickers + metrics.
     """)
+    @CycleMemoized(shared = true)
     public String getStockCandidatesForPuts(
             int holdStreak,
             double remainingLiquidity,
@@ -50,12 +53,16 @@ public class OptionScannerTools {
     @Tool("""
     Fetch batch option chains using pre-fetched prices.
     Provide JSON list of DTOs: [{"ticker":"AAPL","currentPrice":225.50}, ...]
-    Returns asset financials and chains per ticker.
+    Returns asset financials and chains per ticker, each chain ranked best first by yield per day
+    times probability of profit. Every contract carries locally computed impliedVolatility, modelDelta,
+    thetaPerDay, probabilityOfProfit (short side) and americanValue — use these numbers, do not estimate them.
     """)
+    @CycleMemoized(shared = true)
     public String getBatchOptionChains(String tickerPriceDtosJson) {
         try {
             List<OptionBatchRequestDto> dtos = objectMapper.readValue(tickerPriceDtosJson, new TypeReference<>() {});
             OptionBatchResponseDto response = client.getBatchOptionChains(dtos);
+            optionAnalytics.enrich(response);
             return "Batch option chains:\n" + objectMapper.writeValueAsString(response);
         } catch (Exception e) {
             return "ERROR batch chains: " + e.getMessage();
@@ -67,6 +74,7 @@ public class OptionScannerTools {
     Provide JSON list of DTOs: [{"ticker":"AAPL","currentPrice":225.50,"costBasis":210.00}, ...]
     Returns asset data and OTM covered call options.
     """)
+    @CycleMemoized(shared = true)
     public String getBatchCoveredCallCandidates(String tickerPriceDtosJson) {
         try {
             List<OptionBatchRequestDto> dtos = objectMapper.readValue(tickerPriceDtosJson, new TypeReference<>() {});
@@ -2,17 +2,23 @@ package com.larrydevincarter.thufir.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.MarketSnapshot.Reading;
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WorkingOrder;
+import com.larrydevincarter.thufir.services.AccountRegistry;
+import com.larrydevincarter.thufir.services.MarketSnapshotService;
+import com.larrydevincarter.thufir.services.OrderManager;
+import com.larrydevincarter.thufir.services.PortfolioLedger;
 import dev.langchain4j.agent.tool.Tool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,9 +30,10 @@ public class TastytradeTools {
     private final TastytradeClient tastytradeClient;
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
-
-    @Value("${tastytrade.sandbox.account-number}")
-    private String accountNumber;
+    private final OrderManager orderManager;
+    private final PortfolioLedger portfolioLedger;
+    private final AccountRegistry accounts;
+    private final MarketSnapshotService marketSnapshot;
 
     @Tool("""
         Fetch current account balances and key metrics from Tastytrade.
@@ -36,9 +43,11 @@ public class TastytradeTools {
         - Confirm buying power is sufficient
         Returns a human-readable summary + raw data for precision.
         """)
+    @CycleMemoized
     public String getAccountBalances() {
         try {
-            Map<String, Object> balances = tastytradeClient.getAccountBalances();
+            Reading<Map<String, Object>> reading = marketSnapshot.balances();
+            Map<String, Object> balances = reading.value();
 
             Double cashBalance = getDouble(balances, "cash-balance");
             Double netLiq = getDouble(balances, "net-liquidating-value");
@@ -53,10 +62,12 @@ public class TastytradeTools {
                             "  Option Buying Power:   $%.2f\n" +
                             "  Stock Buying Power:    $%.2f\n" +
                             "  Maintenance Requirement: $%.2f\n" +
-                            "  Deployed %%:            %.1f%%\n",
-                    accountNumber,
+                            "  Deployed %%:            %.1f%%\n" +
+                            "  As of:                 %s\n",
+                    accounts.current().accountNumber(),
                     cashBalance, netLiq, optionBuyingPower, stockBuyingPower, maintenanceRequirement, (maintenanceRequirement != null && netLiq != null && netLiq > 0)
-                            ? (maintenanceRequirement / netLiq * 100.0) : 0.0
+                            ? (maintenanceRequirement / netLiq * 100.0) : 0.0,
+                    reading.at()
             );
 
             return summary + "\nRaw data: " + balances;
@@ -76,91 +87,55 @@ public class TastytradeTools {
     - Seeing existing wheel legs (short puts, covered calls)
     Returns structured summary with per-underlying exposure, committed amounts, and counts.
     """)
+    @CycleMemoized
     public String getPositionsSummary() {
         try {
-            Map<String, Object> positionsData = tastytradeClient.getPositions();
-            List<Map<String, Object>> items = (List<Map<String, Object>>) positionsData.get("items");
-
-            if (items == null || items.isEmpty()) {
-                return "No open positions in account " + accountNumber + ".";
-            }
-
-            // Fetch net liq once for exposure %
-            Map<String, Object> balances = tastytradeClient.getAccountBalances();
-            Double netLiq = getDouble(balances, "net-liquidating-value");
-            if (netLiq == null || netLiq <= 0) {
-                netLiq = 1.0;
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("Open Positions in account %s (total count: %d):\n\n", accountNumber, items.size()));
-
-            double totalCommittedCsp = 0.0;
-            Map<String, Double> underlyingExposure = new HashMap<>();
-            Map<String, Integer> underlyingCount = new HashMap<>();
-            int assignedSharesCount = 0;
-
-            for (Map<String, Object> pos : items) {
-                String underlying = (String) pos.get("underlying-symbol");
-                String symbol = (String) pos.get("symbol");
-                String instrType = (String) pos.get("instrument-type");
-                Double qty = getDouble(pos, "quantity");
-                Double avgPrice = getDouble(pos, "average-open-price");
-                Double mktValue = getDouble(pos, "market-value");
-                String side = (String) pos.get("long-short");
+            PortfolioSnapshot portfolio = marketSnapshot.view().portfolio(accounts.current().id());
+            return renderPositionsSummary(accounts.current().accountNumber(),
+                    portfolio != null ? portfolio : portfolioLedger.current());
+        } catch (Exception e) {
+            log.error("TastytradeTools.getPositionsSummary failed", e);
+            return "ERROR: Could not fetch positions summary. Details: " + e.getMessage();
+        }
+    }
 
-                if (qty == null) qty = 0.0;
-                if (mktValue == null) mktValue = 0.0;
+    public static String renderPositionsSummary(String accountNumber, PortfolioSnapshot portfolio) {
+        if (portfolio.positions().isEmpty()) {
+            return "No open positions in account " + accountNumber + ".";
+        }
 
-                sb.append(String.format(
-                        "Underlying: %s | Symbol: %s | Type: %s | Qty: %.0f | Avg Price: $%.2f | Mkt Value: $%.2f\n",
-                        underlying, symbol, instrType, qty, avgPrice, mktValue
-                ));
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Open Positions in account %s (total count: %d, ledger v%d as of %s):\n\n",
+                accountNumber, portfolio.positions().size(), portfolio.version(), portfolio.asOf()));
 
-                double exposure = Math.abs(mktValue);
-                underlyingExposure.merge(underlying, exposure, Double::sum);
-                underlyingCount.merge(underlying, 1, Integer::sum);
-
-                if ("Equity Option".equals(instrType) && "Put".equalsIgnoreCase((String) pos.getOrDefault("option-type", ""))
-                        && qty < 0) { // short position
-                    Double strike = getDouble(pos, "strike-price");
-                    if (strike != null) {
-                        double committed = strike * 100 * Math.abs(qty);
-                        totalCommittedCsp += committed;
-                        sb.append(String.format("  → Short Put | Committed cash: $%.2f (strike %.2f)\n", committed, strike));
-                    }
-                }
-
-                if ("Stock".equals(instrType) && qty > 0) {
-                    assignedSharesCount += qty.intValue();
-                    sb.append("  → Assigned shares (covered call candidate)\n");
-                }
+        for (PortfolioPosition pos : portfolio.positions().values()) {
+            sb.append(pos.describe()).append('\n');
+            if (pos.isShortPut() && pos.strike() != null) {
+                sb.append(String.format("  → Short Put | Committed cash: $%.2f (strike %.2f)\n", pos.committedCash(), pos.strike()));
+            }
+            if (pos.isLongStock()) {
+                sb.append("  → Assigned shares (covered call candidate)\n");
             }
+        }
 
-            long uniqueUnderlyings = underlyingExposure.size();
-            sb.append("\nSummary:\n");
-            sb.append(String.format("  Unique underlyings: %d\n", uniqueUnderlyings));
-            sb.append(String.format("  Total assigned shares: %d\n", assignedSharesCount));
-            sb.append(String.format("  Total CSP committed cash: $%.2f\n", totalCommittedCsp));
+        double netLiq = portfolio.netLiq() > 0 ? portfolio.netLiq() : 1.0;
+        sb.append("\nSummary:\n");
+        sb.append(String.format("  Unique underlyings: %d\n", portfolio.uniqueUnderlyings()));
+        sb.append(String.format("  Total assigned shares: %d\n", portfolio.assignedShares()));
+        sb.append(String.format("  Total CSP committed cash: $%.2f\n", portfolio.committedCash()));
 
-            sb.append("\nExposure per underlying (market value % of net liq):\n");
-            Double finalNetLiq = netLiq;
-            underlyingExposure.forEach((und, exp) -> {
-                double pct = (exp / finalNetLiq) * 100.0;
-                sb.append(String.format("  %s: $%.2f (%.2f%% of net liq)\n", und, exp, pct));
-            });
+        sb.append("\nExposure per underlying (market value, short puts at strike notional, % of net liq):\n");
+        portfolio.exposureByUnderlying().forEach((und, exp) ->
+                sb.append(String.format("  %s: $%.2f (%.2f%% of net liq)\n", und, exp, exp / netLiq * 100.0)));
 
-            return sb.toString();
-        } catch (Exception e) {
-            log.error("TastytradeTools.getPositionsSummary failed", e);
-            return "ERROR: Could not fetch positions summary. Details: " + e.getMessage();
-        }
+        return sb.toString();
     }
 
     @Tool("""
     Fetch batch quotes for multiple equity symbols from Tastytrade. Provide comma-separated symbols like 'AAPL,MSFT,GOOGL'. 
     Returns formatted summary with last/bid/ask/volume.
     """)
+    @CycleMemoized
     public String getBatchQuotes(String symbolsCsv) {
         try {
             Map<String, Object> rawQuotes = tastytradeClient.getBatchQuotes(symbolsCsv);
@@ -199,6 +174,27 @@ public class TastytradeTools {
         }
     }
 
+    @Tool("""
+    List orders Thufir has placed that are still working (not yet filled, cancelled or expired).
+    Check this before choosing a new contract so you do not sell the same option twice,
+    and count working short puts toward committed cash.
+    """)
+    public String getWorkingOrders() {
+        List<WorkingOrder> orders = orderManager.workingOrders();
+        if (orders.isEmpty()) {
+            return "No working orders.";
+        }
+        StringBuilder sb = new StringBuilder("Working orders:\n");
+        for (WorkingOrder order : orders) {
+            sb.append(String.format("  #%d %s %s x%d (filled %d) limit %.2f (initial %.2f, %d reprices) status %s\n",
+                    order.getOrderId(), order.getAction(), order.getSymbol(), order.getQuantity(),
+                    order.getFilledQuantity(), order.getLimitPrice(), order.getInitialPrice(),
+                    order.getRepriceCount(), order.getStatus()));
+        }
+        sb.append(String.format("Cash committed by working puts: $%.2f%n", orderManager.workingCommitment()));
+        return sb.toString();
+    }
+
     private Double getDouble(Map<String, Object> map, String key) {
         Object val = map.get(key);
         if (val instanceof Number) {
@@ -0,0 +1,267 @@
+package com.larrydevincarter.thufir.tools;
+
+import com.larrydevincarter.thufir.services.CycleContext;
+import com.larrydevincarter.thufir.services.CycleTelemetry;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.invocation.InvocationContext;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutionResult;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.observation.Observation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single place where every @Tool method is turned into a ToolSpecification/ToolExecutor pair for AiServices.
+ * Each executor is wrapped with a per-tool time limit so one slow dependency cannot stall a multi-tool turn,
+ * and tools marked {@link CycleMemoized} are deduplicated per {@link CycleContext}. Every call is observed as
+ * {@code thufir.tool} (timer plus span under the cycle), tagged with the tool name and outcome.
+ * Timeouts default to {@code thufir.tools.default-timeout-ms} and can be overridden per tool with
+ * {@code thufir.tools.timeouts.<toolName>}.
+ */
+@Component
+@Slf4j
+public class ToolRegistry {
+
+    private final List<Object> toolBeans;
+    private final Environment environment;
+    private final long defaultTimeoutMs;
+    private final CycleTelemetry telemetry;
+
+    private final ExecutorService toolCalls = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("thufir-tool-call-", 0).factory());
+
+    private Map<ToolSpecification, ToolExecutor> executors;
+
+    public ToolRegistry(Tools tools, MarketDataTools marketDataTools, CommunicationTools communicationTools,
+                        TastytradeTools tastytradeTools, OptionScannerTools optionScannerTools,
+                        Environment environment, CycleTelemetry telemetry,
+                        @Value("${thufir.tools.default-timeout-ms:30000}") long defaultTimeoutMs) {
+        this.toolBeans = List.of(tools, marketDataTools, communicationTools, tastytradeTools, optionScannerTools);
+        this.environment = environment;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.telemetry = telemetry;
+    }
+
+    public synchronized Map<ToolSpecification, ToolExecutor> executors() {
+        if (executors == null) {
+            Map<ToolSpecification, ToolExecutor> built = new LinkedHashMap<>();
+            for (Object bean : toolBeans) {
+                for (Method method : ClassUtils.getUserClass(bean).getDeclaredMethods()) {
+                    if (!method.isAnnotationPresent(Tool.class)) {
+                        continue;
+                    }
+                    ToolSpecification spec = ToolSpecifications.toolSpecificationFrom(method);
+                    long timeoutMs = environment.getProperty("thufir.tools.timeouts." + spec.name(), Long.class, defaultTimeoutMs);
+                    ToolExecutor executor = new TimeLimitedToolExecutor(spec.name(), new DefaultToolExecutor(bean, method), timeoutMs);
+                    if (method.isAnnotationPresent(CycleMemoized.class)) {
+                        executor = new CycleMemoizedToolExecutor(executor, method.getAnnotation(CycleMemoized.class).shared());
+                    }
+                    executor = new ObservedToolExecutor(spec.name(), executor);
+                    built.put(spec, executor);
+                }
+            }
+            log.info("Registered {} tools for AiServices", built.size());
+            executors = Collections.unmodifiableMap(built);
+        }
+        return executors;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        toolCalls.shutdownNow();
+    }
+
+    /**
+     * Runs the tool on its own virtual thread and waits at most the tool's budget for it. On timeout the future is
+     * cancelled, which interrupts the tool, and the model gets an ERROR result in place of the missing data; the
+     * caller is released even when the tool blocks in code that ignores interrupts. The worker inherits the
+     * caller's {@link CycleContext}. The budget is the tool timeout or whatever is left of the cycle, whichever is
+     * shorter.
+     */
+    private final class TimeLimitedToolExecutor implements ToolExecutor {
+
+        private final String toolName;
+        private final ToolExecutor delegate;
+        private final long timeoutMs;
+
+        private TimeLimitedToolExecutor(String toolName, ToolExecutor delegate, long timeoutMs) {
+            this.toolName = toolName;
+            this.delegate = delegate;
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public String execute(ToolExecutionRequest request, Object memoryId) {
+            long budgetMs = CycleContext.remainingMs(timeoutMs);
+            if (budgetMs <= 0) {
+                return budgetMessage();
+            }
+            String result = await(toolCalls.submit(() -> delegate.execute(request, memoryId)), budgetMs);
+            return result == null ? timeoutMessage(budgetMs) : result;
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(ToolExecutionRequest request, InvocationContext context) {
+            long budgetMs = CycleContext.remainingMs(timeoutMs);
+            if (budgetMs <= 0) {
+                return ToolExecutionResult.builder().resultText(budgetMessage()).isError(true).build();
+            }
+            ToolExecutionResult result = await(toolCalls.submit(() -> delegate.executeWithContext(request, context)), budgetMs);
+            if (result == null) {
+                return ToolExecutionResult.builder().resultText(timeoutMessage(budgetMs)).isError(true).build();
+            }
+            return result;
+        }
+
+        /**
+         * @return the tool's result, or null if it did not finish within the budget (the call is then cancelled)
+         */
+        private <T> T await(Future<T> call, long budgetMs) {
+            try {
+                return call.get(budgetMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                return null;
+            } catch (InterruptedException e) {
+                call.cancel(true);
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Tool " + toolName + " failed", e.getCause());
+            }
+        }
+
+        private String timeoutMessage(long budgetMs) {
+            log.warn("Tool {} exceeded its {} ms budget", toolName, budgetMs);
+            return "ERROR: " + toolName + " timed out after " + budgetMs + " ms. Treat this data as unavailable for the cycle.";
+        }
+
+        private String budgetMessage() {
+            log.warn("Tool {} skipped — cycle budget exhausted", toolName);
+            return "ERROR: " + toolName + " not run, the cycle is out of time. Decide with the data already gathered or hold.";
+        }
+    }
+
+    /**
+     * Reuses the result of an identical invocation (same tool, same arguments) made earlier in the cycle.
+     * Error results are evicted so the model can retry within the cycle. Shared tools are remembered in the
+     * outermost scope, the rest in the current (account) scope.
+     */
+    private static final class CycleMemoizedToolExecutor implements ToolExecutor {
+
+        private final ToolExecutor delegate;
+        private final boolean shared;
+
+        private CycleMemoizedToolExecutor(ToolExecutor delegate, boolean shared) {
+            this.delegate = delegate;
+            this.shared = shared;
+        }
+
+        @Override
+        public String execute(ToolExecutionRequest request, Object memoryId) {
+            String key = "tool:" + request.name() + ":" + request.arguments();
+            String result = memoize(key, () -> delegate.execute(request, memoryId));
+            if (result != null && result.startsWith("ERROR")) {
+                evict(key);
+            }
+            return result;
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(ToolExecutionRequest request, InvocationContext context) {
+            String key = "tool-result:" + request.name() + ":" + request.arguments();
+            ToolExecutionResult result = memoize(key, () -> delegate.executeWithContext(request, context));
+            if (result.isError() || (result.resultText() != null && result.resultText().startsWith("ERROR"))) {
+                evict(key);
+            }
+            return result;
+        }
+
+        private <T> T memoize(String key, Supplier<T> supplier) {
+            return shared ? CycleContext.memoizeShared(key, supplier) : CycleContext.memoize(key, supplier);
+        }
+
+        private void evict(String key) {
+            CycleContext.current().ifPresent(cycle -> (shared ? cycle.root() : cycle).evict(key));
+        }
+    }
+
+    /**
+     * Times each call as a child of the cycle. Results starting with {@code ERROR} count as failures even though
+     * the tool returned normally, since that is how tools report unavailable data to the model.
+     */
+    private final class ObservedToolExecutor implements ToolExecutor {
+
+        private final String toolName;
+        private final ToolExecutor delegate;
+
+        private ObservedToolExecutor(String toolName, ToolExecutor delegate) {
+            this.toolName = toolName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String execute(ToolExecutionRequest request, Object memoryId) {
+            Observation observation = start();
+            try (Observation.Scope ignored = observation.openScope()) {
+                String result = delegate.execute(request, memoryId);
+                observation.lowCardinalityKeyValue("outcome", result != null && result.startsWith("ERROR") ? "error" : "ok");
+                return result;
+            } catch (RuntimeException e) {
+                observation.lowCardinalityKeyValue("outcome", "exception").error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(ToolExecutionRequest request, InvocationContext context) {
+            Observation observation = start();
+            try (Observation.Scope ignored = observation.openScope()) {
+                ToolExecutionResult result = delegate.executeWithContext(request, context);
+                boolean failed = result.isError() || (result.resultText() != null && result.resultText().startsWith("ERROR"));
+                observation.lowCardinalityKeyValue("outcome", failed ? "error" : "ok");
+                return result;
+            } catch (RuntimeException e) {
+                observation.lowCardinalityKeyValue("outcome", "exception").error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+
+        private Observation start() {
+            return telemetry.child(CycleTelemetry.TOOL)
+                    .contextualName("tool " + toolName)
+                    .lowCardinalityKeyValue("tool", toolName)
+                    .start();
+        }
+    }
+}
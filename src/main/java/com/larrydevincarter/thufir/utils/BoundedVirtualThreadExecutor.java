@@ -0,0 +1,48 @@
+package com.larrydevincarter.thufir.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every task on its own virtual thread, with at most {@code maxConcurrency} tasks running at once.
+ * Submission never blocks the caller: excess tasks park on the semaphore inside their own virtual thread.
+ */
+public class BoundedVirtualThreadExecutor implements Executor {
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public BoundedVirtualThreadExecutor(String namePrefix, int maxConcurrency) {
+        this.threadFactory = Thread.ofVirtual().name(namePrefix, 0).factory();
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Thread thread = threadFactory.newThread(() -> {
+            waiting.incrementAndGet();
+            try {
+                permits.acquireUninterruptibly();
+            } finally {
+                waiting.decrementAndGet();
+            }
+
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+        thread.start();
+    }
+
+    /**
+     * Number of submitted tasks still waiting for an execution slot.
+     */
+    public int queueDepth() {
+        return waiting.get();
+    }
+}
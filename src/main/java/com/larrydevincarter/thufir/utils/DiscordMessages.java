@@ -0,0 +1,48 @@
+package com.larrydevincarter.thufir.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class DiscordMessages {
+
+    /** Discord rejects message content longer than this. */
+    public static final int MAX_LENGTH = 2000;
+
+    private DiscordMessages() {}
+
+    /**
+     * Splits text into chunks of at most {@code limit} characters, preferring line breaks, then spaces,
+     * and only cutting mid-word when a single word is longer than the limit.
+     */
+    public static List<String> split(String text, int limit) {
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return chunks;
+        }
+
+        int start = 0;
+        while (text.length() - start > limit) {
+            int end = start + limit;
+            int cut = text.lastIndexOf('\n', end - 1);
+            if (cut <= start) {
+                cut = text.lastIndexOf(' ', end - 1);
+            }
+            if (cut <= start) {
+                cut = end;
+            }
+            chunks.add(text.substring(start, cut));
+            start = cut;
+            while (start < text.length() && (text.charAt(start) == '\n' || text.charAt(start) == ' ')) {
+                start++;
+            }
+        }
+        if (start < text.length()) {
+            chunks.add(text.substring(start));
+        }
+        return chunks;
+    }
+
+    public static List<String> split(String text) {
+        return split(text, MAX_LENGTH);
+    }
+}
@@ -0,0 +1,54 @@
+package com.larrydevincarter.thufir.utils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OCC option symbology as used by Tastytrade: root padded to six characters, YYMMDD, C/P, and the
+ * strike times 1000 in eight digits, e.g. {@code "AAPL  250321P00150000"}.
+ */
+public final class OccSymbols {
+
+    private static final DateTimeFormatter EXPIRY = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final Pattern NORMALIZED = Pattern.compile("^([A-Z0-9.]+?)(\\d{6})([CP])(\\d{8})$");
+
+    /**
+     * The parts of an option symbol.
+     */
+    public record Parsed(String ticker, LocalDate expiry, char optionType, double strike) {}
+
+    private OccSymbols() {}
+
+    public static String format(String ticker, LocalDate expiry, char optionType, double strike) {
+        return String.format(Locale.ROOT, "%-6s%s%c%08d",
+                ticker.toUpperCase(Locale.ROOT), EXPIRY.format(expiry), Character.toUpperCase(optionType),
+                Math.round(strike * 1000));
+    }
+
+    /**
+     * Whitespace-insensitive form for comparing symbols from different sources.
+     */
+    public static String normalize(String symbol) {
+        return symbol == null ? "" : symbol.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits an option symbol into its parts; empty for anything that is not one (e.g. a share symbol).
+     */
+    public static Optional<Parsed> parse(String symbol) {
+        Matcher m = NORMALIZED.matcher(normalize(symbol));
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new Parsed(m.group(1), LocalDate.parse(m.group(2), EXPIRY), m.group(3).charAt(0),
+                    Long.parseLong(m.group(4)) / 1000.0));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
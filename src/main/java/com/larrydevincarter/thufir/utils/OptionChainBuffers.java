@@ -0,0 +1,64 @@
+package com.larrydevincarter.thufir.utils;
+
+/**
+ * Struct-of-arrays view of an option chain for {@link OptionPricing#evaluate}. Inputs are filled by the
+ * caller up to {@code size}; outputs are written in place. Buffers can be {@link #reset} and reused.
+ */
+public final class OptionChainBuffers {
+
+    public double riskFreeRate;
+    public double dividendYield;
+    public int size;
+
+    // Inputs
+    public boolean[] call;
+    public double[] spot;
+    public double[] strike;
+    public double[] years;
+    public double[] price;
+
+    // Outputs
+    public double[] impliedVol;
+    public double[] delta;
+    public double[] thetaPerDay;
+    public double[] probabilityOfProfit;
+    public double[] americanValue;
+
+    public OptionChainBuffers(int capacity) {
+        allocate(capacity);
+    }
+
+    /**
+     * Empties the buffers, growing them if {@code capacity} exceeds what they hold.
+     */
+    public void reset(int capacity) {
+        if (capacity > spot.length) {
+            allocate(capacity);
+        }
+        size = 0;
+    }
+
+    public int add(boolean isCall, double spotPrice, double strikePrice, double yearsToExpiry, double optionPrice) {
+        int i = size++;
+        call[i] = isCall;
+        spot[i] = spotPrice;
+        strike[i] = strikePrice;
+        years[i] = yearsToExpiry;
+        price[i] = optionPrice;
+        return i;
+    }
+
+    private void allocate(int capacity) {
+        call = new boolean[capacity];
+        spot = new double[capacity];
+        strike = new double[capacity];
+        years = new double[capacity];
+        price = new double[capacity];
+        impliedVol = new double[capacity];
+        delta = new double[capacity];
+        thetaPerDay = new double[capacity];
+        probabilityOfProfit = new double[capacity];
+        americanValue = new double[capacity];
+        size = 0;
+    }
+}
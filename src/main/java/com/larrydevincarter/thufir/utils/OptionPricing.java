@@ -0,0 +1,208 @@
+package com.larrydevincarter.thufir.utils;
+
+/**
+ * Closed-form option pricing on primitives: generalized Black-Scholes (cost of carry {@code b = r - q}),
+ * the Bjerksund-Stensland (1993) American approximation, Newton/bisection implied volatility, and the
+ * probability that a short option expires profitable.
+ * <p>
+ * Everything here is static and allocation-free; {@link #evaluate(OptionChainBuffers)} runs it over a
+ * whole chain held as parallel arrays. Results that cannot be computed are {@code NaN}.
+ */
+public final class OptionPricing {
+
+    private static final double INV_SQRT_2PI = 0.3989422804014327;
+    private static final double DAYS_PER_YEAR = 365.0;
+    private static final double MIN_VOL = 1e-4;
+    private static final double MAX_VOL = 5.0;
+    private static final int MAX_IV_ITERATIONS = 50;
+    private static final double IV_PRICE_TOLERANCE = 1e-6;
+
+    private OptionPricing() {}
+
+    /**
+     * Standard normal CDF, Zelen & Severo (Abramowitz & Stegun 26.2.17), absolute error below 7.5e-8.
+     */
+    public static double normCdf(double x) {
+        if (x > 8.0) {
+            return 1.0;
+        }
+        if (x < -8.0) {
+            return 0.0;
+        }
+        double t = 1.0 / (1.0 + 0.2316419 * Math.abs(x));
+        double poly = t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+        double tail = normPdf(x) * poly;
+        return x >= 0 ? 1.0 - tail : tail;
+    }
+
+    public static double normPdf(double x) {
+        return INV_SQRT_2PI * Math.exp(-0.5 * x * x);
+    }
+
+    public static double blackScholes(boolean call, double s, double k, double t, double r, double b, double vol) {
+        if (t <= 0 || vol <= 0) {
+            return call ? Math.max(s - k, 0) : Math.max(k - s, 0);
+        }
+        double volSqrtT = vol * Math.sqrt(t);
+        double d1 = (Math.log(s / k) + (b + 0.5 * vol * vol) * t) / volSqrtT;
+        double d2 = d1 - volSqrtT;
+        double carry = Math.exp((b - r) * t);
+        double discount = Math.exp(-r * t);
+        return call
+                ? s * carry * normCdf(d1) - k * discount * normCdf(d2)
+                : k * discount * normCdf(-d2) - s * carry * normCdf(-d1);
+    }
+
+    public static double delta(boolean call, double s, double k, double t, double r, double b, double vol) {
+        double volSqrtT = vol * Math.sqrt(t);
+        double d1 = (Math.log(s / k) + (b + 0.5 * vol * vol) * t) / volSqrtT;
+        double carry = Math.exp((b - r) * t);
+        return call ? carry * normCdf(d1) : carry * (normCdf(d1) - 1.0);
+    }
+
+    /**
+     * Theta per calendar day (the change in option value as one day passes, normally negative).
+     */
+    public static double thetaPerDay(boolean call, double s, double k, double t, double r, double b, double vol) {
+        double sqrtT = Math.sqrt(t);
+        double volSqrtT = vol * sqrtT;
+        double d1 = (Math.log(s / k) + (b + 0.5 * vol * vol) * t) / volSqrtT;
+        double d2 = d1 - volSqrtT;
+        double carry = Math.exp((b - r) * t);
+        double discount = Math.exp(-r * t);
+        double decay = -s * carry * normPdf(d1) * vol / (2.0 * sqrtT);
+        double theta = call
+                ? decay - (b - r) * s * carry * normCdf(d1) - r * k * discount * normCdf(d2)
+                : decay + (b - r) * s * carry * normCdf(-d1) + r * k * discount * normCdf(-d2);
+        return theta / DAYS_PER_YEAR;
+    }
+
+    public static double vega(double s, double k, double t, double r, double b, double vol) {
+        double sqrtT = Math.sqrt(t);
+        double d1 = (Math.log(s / k) + (b + 0.5 * vol * vol) * t) / (vol * sqrtT);
+        return s * Math.exp((b - r) * t) * normPdf(d1) * sqrtT;
+    }
+
+    /**
+     * Bjerksund-Stensland (1993) American option approximation. Puts use the put-call transformation
+     * {@code P(S, K, T, r, b) = C(K, S, T, r - b, -b)}.
+     */
+    public static double bjerksundStensland(boolean call, double s, double k, double t, double r, double b, double vol) {
+        return call
+                ? americanCall(s, k, t, r, b, vol)
+                : americanCall(k, s, t, r - b, -b, vol);
+    }
+
+    private static double americanCall(double s, double k, double t, double r, double b, double vol) {
+        if (b >= r || t <= 0 || vol <= 0) {
+            // Never optimal to exercise early; the European value is exact.
+            return blackScholes(true, s, k, t, r, b, vol);
+        }
+        double vol2 = vol * vol;
+        double beta = (0.5 - b / vol2) + Math.sqrt((b / vol2 - 0.5) * (b / vol2 - 0.5) + 2.0 * r / vol2);
+        double bInfinity = beta / (beta - 1.0) * k;
+        double b0 = Math.max(k, r / (r - b) * k);
+        double ht = -(b * t + 2.0 * vol * Math.sqrt(t)) * b0 / (bInfinity - b0);
+        double trigger = b0 + (bInfinity - b0) * (1.0 - Math.exp(ht));
+
+        if (s >= trigger) {
+            return s - k;
+        }
+        double alpha = (trigger - k) * Math.pow(trigger, -beta);
+        return alpha * Math.pow(s, beta)
+                - alpha * phi(s, t, beta, trigger, trigger, r, b, vol)
+                + phi(s, t, 1, trigger, trigger, r, b, vol)
+                - phi(s, t, 1, k, trigger, r, b, vol)
+                - k * phi(s, t, 0, trigger, trigger, r, b, vol)
+                + k * phi(s, t, 0, k, trigger, r, b, vol);
+    }
+
+    private static double phi(double s, double t, double gamma, double h, double trigger, double r, double b, double vol) {
+        double vol2 = vol * vol;
+        double volSqrtT = vol * Math.sqrt(t);
+        double lambda = (-r + gamma * b + 0.5 * gamma * (gamma - 1.0) * vol2) * t;
+        double d = -(Math.log(s / h) + (b + (gamma - 0.5) * vol2) * t) / volSqrtT;
+        double kappa = 2.0 * b / vol2 + (2.0 * gamma - 1.0);
+        return Math.exp(lambda) * Math.pow(s, gamma)
+                * (normCdf(d) - Math.pow(trigger / s, kappa) * normCdf(d - 2.0 * Math.log(trigger / s) / volSqrtT));
+    }
+
+    /**
+     * Implied volatility from a European price: Newton steps on vega, falling back to bisection whenever a
+     * step leaves the bracket. Returns NaN for prices outside the no-arbitrage bounds.
+     */
+    public static double impliedVol(boolean call, double price, double s, double k, double t, double r, double b) {
+        if (!(price > 0) || !(s > 0) || !(k > 0) || !(t > 0)) {
+            return Double.NaN;
+        }
+        double lowerBound = blackScholes(call, s, k, t, r, b, MIN_VOL);
+        double upperBound = blackScholes(call, s, k, t, r, b, MAX_VOL);
+        if (price <= lowerBound || price >= upperBound) {
+            return Double.NaN;
+        }
+
+        double lo = MIN_VOL;
+        double hi = MAX_VOL;
+        // Brenner-Subrahmanyam starting point, clamped into the bracket.
+        double vol = Math.min(Math.max(Math.sqrt(2.0 * Math.PI / t) * price / s, 0.05), 2.0);
+        for (int i = 0; i < MAX_IV_ITERATIONS; i++) {
+            double diff = blackScholes(call, s, k, t, r, b, vol) - price;
+            if (Math.abs(diff) < IV_PRICE_TOLERANCE) {
+                return vol;
+            }
+            if (diff > 0) {
+                hi = vol;
+            } else {
+                lo = vol;
+            }
+            double vega = vega(s, k, t, r, b, vol);
+            double next = vega > 1e-10 ? vol - diff / vega : Double.NaN;
+            vol = next > lo && next < hi ? next : 0.5 * (lo + hi);
+        }
+        return vol;
+    }
+
+    /**
+     * Probability that a short option expires with a profit: the underlying finishes beyond the breakeven
+     * (strike minus premium for puts, plus premium for calls) under a lognormal terminal distribution.
+     */
+    public static double shortProbabilityOfProfit(boolean call, double s, double k, double premium, double t, double b, double vol) {
+        double breakeven = call ? k + premium : k - premium;
+        if (breakeven <= 0) {
+            return 1.0;
+        }
+        double volSqrtT = vol * Math.sqrt(t);
+        double d2 = (Math.log(s / breakeven) + (b - 0.5 * vol * vol) * t) / volSqrtT;
+        return call ? normCdf(-d2) : normCdf(d2);
+    }
+
+    /**
+     * Fills implied vol, delta, theta, probability of profit and the American value for every contract in
+     * the buffers. The loop only reads and writes the arrays.
+     */
+    public static void evaluate(OptionChainBuffers chain) {
+        double r = chain.riskFreeRate;
+        double b = chain.riskFreeRate - chain.dividendYield;
+        for (int i = 0; i < chain.size; i++) {
+            boolean call = chain.call[i];
+            double s = chain.spot[i];
+            double k = chain.strike[i];
+            double t = chain.years[i];
+            double price = chain.price[i];
+
+            double vol = impliedVol(call, price, s, k, t, r, b);
+            chain.impliedVol[i] = vol;
+            if (Double.isNaN(vol)) {
+                chain.delta[i] = Double.NaN;
+                chain.thetaPerDay[i] = Double.NaN;
+                chain.probabilityOfProfit[i] = Double.NaN;
+                chain.americanValue[i] = Double.NaN;
+                continue;
+            }
+            chain.delta[i] = delta(call, s, k, t, r, b, vol);
+            chain.thetaPerDay[i] = thetaPerDay(call, s, k, t, r, b, vol);
+            chain.probabilityOfProfit[i] = shortProbabilityOfProfit(call, s, k, price, t, b, vol);
+            chain.americanValue[i] = bjerksundStensland(call, s, k, t, r, b, vol);
+        }
+    }
+}
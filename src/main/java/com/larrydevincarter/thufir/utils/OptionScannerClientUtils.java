@@ -1,6 +1,7 @@
 package com.larrydevincarter.thufir.utils;
 
 import com.larrydevincarter.thufir.models.dtos.UpdateStatusDto;
+import com.larrydevincarter.thufir.services.CycleContext;
 import com.larrydevincarter.thufir.services.OptionScannerUpdateMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +19,11 @@ public final class OptionScannerClientUtils {
 
     private OptionScannerClientUtils() {}
 
-    public static void waitForUpdateComplete(OptionScannerUpdateMonitor updateMonitor) {
+    /**
+     * Polls until OptionScanner finishes its database update. Inside a cycle the wait stops once the next poll
+     * would run past the cycle's deadline, and the caller proceeds on whatever data is there.
+     */
+    public static void waitForUpdateComplete(OptionScannerUpdateMonitor updateMonitor, RestTemplate restTemplate) {
         if (!updateMonitor.isPotentiallyUpdating()) {
             return;
         }
@@ -26,7 +31,7 @@ public final class OptionScannerClientUtils {
         int attempts = 0;
         while (attempts < MAX_POLL_ATTEMPTS) {
             attempts++;
-            UpdateStatusDto updateStatus = checkUpdateStatus();
+            UpdateStatusDto updateStatus = checkUpdateStatus(restTemplate);
 
             if (updateStatus != null && !updateStatus.isUpdating()) {
                 log.info("OptionScanner database update completed after {} attempts — proceeding", attempts);
@@ -34,6 +39,11 @@ public final class OptionScannerClientUtils {
                 return;
             }
 
+            if (!CycleContext.hasBudgetFor(POLL_INTERVAL_MS)) {
+                log.warn("OptionScanner still updating but the cycle budget is nearly spent — proceeding with caution");
+                return;
+            }
+
             log.info("OptionScanner still updating (attempt {}/{}) — waiting {} ms",
                     attempts, MAX_POLL_ATTEMPTS, POLL_INTERVAL_MS);
 
@@ -50,8 +60,7 @@ public final class OptionScannerClientUtils {
                 MAX_POLL_ATTEMPTS);
     }
 
-    private static UpdateStatusDto checkUpdateStatus() {
-        RestTemplate restTemplate = new RestTemplate();
+    private static UpdateStatusDto checkUpdateStatus(RestTemplate restTemplate) {
         String updateStatusUrl = "http://localhost:8081/api/update-status";
 
         try {
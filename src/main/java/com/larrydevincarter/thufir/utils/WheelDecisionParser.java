@@ -0,0 +1,89 @@
+package com.larrydevincarter.thufir.utils;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WheelPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Local repair path for wheel decisions that slipped past structured output
+ * (markdown fences, prose around the JSON, trailing commas, snake_case keys).
+ * Runs in-process so a malformed reply never costs a second LLM round-trip.
+ */
+public final class WheelDecisionParser {
+
+    private static final Logger log = LoggerFactory.getLogger(WheelDecisionParser.class);
+
+    private static final ObjectMapper LENIENT_MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private WheelDecisionParser() {}
+
+    /**
+     * Extracts the outermost JSON object from a raw model reply and decodes it into a {@link WheelDecision}.
+     *
+     * @throws IllegalArgumentException if no decodable decision can be recovered
+     */
+    public static WheelDecision parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("Empty decision reply");
+        }
+
+        int start = raw.indexOf('{');
+        int end = raw.lastIndexOf('}');
+        if (start == -1 || end <= start) {
+            throw new IllegalArgumentException("No JSON object found in decision reply");
+        }
+
+        String json = raw.substring(start, end + 1);
+        try {
+            WheelDecision decision = LENIENT_MAPPER.readValue(json, WheelDecision.class);
+            log.info("Decision repaired locally (action={})", decision.action());
+            return decision;
+        } catch (Exception e) {
+            Throwable cause = e.getCause() instanceof IllegalArgumentException ? e.getCause() : e;
+            throw new IllegalArgumentException("Decision repair failed: " + cause.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same repair for batch-mode plans. A reply holding a single decision object is accepted as a one-entry plan.
+     */
+    public static WheelPlan parsePlan(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("Empty plan reply");
+        }
+
+        int start = raw.indexOf('{');
+        int end = raw.lastIndexOf('}');
+        if (start == -1 || end <= start) {
+            throw new IllegalArgumentException("No JSON object found in plan reply");
+        }
+
+        String json = raw.substring(start, end + 1);
+        try {
+            JsonNode node = LENIENT_MAPPER.readTree(json);
+            WheelPlan plan = node.has("actions")
+                    ? LENIENT_MAPPER.treeToValue(node, WheelPlan.class)
+                    : new WheelPlan(List.of(LENIENT_MAPPER.treeToValue(node, WheelDecision.class)), null);
+            log.info("Plan repaired locally ({} actions)", plan.actions().size());
+            return plan;
+        } catch (Exception e) {
+            Throwable cause = e.getCause() instanceof IllegalArgumentException ? e.getCause() : e;
+            throw new IllegalArgumentException("Plan repair failed: " + cause.getMessage(), e);
+        }
+    }
+}
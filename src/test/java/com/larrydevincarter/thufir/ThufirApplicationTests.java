@@ -1,6 +1,5 @@
-package com.nexstepweb.thufir;
+package com.larrydevincarter.thufir;
 
-import com.larrydevincarter.thufir.ThufirApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
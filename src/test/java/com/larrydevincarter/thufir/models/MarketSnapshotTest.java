@@ -0,0 +1,49 @@
+package com.larrydevincarter.thufir.models;
+
+import com.larrydevincarter.thufir.models.MarketSnapshot.Reading;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarketSnapshotTest {
+
+	private static final Instant NOW = Instant.parse("2025-03-14T15:00:00Z");
+	private static final Duration MAX_AGE = Duration.ofMinutes(3);
+
+	@Test
+	void readingIsFreshWithinMaxAge() {
+		assertThat(Reading.of("18.5", NOW.minusSeconds(60)).isFresh(MAX_AGE, NOW)).isTrue();
+		assertThat(Reading.of("18.5", NOW.minus(MAX_AGE)).isFresh(MAX_AGE, NOW)).isTrue();
+		assertThat(Reading.of("18.5", NOW.minus(MAX_AGE).minusMillis(1)).isFresh(MAX_AGE, NOW)).isFalse();
+	}
+
+	@Test
+	void failedRefreshKeepsTheValueButIsNeverFresh() {
+		Reading<String> failed = Reading.of("18.5", NOW.minusSeconds(10)).failed("both VIX sources down");
+
+		assertThat(failed.value()).isEqualTo("18.5");
+		assertThat(failed.at()).isEqualTo(NOW.minusSeconds(10));
+		assertThat(failed.isFresh(MAX_AGE, NOW)).isFalse();
+	}
+
+	@Test
+	void readingWithoutValueIsNeverFresh() {
+		assertThat(new Reading<String>(null, null, "never read").isFresh(MAX_AGE, NOW)).isFalse();
+		assertThat(Reading.of(null, NOW).isFresh(MAX_AGE, NOW)).isFalse();
+		assertThat(new Reading<String>(null, null, null).age(NOW)).isEqualTo(Duration.ofDays(365));
+	}
+
+	@Test
+	void everyChangeBumpsTheVersion() {
+		MarketSnapshot snapshot = MarketSnapshot.EMPTY.withVix(Reading.of("18.5", NOW), NOW);
+		MarketSnapshot failed = snapshot.withVix(snapshot.vix().failed("down"), NOW.plusSeconds(60));
+
+		assertThat(snapshot.version()).isEqualTo(1);
+		assertThat(failed.version()).isEqualTo(2);
+		assertThat(failed.vix().error()).isEqualTo("down");
+		assertThat(MarketSnapshot.EMPTY.vix()).isNull();
+	}
+}
@@ -0,0 +1,127 @@
+package com.larrydevincarter.thufir.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CycleContextTest {
+
+	@Test
+	void memoizeComputesOncePerScope() {
+		AtomicInteger calls = new AtomicInteger();
+		try (CycleContext scope = CycleContext.open("test")) {
+			assertThat(CycleContext.memoize("k", calls::incrementAndGet)).isEqualTo(1);
+			assertThat(CycleContext.memoize("k", calls::incrementAndGet)).isEqualTo(1);
+			assertThat(scope.deduplicatedCalls()).isEqualTo(1);
+		}
+		try (CycleContext ignored = CycleContext.open("next")) {
+			assertThat(CycleContext.memoize("k", calls::incrementAndGet)).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void outsideAScopeNothingIsRemembered() {
+		AtomicInteger calls = new AtomicInteger();
+		CycleContext.memoize("k", calls::incrementAndGet);
+		CycleContext.memoizeShared("k", calls::incrementAndGet);
+
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void failuresAreNotRemembered() {
+		AtomicInteger calls = new AtomicInteger();
+		try (CycleContext ignored = CycleContext.open("test")) {
+			assertThatThrownBy(() -> CycleContext.memoize("k", () -> {
+				calls.incrementAndGet();
+				throw new IllegalStateException("down");
+			})).hasMessage("down");
+
+			assertThat(CycleContext.memoize("k", calls::incrementAndGet)).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void evictDropsARememberedResult() {
+		AtomicInteger calls = new AtomicInteger();
+		try (CycleContext scope = CycleContext.open("test")) {
+			CycleContext.memoize("k", calls::incrementAndGet);
+			scope.evict("k");
+
+			assertThat(CycleContext.memoize("k", calls::incrementAndGet)).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void sharedResultsLiveInTheOutermostScopeAndAccountResultsDoNot() {
+		AtomicInteger shared = new AtomicInteger();
+		AtomicInteger perAccount = new AtomicInteger();
+		try (CycleContext ignored = CycleContext.open("wheel")) {
+			for (String account : new String[]{"a", "b"}) {
+				try (CycleContext scope = CycleContext.open("account", null, account)) {
+					assertThat(CycleContext.account()).contains(account);
+					CycleContext.memoizeShared("vix", shared::incrementAndGet);
+					CycleContext.memoize("balances", perAccount::incrementAndGet);
+				}
+			}
+			assertThat(CycleContext.account()).isEmpty();
+		}
+
+		assertThat(shared).hasValue(1);
+		assertThat(perAccount).hasValue(2);
+	}
+
+	@Test
+	void waiterGetsTheErrorInsteadOfBlocking() throws Exception {
+		CountDownLatch computing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try (CycleContext ignored = CycleContext.open("test")) {
+			CompletableFuture<Object> owner = CompletableFuture.supplyAsync(() -> CycleContext.memoizeShared("k", () -> {
+				computing.countDown();
+				await(release);
+				throw new AssertionError("decoder blew up");
+			}), Thread::startVirtualThread);
+			computing.await();
+
+			CompletableFuture<Object> waiter = new CompletableFuture<>();
+			Thread.startVirtualThread(() -> {
+				try {
+					waiter.complete(CycleContext.memoizeShared("k", () -> "late"));
+				} catch (Throwable t) {
+					waiter.completeExceptionally(t);
+				}
+			});
+			Thread.sleep(100);
+			release.countDown();
+
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				assertThatThrownBy(owner::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(AssertionError.class);
+				Object result;
+				try {
+					result = waiter.get();
+				} catch (ExecutionException e) {
+					assertThat(e.getCause()).isInstanceOf(AssertionError.class);
+					return;
+				}
+				// The waiter arrived after the failed entry was removed and computed its own value.
+				assertThat(result).isEqualTo("late");
+			});
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
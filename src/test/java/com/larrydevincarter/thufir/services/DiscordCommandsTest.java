@@ -0,0 +1,134 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.TradingStatus;
+import com.larrydevincarter.thufir.repositories.TradeDecisionRepository;
+import com.larrydevincarter.thufir.services.DiscordCommands.Command;
+import com.larrydevincarter.thufir.services.DiscordCommands.Type;
+import com.larrydevincarter.thufir.tools.TastytradeTools;
+import com.larrydevincarter.thufir.utils.BoundedVirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DiscordCommandsTest {
+
+	@Test
+	void parsesTheRoutineCommands() {
+		assertThat(DiscordCommands.parse("status")).contains(new Command(Type.STATUS, null, 0));
+		assertThat(DiscordCommands.parse("  Positions ")).contains(new Command(Type.POSITIONS, null, 0));
+		assertThat(DiscordCommands.parse("balance")).contains(new Command(Type.BALANCES, null, 0));
+		assertThat(DiscordCommands.parse("resume")).contains(new Command(Type.RESUME, null, 0));
+		assertThat(DiscordCommands.parse("continue")).contains(new Command(Type.RESUME, null, 0));
+		assertThat(DiscordCommands.parse("cycle")).contains(new Command(Type.FORCE_CYCLE, null, 0));
+		assertThat(DiscordCommands.parse("force cycle")).contains(new Command(Type.FORCE_CYCLE, null, 0));
+		assertThat(DiscordCommands.parse("help")).contains(new Command(Type.HELP, null, 0));
+	}
+
+	@Test
+	void commandsWithTrailingTextGoToTheModel() {
+		assertThat(DiscordCommands.parse("status of my TSLA puts")).isEmpty();
+		assertThat(DiscordCommands.parse("positions in AAPL?")).isEmpty();
+		assertThat(DiscordCommands.parse("resume but only calls")).isEmpty();
+		assertThat(DiscordCommands.parse("force quit")).isEmpty();
+		assertThat(DiscordCommands.parse("what do you think about NVDA")).isEmpty();
+		assertThat(DiscordCommands.parse("   ")).isEmpty();
+		assertThat(DiscordCommands.parse(null)).isEmpty();
+	}
+
+	@Test
+	void pauseTakesTheBareVerbOrAnExplicitReason() {
+		assertThat(DiscordCommands.parse("pause")).contains(new Command(Type.HALT, "", 0));
+		assertThat(DiscordCommands.parse("HALT")).contains(new Command(Type.HALT, "", 0));
+		assertThat(DiscordCommands.parse("stop reason: FOMC at 2pm")).contains(new Command(Type.HALT, "FOMC at 2pm", 0));
+		assertThat(DiscordCommands.parse("pause Reason:Earnings week")).contains(new Command(Type.HALT, "Earnings week", 0));
+	}
+
+	@Test
+	void pauseWithAnInstructionGoesToTheModel() {
+		assertThat(DiscordCommands.parse("stop selling puts on TSLA")).isEmpty();
+		assertThat(DiscordCommands.parse("pause for earnings")).isEmpty();
+	}
+
+	@Test
+	void decisionsTakeAClampedCount() {
+		assertThat(DiscordCommands.parse("decisions")).contains(new Command(Type.DECISIONS, null, 5));
+		assertThat(DiscordCommands.parse("last 3")).contains(new Command(Type.DECISIONS, null, 3));
+		assertThat(DiscordCommands.parse("last decisions 2")).contains(new Command(Type.DECISIONS, null, 2));
+		assertThat(DiscordCommands.parse("decisions 100")).contains(new Command(Type.DECISIONS, null, 25));
+		assertThat(DiscordCommands.parse("decisions 0")).contains(new Command(Type.DECISIONS, null, 1));
+		assertThat(DiscordCommands.parse("decisions about AAPL")).isEmpty();
+	}
+
+	@Test
+	void secondForcedCycleIsRefusedWhileOneIsPending() throws Exception {
+		WheelStrategyExecutor executor = mock(WheelStrategyExecutor.class);
+		TradingControlService tradingControl = mock(TradingControlService.class);
+		when(tradingControl.current()).thenReturn(TradingStatus.running("test"));
+		when(tradingControl.statuses()).thenReturn(Map.of("primary", TradingStatus.running("test")));
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			running.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(executor).forceCycle();
+
+		DiscordCommands commands = new DiscordCommands(mock(TastytradeTools.class), mock(TradeDecisionRepository.class),
+				executor, mock(ConversationLock.class), mock(ModelUsageMetrics.class), tradingControl,
+				mock(MarketSnapshotService.class), mock(AccountRegistry.class), new BoundedVirtualThreadExecutor("test-", 2));
+		List<String> replies = new CopyOnWriteArrayList<>();
+		Command force = new Command(Type.FORCE_CYCLE, null, 0);
+
+		commands.execute(force, replies::add);
+		assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+		commands.execute(force, replies::add);
+		release.countDown();
+		verify(executor, timeout(5_000)).forceCycle();
+
+		assertThat(replies).contains("A forced cycle is already queued or running.");
+		verify(executor, times(1)).forceCycle();
+	}
+
+	@Test
+	void positionsAndBalancesCoverEveryAccount() {
+		TradingAccount primary = new TradingAccount("primary", "5WT0001", "user", "pass", true);
+		TradingAccount ira = new TradingAccount("ira", "5WT0002", "user", "pass", false);
+		AccountRegistry accounts = mock(AccountRegistry.class);
+		when(accounts.all()).thenReturn(List.of(primary, ira));
+		doAnswer(invocation -> {
+			invocation.<Consumer<CycleContext>>getArgument(2).accept(null);
+			return null;
+		}).when(accounts).runAs(any(), anyString(), any());
+		TastytradeTools tools = mock(TastytradeTools.class);
+		when(tools.getPositionsSummary()).thenReturn("positions A", "positions B");
+
+		DiscordCommands commands = new DiscordCommands(tools, mock(TradeDecisionRepository.class),
+				mock(WheelStrategyExecutor.class), mock(ConversationLock.class), mock(ModelUsageMetrics.class),
+				mock(TradingControlService.class), mock(MarketSnapshotService.class), accounts,
+				new BoundedVirtualThreadExecutor("test-", 1));
+		List<String> replies = new CopyOnWriteArrayList<>();
+
+		commands.execute(new Command(Type.POSITIONS, null, 0), replies::add);
+
+		assertThat(replies).containsExactly("[primary]\npositions A\n\n[ira]\npositions B\n");
+		verify(accounts).runAs(eq(primary), anyString(), any());
+		verify(accounts).runAs(eq(ira), anyString(), any());
+	}
+}
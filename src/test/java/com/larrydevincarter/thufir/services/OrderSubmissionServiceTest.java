@@ -0,0 +1,165 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.clients.TastytradeClient;
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.entities.OrderSubmission;
+import com.larrydevincarter.thufir.repositories.OrderSubmissionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderSubmissionServiceTest {
+
+	private static final String SYMBOL = "AAPL  250321P00150000";
+	private static final TradingAccount ACCOUNT = new TradingAccount("primary", "5WT0001", "user", "pass", true);
+
+	private final TastytradeClient tastytrade = mock(TastytradeClient.class);
+	private final OrderSubmissionRepository repository = mock(OrderSubmissionRepository.class);
+	private final AccountRegistry accounts = mock(AccountRegistry.class);
+	private final ClusterCoordinator coordinator = mock(ClusterCoordinator.class);
+	private OrderSubmissionService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new OrderSubmissionService(tastytrade, repository, accounts, coordinator);
+		ReflectionTestUtils.setField(service, "windowMinutes", 1440L);
+		ReflectionTestUtils.setField(service, "maxAttempts", 3);
+		ReflectionTestUtils.setField(service, "backoffMs", 0L);
+		when(accounts.current()).thenReturn(ACCOUNT);
+		when(coordinator.owns(ACCOUNT)).thenReturn(true);
+		when(repository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+		when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(tastytrade.getLiveOrders()).thenReturn(List.of());
+	}
+
+	@Test
+	void idempotencyKeyIsStableAndSeparatesOrders() {
+		String key = OrderSubmissionService.idempotencyKey("primary", "aapl", 150, "2025-03-21", "sell_put", "2025-03-14#0");
+
+		assertThat(key).hasSize(64)
+				.isEqualTo(OrderSubmissionService.idempotencyKey("primary", "AAPL", 150.0, "2025-03-21", "sell_put", "2025-03-14#0"))
+				.isNotEqualTo(OrderSubmissionService.idempotencyKey("other", "AAPL", 150, "2025-03-21", "sell_put", "2025-03-14#0"))
+				.isNotEqualTo(OrderSubmissionService.idempotencyKey("primary", "AAPL", 150.5, "2025-03-21", "sell_put", "2025-03-14#0"))
+				.isNotEqualTo(OrderSubmissionService.idempotencyKey("primary", "AAPL", 150, "2025-03-21", "sell_put", "2025-03-15#0"));
+	}
+
+	@Test
+	void cycleWindowIsTheDateWithTheDefaultWindow() {
+		assertThat(service.cycleWindow(LocalDateTime.of(2025, 3, 14, 9, 30))).isEqualTo("2025-03-14#0");
+		assertThat(service.cycleWindow(LocalDateTime.of(2025, 3, 14, 14, 59))).isEqualTo("2025-03-14#0");
+
+		ReflectionTestUtils.setField(service, "windowMinutes", 60L);
+		assertThat(service.cycleWindow(LocalDateTime.of(2025, 3, 14, 9, 30))).isEqualTo("2025-03-14#9");
+	}
+
+	@Test
+	void sendsOnceAndReturnsTheOrderId() {
+		when(tastytrade.placeOrder(any())).thenReturn(Map.of("order", Map.of("id", 42)));
+
+		OrderSubmissionService.SubmissionResult result = submit();
+
+		assertThat(result.duplicate()).isFalse();
+		assertThat(result.orderId()).isEqualTo(42L);
+		verify(tastytrade, times(1)).placeOrder(any());
+	}
+
+	@Test
+	void doesNotSendWhenTheOrderIsAlreadyLive() {
+		when(tastytrade.getLiveOrders()).thenReturn(List.of(Map.of("id", 7,
+				"legs", List.of(Map.of("symbol", "AAPL250321P00150000", "action", "Sell to Open")))));
+
+		OrderSubmissionService.SubmissionResult result = submit();
+
+		assertThat(result.duplicate()).isTrue();
+		assertThat(result.orderId()).isEqualTo(7L);
+		verify(tastytrade, never()).placeOrder(any());
+	}
+
+	@Test
+	void duplicateKeyIsSuppressed() {
+		OrderSubmission existing = new OrderSubmission();
+		existing.setStatus(OrderSubmission.Status.SUBMITTED);
+		existing.setOrderId(9L);
+		when(repository.findByIdempotencyKey(anyString())).thenReturn(Optional.of(existing));
+
+		OrderSubmissionService.SubmissionResult result = submit();
+
+		assertThat(result.duplicate()).isTrue();
+		assertThat(result.orderId()).isEqualTo(9L);
+		verify(tastytrade, never()).placeOrder(any());
+	}
+
+	@Test
+	void retriesAfterTheBrokerRefusesTheOrder() {
+		when(tastytrade.placeOrder(any()))
+				.thenThrow(new RuntimeException("Order execution exception", new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)))
+				.thenReturn(Map.of("id", 43));
+
+		OrderSubmissionService.SubmissionResult result = submit();
+
+		assertThat(result.orderId()).isEqualTo(43L);
+		verify(tastytrade, times(2)).placeOrder(any());
+	}
+
+	@Test
+	void timeoutMarksTheClaimUnknownAndNeverResends() {
+		when(tastytrade.placeOrder(any()))
+				.thenThrow(new RuntimeException("Order execution exception", new ResourceAccessException("Read timed out")));
+
+		assertThatThrownBy(this::submit).hasMessageContaining("not resending");
+
+		verify(tastytrade, times(1)).placeOrder(any());
+		verify(repository).save(argThat(s -> s.getStatus() == OrderSubmission.Status.UNKNOWN));
+	}
+
+	@Test
+	void serverErrorIsNotResent() {
+		when(tastytrade.placeOrder(any()))
+				.thenThrow(new RuntimeException("Order execution exception", new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+
+		assertThatThrownBy(this::submit).isInstanceOf(RuntimeException.class);
+
+		verify(tastytrade, times(1)).placeOrder(any());
+	}
+
+	@Test
+	void failedLiveOrderCheckStopsTheResend() {
+		when(tastytrade.placeOrder(any()))
+				.thenThrow(new RuntimeException("Order execution exception", new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+		when(tastytrade.getLiveOrders())
+				.thenReturn(List.of())
+				.thenThrow(new RuntimeException("Live orders API error"));
+
+		assertThatThrownBy(this::submit).hasMessageContaining("failed after 2 attempts");
+
+		verify(tastytrade, times(1)).placeOrder(any());
+		verify(repository).save(argThat(s -> s.getStatus() == OrderSubmission.Status.FAILED));
+	}
+
+	private OrderSubmissionService.SubmissionResult submit() {
+		Map<String, Object> order = Map.of("price", 1.25,
+				"legs", List.of(Map.of("symbol", SYMBOL, "action", "Sell to Open", "quantity", 1)));
+		return service.submit(order, "AAPL", 150, "2025-03-21", "sell_put");
+	}
+}
@@ -0,0 +1,133 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.PortfolioPosition;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiskEngineTest {
+
+	private static final LocalDateTime AS_OF = LocalDateTime.of(2025, 3, 14, 9, 30);
+
+	@Test
+	void acceptsGreedilyInRankOrderWithinTheCashLimit() {
+		RiskEngine engine = new RiskEngine(1.0, 100.0, 5);
+		List<WheelDecision> ranked = List.of(put("AAPL", 150), put("MSFT", 100), put("KO", 50));
+
+		RiskEngine.Assessment assessment = engine.evaluate(ranked, portfolio(20_000, 100_000), 0.0);
+
+		assertThat(assessment.accepted()).extracting(WheelDecision::ticker).containsExactly("AAPL", "KO");
+		assertThat(assessment.rejected()).singleElement()
+				.satisfies(r -> assertThat(r.reason()).contains("aggregate commitment"));
+		assertThat(assessment.newCommitment()).isEqualTo(20_000.0);
+	}
+
+	@Test
+	void cashBufferWidensTheLimit() {
+		List<WheelDecision> ranked = List.of(put("AAPL", 105));
+
+		assertThat(new RiskEngine(1.1, 100.0, 5).evaluate(ranked, portfolio(10_000, 100_000), 0.0).accepted()).hasSize(1);
+		assertThat(new RiskEngine(1.0, 100.0, 5).evaluate(ranked, portfolio(10_000, 100_000), 0.0).accepted()).isEmpty();
+	}
+
+	@Test
+	void workingAndOpenCommitmentsCountAgainstTheLimit() {
+		RiskEngine engine = new RiskEngine(1.0, 100.0, 5);
+		PortfolioSnapshot portfolio = portfolio(20_000, 100_000,
+				new PortfolioPosition("KO  250321P00050000", "KO", "Equity Option", "Put", -1, 50.0, 0.5, -50));
+
+		assertThat(engine.evaluate(List.of(put("AAPL", 150)), portfolio, 0.0).accepted()).hasSize(1);
+		assertThat(engine.evaluate(List.of(put("AAPL", 150)), portfolio, 1_000.0).accepted()).isEmpty();
+	}
+
+	@Test
+	void putsNeedCashButCoveredCallsDoNot() {
+		RiskEngine engine = new RiskEngine(1.1, 10.0, 5);
+		PortfolioSnapshot assigned = portfolio(0, 100_000, shares("AAPL", 100));
+
+		RiskEngine.Assessment assessment = engine.evaluate(List.of(call("AAPL", 160), put("KO", 50)), assigned, 0.0);
+
+		assertThat(assessment.accepted()).extracting(WheelDecision::action).containsExactly("sell_call");
+		assertThat(assessment.rejected()).singleElement()
+				.satisfies(r -> assertThat(r.reason()).isEqualTo("no cash balance available"));
+	}
+
+	@Test
+	void callsAreLimitedToUncoveredShares() {
+		RiskEngine engine = new RiskEngine(1.1, 100.0, 5);
+		PortfolioSnapshot portfolio = portfolio(50_000, 100_000, shares("AAPL", 200),
+				new PortfolioPosition("AAPL  250321C00170000", "AAPL", "Equity Option", "Call", -1, 170.0, 1.0, -100));
+
+		RiskEngine.Assessment assessment = engine.evaluate(List.of(call("AAPL", 160), call("AAPL", 165)), portfolio, 0.0);
+
+		assertThat(assessment.accepted()).extracting(WheelDecision::strike).containsExactly(160.0);
+		assertThat(assessment.rejected()).singleElement()
+				.satisfies(r -> assertThat(r.reason()).contains("uncovered shares"));
+	}
+
+	@Test
+	void openShortPutsCountAtStrikeNotionalForTheUnderlyingCap() {
+		RiskEngine engine = new RiskEngine(1.1, 10.0, 5);
+		PortfolioSnapshot portfolio = portfolio(100_000, 100_000,
+				new PortfolioPosition("AAPL  250321P00150000", "AAPL", "Equity Option", "Put", -1, 150.0, 2.0, -200));
+
+		assertThat(portfolio.exposure("AAPL")).isEqualTo(15_000.0);
+		RiskEngine.Assessment assessment = engine.evaluate(List.of(put("AAPL", 140)), portfolio, 0.0);
+
+		assertThat(assessment.accepted()).isEmpty();
+		assertThat(assessment.rejected().getFirst().reason()).startsWith("AAPL exposure 15");
+	}
+
+	@Test
+	void putsAcceptedEarlierInTheBatchCountForTheUnderlyingCap() {
+		RiskEngine engine = new RiskEngine(1.1, 10.0, 5);
+		List<WheelDecision> ranked = List.of(put("AAPL", 150), put("AAPL", 145), put("KO", 50));
+
+		RiskEngine.Assessment assessment = engine.evaluate(ranked, portfolio(100_000, 100_000), 0.0);
+
+		assertThat(assessment.accepted()).extracting(WheelDecision::strike).containsExactly(150.0, 50.0);
+	}
+
+	@Test
+	void rejectsDuplicatesAndOrdersPastTheBatchLimit() {
+		RiskEngine engine = new RiskEngine(1.1, 100.0, 2);
+		List<WheelDecision> ranked = List.of(put("KO", 50), put("KO", 50), put("T", 20), put("F", 10));
+
+		RiskEngine.Assessment assessment = engine.evaluate(ranked, portfolio(100_000, 100_000), 0.0);
+
+		assertThat(assessment.accepted()).extracting(WheelDecision::ticker).containsExactly("KO", "T");
+		assertThat(assessment.rejected()).extracting(RiskEngine.Rejection::reason)
+				.containsExactly("duplicate of a higher-ranked order", "batch limit of 2 orders reached");
+	}
+
+	private static WheelDecision put(String ticker, double strike) {
+		return decision("sell_put", ticker, strike);
+	}
+
+	private static WheelDecision call(String ticker, double strike) {
+		return decision("sell_call", ticker, strike);
+	}
+
+	private static WheelDecision decision(String action, String ticker, double strike) {
+		return new WheelDecision(action, ticker, strike, "2025-03-21", 1, 1.0, 1.0, null, null, null, "", null, null, null);
+	}
+
+	private static PortfolioPosition shares(String ticker, double quantity) {
+		return new PortfolioPosition(ticker, ticker, "Stock", null, quantity, null, 150.0, quantity * 150.0);
+	}
+
+	private static PortfolioSnapshot portfolio(double cash, double netLiq, PortfolioPosition... positions) {
+		Map<String, PortfolioPosition> bySymbol = new LinkedHashMap<>();
+		for (PortfolioPosition position : positions) {
+			bySymbol.put(position.symbol(), position);
+		}
+		return PortfolioSnapshot.of(1, AS_OF, "test", netLiq, cash, bySymbol);
+	}
+}
@@ -0,0 +1,105 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.dtos.MarketStatusDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TradingCalendarTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void loadsTheBundledCalendar() {
+		TradingCalendar calendar = calendar();
+
+		assertThat(calendar.isTradingDay(LocalDate.of(2025, 7, 7))).isTrue();
+		assertThat(calendar.closeTime(LocalDate.of(2025, 7, 7))).contains(LocalTime.of(15, 0));
+		assertThat(calendar.closeTime(LocalDate.of(2025, 7, 3))).contains(LocalTime.of(12, 0));
+		assertThat(calendar.isTradingDay(LocalDate.of(2025, 7, 4))).isFalse();
+		assertThat(calendar.closeTime(LocalDate.of(2025, 7, 4))).isEmpty();
+		assertThat(calendar.isTradingDay(LocalDate.of(2025, 7, 5))).isFalse();
+	}
+
+	@Test
+	void coversTheDeclaredRangeOnly() {
+		TradingCalendar calendar = calendar();
+
+		assertThat(calendar.covers(LocalDate.of(2025, 1, 1))).isTrue();
+		assertThat(calendar.covers(LocalDate.of(2030, 12, 31))).isTrue();
+		assertThat(calendar.covers(LocalDate.of(2024, 12, 31))).isFalse();
+		assertThat(calendar.covers(LocalDate.of(2031, 1, 1))).isFalse();
+		assertThat(calendar.status(LocalDate.of(2031, 1, 2))).isEmpty();
+		assertThatThrownBy(() -> calendar.closeTime(LocalDate.of(2031, 1, 2))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void statusHasOptionScannersShape() {
+		MarketStatusDto early = calendar().status(LocalDate.of(2025, 11, 28)).orElseThrow();
+		MarketStatusDto holiday = calendar().status(LocalDate.of(2025, 12, 25)).orElseThrow();
+
+		assertThat(early.isTradingDay()).isTrue();
+		assertThat(early.getTodayCloseTime()).isEqualTo("12:00");
+		assertThat(holiday.isTradingDay()).isFalse();
+		assertThat(holiday.getTodayCloseTime()).isEqualTo("15:00");
+	}
+
+	@Test
+	void overridesTakePrecedenceAndLinesOutsideTheRangeAreIgnored() throws IOException {
+		Files.writeString(overrides(), """
+				# local corrections
+				2025-07-07 closed
+				2025-07-04 13:00
+				2035-01-02 closed
+				""");
+
+		TradingCalendar calendar = calendar();
+
+		assertThat(calendar.isTradingDay(LocalDate.of(2025, 7, 7))).isFalse();
+		assertThat(calendar.closeTime(LocalDate.of(2025, 7, 4))).contains(LocalTime.of(13, 0));
+	}
+
+	@Test
+	void reconcileAgreesWithoutWritingAnything() {
+		TradingCalendar calendar = calendar();
+
+		assertThat(calendar.reconcile(LocalDate.of(2025, 7, 3), new MarketStatusDto(true, "12:00"))).isTrue();
+		assertThat(calendar.reconcile(LocalDate.of(2025, 7, 4), new MarketStatusDto(false, null))).isTrue();
+		assertThat(overrides()).doesNotExist();
+	}
+
+	@Test
+	void reconcileAdoptsTheLiveAnswerAndPersistsIt() {
+		TradingCalendar calendar = calendar();
+		LocalDate day = LocalDate.of(2026, 3, 9);
+
+		assertThat(calendar.reconcile(day, new MarketStatusDto(false, null))).isFalse();
+
+		assertThat(calendar.isTradingDay(day)).isFalse();
+		assertThat(overrides()).content().contains("2026-03-09 closed");
+		assertThat(calendar().isTradingDay(day)).isFalse();
+	}
+
+	@Test
+	void reconcileIgnoresDaysOutsideTheRange() {
+		assertThat(calendar().reconcile(LocalDate.of(2031, 1, 2), new MarketStatusDto(true, "15:00"))).isFalse();
+		assertThat(overrides()).doesNotExist();
+	}
+
+	private TradingCalendar calendar() {
+		return new TradingCalendar(overrides().toString());
+	}
+
+	private Path overrides() {
+		return dir.resolve("calendar-overrides.txt");
+	}
+}
@@ -0,0 +1,57 @@
+package com.larrydevincarter.thufir.services;
+
+import com.larrydevincarter.thufir.models.TradingAccount;
+import com.larrydevincarter.thufir.models.TradingState;
+import com.larrydevincarter.thufir.models.entities.TradingControl;
+import com.larrydevincarter.thufir.repositories.TradingControlRepository;
+import com.larrydevincarter.thufir.tools.CommunicationTools;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TradingControlServiceTest {
+
+	private final TradingControlRepository repository = mock(TradingControlRepository.class);
+	private final ClusterCoordinator coordinator = mock(ClusterCoordinator.class);
+
+	@Test
+	void ownerPauseLostToAnOutageIsWrittenOnTheNextSyncWithoutClustering() {
+		TradingControlService service = service();
+		when(repository.save(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+		service.pauseByOwner("going away");
+
+		doAnswer(invocation -> invocation.getArgument(0)).when(repository).save(any());
+		service.sync();
+
+		verify(repository, times(2)).save(argThat((TradingControl control) -> control.getState() == TradingState.PAUSED_BY_OWNER));
+		service.sync();
+		verify(repository, times(2)).save(any());
+	}
+
+	@Test
+	void singleInstanceWithNothingPendingDoesNotReadTheRow() {
+		TradingControlService service = service();
+
+		service.sync();
+
+		verify(repository, never()).findById(any());
+	}
+
+	private TradingControlService service() {
+		AccountRegistry accounts = mock(AccountRegistry.class);
+		when(accounts.all()).thenReturn(List.of(new TradingAccount("primary", "5WT0001", "user", "pass", true)));
+		when(coordinator.enabled()).thenReturn(false);
+		return new TradingControlService(repository, mock(CommunicationTools.class), accounts, coordinator);
+	}
+}
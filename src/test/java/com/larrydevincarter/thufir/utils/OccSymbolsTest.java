@@ -0,0 +1,39 @@
+package com.larrydevincarter.thufir.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccSymbolsTest {
+
+	@Test
+	void formatsPaddedRootDateTypeAndStrike() {
+		assertThat(OccSymbols.format("aapl", LocalDate.of(2025, 3, 21), 'p', 150))
+				.isEqualTo("AAPL  250321P00150000");
+		assertThat(OccSymbols.format("SPY", LocalDate.of(2025, 12, 19), 'C', 602.5))
+				.isEqualTo("SPY   251219C00602500");
+	}
+
+	@Test
+	void normalizeIgnoresWhitespaceAndCase() {
+		assertThat(OccSymbols.normalize("aapl  250321p00150000")).isEqualTo("AAPL250321P00150000");
+		assertThat(OccSymbols.normalize(null)).isEmpty();
+	}
+
+	@Test
+	void parseRoundTripsFormat() {
+		String symbol = OccSymbols.format("BRK.B", LocalDate.of(2026, 1, 16), 'P', 412.5);
+
+		assertThat(OccSymbols.parse(symbol)).contains(
+				new OccSymbols.Parsed("BRK.B", LocalDate.of(2026, 1, 16), 'P', 412.5));
+	}
+
+	@Test
+	void parseRejectsNonOptionSymbols() {
+		assertThat(OccSymbols.parse("AAPL")).isEmpty();
+		assertThat(OccSymbols.parse("AAPL  259921P00150000")).isEmpty();
+		assertThat(OccSymbols.parse(null)).isEmpty();
+	}
+}
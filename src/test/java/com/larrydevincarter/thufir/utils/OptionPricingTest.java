@@ -0,0 +1,110 @@
+package com.larrydevincarter.thufir.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Reference values are from Hull (Options, Futures and Other Derivatives, example 15.6) and Haug (The Complete
+ * Guide to Option Pricing Formulas, 2nd ed., sections 1.1 and 3.1.2).
+ */
+class OptionPricingTest {
+
+	@Test
+	void normCdfMatchesTheTable() {
+		assertThat(OptionPricing.normCdf(0)).isCloseTo(0.5, within(1e-7));
+		assertThat(OptionPricing.normCdf(1.96)).isCloseTo(0.9750021, within(2e-7));
+		assertThat(OptionPricing.normCdf(-1.0)).isCloseTo(0.1586553, within(2e-7));
+		assertThat(OptionPricing.normCdf(9)).isEqualTo(1.0);
+	}
+
+	@Test
+	void blackScholesMatchesReferenceValues() {
+		// Hull: S=42, K=40, T=0.5, r=10%, vol=20%, no dividend.
+		assertThat(OptionPricing.blackScholes(true, 42, 40, 0.5, 0.1, 0.1, 0.2)).isCloseTo(4.7594, within(1e-4));
+		assertThat(OptionPricing.blackScholes(false, 42, 40, 0.5, 0.1, 0.1, 0.2)).isCloseTo(0.8086, within(1e-4));
+		// Haug 1.1: S=60, K=65, T=0.25, r=b=8%, vol=30%.
+		assertThat(OptionPricing.blackScholes(true, 60, 65, 0.25, 0.08, 0.08, 0.3)).isCloseTo(2.1334, within(1e-4));
+	}
+
+	@Test
+	void blackScholesSatisfiesPutCallParity() {
+		double s = 100, k = 95, t = 0.3, r = 0.05, b = 0.03, vol = 0.4;
+		double call = OptionPricing.blackScholes(true, s, k, t, r, b, vol);
+		double put = OptionPricing.blackScholes(false, s, k, t, r, b, vol);
+
+		assertThat(call - put).isCloseTo(s * Math.exp((b - r) * t) - k * Math.exp(-r * t), within(1e-6));
+	}
+
+	@Test
+	void expiredOrZeroVolOptionIsWorthItsIntrinsicValue() {
+		assertThat(OptionPricing.blackScholes(true, 110, 100, 0, 0.05, 0.05, 0.2)).isEqualTo(10.0);
+		assertThat(OptionPricing.blackScholes(false, 110, 100, 0.5, 0.05, 0.05, 0)).isEqualTo(0.0);
+	}
+
+	@Test
+	void bjerksundStenslandMatchesHaug() {
+		// Haug 3.1.2: S=42, K=40, T=0.75, r=4%, b=-4%, vol=35%.
+		assertThat(OptionPricing.bjerksundStensland(true, 42, 40, 0.75, 0.04, -0.04, 0.35)).isCloseTo(5.2704, within(1e-4));
+	}
+
+	@Test
+	void americanValueIsNeverBelowEuropean() {
+		double european = OptionPricing.blackScholes(false, 100, 100, 1, 0.1, 0.1, 0.25);
+		double american = OptionPricing.bjerksundStensland(false, 100, 100, 1, 0.1, 0.1, 0.25);
+
+		assertThat(american).isGreaterThan(european);
+		// Without a dividend a call is never exercised early.
+		assertThat(OptionPricing.bjerksundStensland(true, 100, 100, 1, 0.1, 0.1, 0.25))
+				.isEqualTo(OptionPricing.blackScholes(true, 100, 100, 1, 0.1, 0.1, 0.25));
+	}
+
+	@Test
+	void impliedVolRecoversTheVolThatPricedTheOption() {
+		for (boolean call : new boolean[]{true, false}) {
+			for (double vol : new double[]{0.1, 0.3, 0.9}) {
+				double price = OptionPricing.blackScholes(call, 100, 105, 45 / 365.0, 0.045, 0.03, vol);
+
+				assertThat(OptionPricing.impliedVol(call, price, 100, 105, 45 / 365.0, 0.045, 0.03))
+						.isCloseTo(vol, within(1e-4));
+			}
+		}
+	}
+
+	@Test
+	void impliedVolIsNaNOutsideTheNoArbitrageBounds() {
+		assertThat(OptionPricing.impliedVol(false, 0.01, 100, 120, 0.25, 0.05, 0.05)).isNaN();
+		assertThat(OptionPricing.impliedVol(true, 150, 100, 100, 0.25, 0.05, 0.05)).isNaN();
+		assertThat(OptionPricing.impliedVol(true, 0, 100, 100, 0.25, 0.05, 0.05)).isNaN();
+	}
+
+	@Test
+	void shortProbabilityOfProfitUsesTheBreakeven() {
+		double t = 30 / 365.0;
+
+		assertThat(OptionPricing.shortProbabilityOfProfit(false, 100, 90, 1, t, 0.05, 0.25)).isCloseTo(0.95026, within(1e-4));
+		assertThat(OptionPricing.shortProbabilityOfProfit(true, 100, 110, 1, t, 0.05, 0.25)).isCloseTo(0.92429, within(1e-4));
+		assertThat(OptionPricing.shortProbabilityOfProfit(false, 100, 0.5, 1, t, 0.05, 0.25)).isEqualTo(1.0);
+	}
+
+	@Test
+	void evaluateFillsEveryContractAndMarksUnpricedOnesNaN() {
+		OptionChainBuffers chain = new OptionChainBuffers(2);
+		chain.riskFreeRate = 0.045;
+		chain.dividendYield = 0.0;
+		double t = 30 / 365.0;
+		int priced = chain.add(false, 100, 95, t, OptionPricing.blackScholes(false, 100, 95, t, 0.045, 0.045, 0.3));
+		int unpriced = chain.add(false, 100, 95, t, 0);
+
+		OptionPricing.evaluate(chain);
+
+		assertThat(chain.impliedVol[priced]).isCloseTo(0.3, within(1e-4));
+		assertThat(chain.delta[priced]).isBetween(-0.5, 0.0);
+		assertThat(chain.thetaPerDay[priced]).isNegative();
+		assertThat(chain.probabilityOfProfit[priced]).isBetween(0.5, 1.0);
+		assertThat(chain.americanValue[priced]).isGreaterThanOrEqualTo(chain.price[priced]);
+		assertThat(chain.impliedVol[unpriced]).isNaN();
+		assertThat(chain.delta[unpriced]).isNaN();
+	}
+}
@@ -0,0 +1,25 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark (or those matching the first argument) with the gc profiler attached, so each result
+ * carries allocation rate per operation next to throughput.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Dthufir.fixtures.capture=" + System.getProperty("thufir.fixtures.capture", ""))
+                .build();
+        new Runner(options).run();
+    }
+}
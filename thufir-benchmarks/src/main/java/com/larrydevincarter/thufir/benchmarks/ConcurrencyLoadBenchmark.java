@@ -0,0 +1,144 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * How long one JVM takes to finish {@code requests} simultaneous units of I/O-bound work: wheel cycles (three
+ * upstream calls), tool calls (one) and Discord requests (one) in equal parts. Every upstream call first passes the
+ * session check TastytradeClient makes, and the session expires every {@code SESSION_TTL_MS}, so a refresh
+ * (blocking I/O) regularly runs while the check is held. Upstream latency is a sleep. Both gates share
+ * TastytradeClient's volatile fast path and only take their lock once the session has expired, so the lock modes
+ * differ in nothing but how waiters block during a refresh.
+ * <p>
+ * Modes:
+ * <ul>
+ *   <li>{@code platform-synchronized}: the old model, a 200-thread platform pool and a {@code synchronized} check.</li>
+ *   <li>{@code virtual-synchronized}: virtual threads with the {@code synchronized} check. Threads that wait on the
+ *   monitor during a refresh pin their carriers.</li>
+ *   <li>{@code virtual-reentrant}: the current model, with virtual threads and a {@code ReentrantLock} check.</li>
+ * </ul>
+ * Requests divided by the score is the sustained rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrencyLoadBenchmark {
+
+    private static final long UPSTREAM_LATENCY_MS = 50;
+    private static final long LOGIN_LATENCY_MS = 100;
+    private static final long SESSION_TTL_MS = 250;
+    private static final int PLATFORM_POOL = 200;
+
+    @Param({"platform-synchronized", "virtual-synchronized", "virtual-reentrant"})
+    public String mode;
+
+    @Param({"100", "1000", "10000"})
+    public int requests;
+
+    private ExecutorService executor;
+    private SessionGate gate;
+
+    @Setup(Level.Iteration)
+    public void start() {
+        executor = mode.startsWith("virtual") ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(PLATFORM_POOL);
+        gate = mode.endsWith("reentrant") ? new ReentrantGate() : new SynchronizedGate();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long mixedLoad() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            int calls = i % 3 == 0 ? 3 : 1;
+            executor.execute(() -> {
+                try {
+                    for (int c = 0; c < calls; c++) {
+                        gate.ensureSession();
+                        Thread.sleep(UPSTREAM_LATENCY_MS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return gate.logins();
+    }
+
+    private abstract static class SessionGate {
+
+        protected volatile long expiresAt;
+        protected long logins;
+
+        void ensureSession() throws InterruptedException {
+            if (System.currentTimeMillis() <= expiresAt) {
+                return;
+            }
+            refreshLocked();
+        }
+
+        abstract void refreshLocked() throws InterruptedException;
+
+        protected void refreshIfNeeded() throws InterruptedException {
+            if (System.currentTimeMillis() > expiresAt) {
+                Thread.sleep(LOGIN_LATENCY_MS);
+                expiresAt = System.currentTimeMillis() + SESSION_TTL_MS;
+                logins++;
+            }
+        }
+
+        long logins() {
+            return logins;
+        }
+    }
+
+    private static final class SynchronizedGate extends SessionGate {
+
+        @Override
+        synchronized void refreshLocked() throws InterruptedException {
+            refreshIfNeeded();
+        }
+    }
+
+    private static final class ReentrantGate extends SessionGate {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @Override
+        void refreshLocked() throws InterruptedException {
+            lock.lock();
+            try {
+                refreshIfNeeded();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
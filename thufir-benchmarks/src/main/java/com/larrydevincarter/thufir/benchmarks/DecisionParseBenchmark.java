@@ -0,0 +1,59 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.WheelDecision;
+import com.larrydevincarter.thufir.models.WheelPlan;
+import com.larrydevincarter.thufir.utils.WheelDecisionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding model replies: the strict path structured output takes, and the local repair path for fenced,
+ * prose-wrapped replies with trailing commas and snake_case keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionParseBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String repairReply;
+    private String strictReply;
+    private String planReply;
+
+    @Setup
+    public void load() throws IOException {
+        repairReply = Fixtures.load("decision-reply.txt", null);
+        strictReply = mapper.writeValueAsString(WheelDecisionParser.parse(repairReply));
+        planReply = Fixtures.load("plan-reply.txt", null);
+    }
+
+    @Benchmark
+    public WheelDecision strict() throws IOException {
+        return mapper.readValue(strictReply, WheelDecision.class);
+    }
+
+    @Benchmark
+    public WheelDecision repair() {
+        return WheelDecisionParser.parse(repairReply);
+    }
+
+    @Benchmark
+    public WheelPlan plan() {
+        return WheelDecisionParser.parsePlan(planReply);
+    }
+}
@@ -0,0 +1,58 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.CapturedExchange;
+import com.larrydevincarter.thufir.services.CaptureLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Recorded inputs for the benchmarks. Bundled fixtures live under {@code /fixtures}; when
+ * {@code -Dthufir.fixtures.capture=<file>} points at a capture log, the first captured response whose
+ * request key contains the fixture's URL fragment is used instead.
+ */
+final class Fixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<CapturedExchange> CAPTURED = loadCapture();
+
+    private Fixtures() {}
+
+    /**
+     * @param name        bundled fixture file
+     * @param urlFragment part of the captured request URL that identifies the same response, or null for
+     *                    fixtures that only exist bundled
+     */
+    static String load(String name, String urlFragment) {
+        for (CapturedExchange exchange : CAPTURED) {
+            if (urlFragment != null && "http".equals(exchange.kind()) && exchange.key().contains(urlFragment) && exchange.response() != null) {
+                return exchange.response();
+            }
+        }
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<CapturedExchange> loadCapture() {
+        String path = System.getProperty("thufir.fixtures.capture");
+        if (path == null || path.isBlank()) {
+            return List.of();
+        }
+        try {
+            return new CaptureLog(MAPPER, "off", ".", "", 1).read(Path.of(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.larrydevincarter.thufir.utils.OptionChainBuffers;
+import com.larrydevincarter.thufir.utils.OptionPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implied vol, Greeks, probability of profit and the American value over a synthetic chain of
+ * {@code contracts} options priced at known volatilities. One operation is the whole chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptionPricingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int contracts;
+
+    private OptionChainBuffers chain;
+
+    @Setup
+    public void build() {
+        chain = new OptionChainBuffers(contracts);
+        chain.riskFreeRate = 0.045;
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < contracts; i++) {
+            boolean call = (i & 1) == 0;
+            double spot = 5 + random.nextDouble() * 95;
+            double strike = spot * (0.8 + random.nextDouble() * 0.4);
+            double years = (7 + random.nextInt(60)) / 365.0;
+            double vol = 0.2 + random.nextDouble() * 0.6;
+            chain.add(call, spot, strike, years, OptionPricing.blackScholes(call, spot, strike, years, 0.045, 0.045, vol));
+        }
+    }
+
+    @Benchmark
+    public OptionChainBuffers evaluate() {
+        OptionPricing.evaluate(chain);
+        return chain;
+    }
+}
@@ -0,0 +1,78 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.models.PortfolioSnapshot;
+import com.larrydevincarter.thufir.services.PortfolioLedger;
+import com.larrydevincarter.thufir.tools.TastytradeTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger aggregation from decoded broker payloads and the getPositionsSummary rendering on top of it.
+ * {@code positions} scales the recorded book by repeating it under distinct symbols.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionsSummaryBenchmark {
+
+    @Param({"1", "10"})
+    public int copies;
+
+    private final LocalDateTime asOf = LocalDateTime.of(2025, 3, 14, 15, 0);
+    private Map<String, Object> positions;
+    private Map<String, Object> balances;
+    private PortfolioSnapshot snapshot;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void load() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> recorded = (Map<String, Object>) mapper.readValue(
+                Fixtures.load("tastytrade-positions.json", "/positions"), Map.class).get("data");
+        balances = (Map<String, Object>) mapper.readValue(
+                Fixtures.load("tastytrade-balances.json", "/balances"), Map.class).get("data");
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int copy = 0; copy < copies; copy++) {
+            for (Map<String, Object> item : (List<Map<String, Object>>) recorded.get("items")) {
+                Map<String, Object> scaled = new HashMap<>(item);
+                scaled.put("symbol", item.get("symbol") + "#" + copy);
+                scaled.put("underlying-symbol", item.get("underlying-symbol") + (copy == 0 ? "" : String.valueOf(copy)));
+                items.add(scaled);
+            }
+        }
+        positions = Map.of("items", items);
+        snapshot = PortfolioLedger.fromBroker(1, asOf, "benchmark", positions, balances);
+    }
+
+    @Benchmark
+    public PortfolioSnapshot aggregate() {
+        return PortfolioLedger.fromBroker(1, asOf, "benchmark", positions, balances);
+    }
+
+    @Benchmark
+    public String render() {
+        return TastytradeTools.renderPositionsSummary("5WX00000", snapshot);
+    }
+}
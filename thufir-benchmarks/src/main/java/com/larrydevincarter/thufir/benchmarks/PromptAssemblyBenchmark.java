@@ -0,0 +1,64 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.larrydevincarter.thufir.services.PortfolioLedger;
+import com.larrydevincarter.thufir.services.WheelStrategyExecutor;
+import com.larrydevincarter.thufir.tools.MarketDataTools;
+import com.larrydevincarter.thufir.tools.TastytradeTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembling the single-decision cycle prompt around a snapshot built the way CycleRouter builds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptAssemblyBenchmark {
+
+    private static final String CHOICE_STEPS = """
+            7. Choose ONE best: contract to sell or share limit order
+            8. If none → hold + loosen for next""";
+
+    private String snapshot;
+    private String outputSpec;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void load() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> positions = (Map<String, Object>) mapper.readValue(
+                Fixtures.load("tastytrade-positions.json", "/positions"), Map.class).get("data");
+        Map<String, Object> balances = (Map<String, Object>) mapper.readValue(
+                Fixtures.load("tastytrade-balances.json", "/balances"), Map.class).get("data");
+
+        String vix = MarketDataTools.parseCnbc(Fixtures.load("cnbc-vix.html", "cnbc.com/quotes/.VIX"))
+                .map(MarketDataTools.VixResult::toFormattedString)
+                .orElseThrow();
+        String summary = TastytradeTools.renderPositionsSummary("5WX00000",
+                PortfolioLedger.fromBroker(1, LocalDateTime.of(2025, 3, 14, 15, 0), "benchmark", positions, balances));
+        snapshot = vix + "\n\n" + balances + "\n\n" + summary;
+        outputSpec = "Output ONLY the decision object (schema enforced):\n" + WheelStrategyExecutor.DECISION_SCHEMA;
+    }
+
+    @Benchmark
+    public String singleDecisionPrompt() {
+        return WheelStrategyExecutor.cyclePrompt("2025-03-14 14:05", snapshot, CHOICE_STEPS, outputSpec);
+    }
+}
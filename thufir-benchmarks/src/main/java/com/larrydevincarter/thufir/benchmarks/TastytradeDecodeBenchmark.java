@@ -0,0 +1,52 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding Tastytrade positions and balances into the maps TastytradeClient hands out, using the
+ * application's ObjectMapper configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TastytradeDecodeBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private byte[] positions;
+    private byte[] balances;
+
+    @Setup
+    public void load() {
+        positions = Fixtures.load("tastytrade-positions.json", "/positions").getBytes(StandardCharsets.UTF_8);
+        balances = Fixtures.load("tastytrade-balances.json", "/balances").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<?, ?> positions() throws IOException {
+        return mapper.readValue(positions, Map.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> balances() throws IOException {
+        return mapper.readValue(balances, Map.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.larrydevincarter.thufir.benchmarks;
+
+import com.larrydevincarter.thufir.tools.MarketDataTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VIX extraction from the CNBC and Investing.com quote pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VixParseBenchmark {
+
+    private String cnbc;
+    private String investing;
+
+    @Setup
+    public void load() {
+        cnbc = Fixtures.load("cnbc-vix.html", "cnbc.com/quotes/.VIX");
+        investing = Fixtures.load("investing-vix.html", "investing.com/indices/volatility-s-p-500");
+    }
+
+    @Benchmark
+    public Optional<MarketDataTools.VixResult> cnbc() {
+        return MarketDataTools.parseCnbc(cnbc);
+    }
+
+    @Benchmark
+    public Optional<MarketDataTools.VixResult> investing() {
+        return MarketDataTools.parseInvesting(investing);
+    }
+}